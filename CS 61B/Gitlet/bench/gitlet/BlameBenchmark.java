@@ -0,0 +1,191 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Blame of one file with a long history, built straight into a
+ *  temporary repository: LINES lines, COMMITS commits, of which every
+ *  TOUCHEVERY-th edits the file and the rest edit another one.
+ *  blameCold starts with no saved results; blameAfterOneCommit starts
+ *  with results saved just before the newest commit.  Run with
+ *  "make bench".
+ *  @author Swadhin Nalubola
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class BlameBenchmark {
+
+    /** Lines in the blamed file.  JMH sets parameters from generated
+     *  code, so they are public. */
+    @Param({"20000"})
+    public int lines;
+
+    /** Commits of history. */
+    @Param({"5000"})
+    public int commits;
+
+    /** Every how many commits the blamed file changes. */
+    @Param({"10"})
+    public int touchEvery;
+
+    /**
+     * Build the history, then blame it once so that results are saved
+     * at the next-to-last commit, and add one more commit.
+     * @throws IOException on failure
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        _dir = Files.createTempDirectory("gitlet-blame").toFile();
+        Repo repo = new Repo(_dir.getPath());
+        repo.create();
+        Random random = new Random(SEED);
+        ArrayList<String> content = new ArrayList<>();
+        for (int i = 0; i < lines; i += 1) {
+            content.add("line " + i);
+        }
+        HashMap<String, String> blobs = new HashMap<>();
+        String parent = null;
+        for (int c = 0; c < commits - 1; c += 1) {
+            parent = commit(repo, random, content, blobs, parent, c);
+        }
+        CommitGraph.write(repo);
+        new Blame(repo).origins(PATH, parent);
+        _head = commit(repo, random, content, blobs, parent, 0);
+    }
+
+    /**
+     * Forget saved results and decoded objects before a cold blame.
+     * @throws IOException on failure
+     */
+    @Setup(Level.Invocation)
+    public void reset() throws IOException {
+        _repo = new Repo(_dir.getPath());
+        Utils.join(_repo.blamePath(), Utils.sha1(PATH), _head).delete();
+    }
+
+    /**
+     * Blame with no saved results.
+     * @return origins
+     * @throws IOException on failure
+     */
+    @Benchmark
+    public String[] blameCold() throws IOException {
+        delete(new File(_repo.blamePath()).toPath());
+        return new Blame(_repo).origins(PATH, _head);
+    }
+
+    /**
+     * Blame with results saved one commit back.
+     * @return origins
+     */
+    @Benchmark
+    public String[] blameAfterOneCommit() {
+        return new Blame(_repo).origins(PATH, _head);
+    }
+
+    /**
+     * Remove the repository.
+     * @throws IOException on failure
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        delete(_dir.toPath());
+    }
+
+    /**
+     * Store a commit on PARENT, editing the blamed file if number C
+     * says so and another file otherwise.
+     * @param repo repo
+     * @param random random
+     * @param content lines of the blamed file, updated
+     * @param blobs snapshot, updated
+     * @param parent string
+     * @param c int
+     * @return new commit sha
+     */
+    private String commit(Repo repo, Random random, List<String> content,
+                          HashMap<String, String> blobs, String parent,
+                          int c) {
+        String path = OTHER;
+        String text = Integer.toString(c);
+        if (c % touchEvery == 0) {
+            for (int i = 0; i < EDITS; i += 1) {
+                content.set(random.nextInt(content.size()),
+                        "edit " + c + " " + i);
+            }
+            content.add(random.nextInt(content.size()), "insert " + c);
+            path = PATH;
+            text = String.join("\n", content) + "\n";
+        }
+        byte[] bytes = text.getBytes(StandardCharsets.UTF_8);
+        Blob blob = new Blob(Utils.sha1((Object) bytes), bytes);
+        repo.objects().writeBlob(blob);
+        blobs.put(path, blob.getSHA1());
+        CommitObject commit = new CommitObject("commit " + c, "bench",
+                "Thu Jan 01 00:00:00 1970 +0000", parent, null, "master",
+                new HashMap<>(blobs));
+        repo.objects().writeCommit(commit);
+        return commit.getSHA();
+    }
+
+    /**
+     * Delete PATH and everything below it.
+     * @param path path
+     * @throws IOException on failure
+     */
+    private static void delete(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> walk = Files.walk(path)) {
+            for (Path p : (Iterable<Path>) walk
+                     .sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    /** The blamed file. */
+    private static final String PATH = "big.txt";
+    /** The file edited by other commits. */
+    private static final String OTHER = "other.txt";
+    /** Lines changed by each commit to the blamed file. */
+    private static final int EDITS = 3;
+    /** Random seed, so runs are comparable. */
+    private static final long SEED = 61;
+
+    /** repository directory. */
+    private File _dir;
+    /** the repository, reopened per invocation. */
+    private Repo _repo;
+    /** newest commit. */
+    private String _head;
+}
@@ -0,0 +1,182 @@
+package gitlet;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/** Compares ObjectCodec with the Java serialization objects used to be
+ *  stored with.  Run with "make bench".  The stored size of each form is
+ *  printed to standard error once per trial.
+ *  @author Swadhin Nalubola
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CodecBenchmark {
+
+    /** Files in the benchmark commit's snapshot.  JMH sets parameters
+     *  from generated code, so they are public. */
+    @Param({"10", "1000"})
+    public int files;
+
+    /** Bytes in the benchmark blob. */
+    @Param({"100", "65536"})
+    public int blobBytes;
+
+    /**
+     * Build a commit and a blob and report their stored sizes.
+     */
+    @Setup(Level.Trial)
+    public void setUp() {
+        Random random = new Random(SEED);
+        HashMap<String, String> blobs = new HashMap<>();
+        for (int i = 0; i < files; i += 1) {
+            blobs.put("dir" + (i % DIRS) + "/file" + i + ".txt",
+                    Utils.sha1(Integer.toString(random.nextInt())));
+        }
+        _commit = new CommitObject("a commit message", "author",
+                "Thu Jan 01 00:00:00 1970 +0000", Utils.sha1("parent"),
+                null, "master", blobs);
+        byte[] contents = new byte[blobBytes];
+        random.nextBytes(contents);
+        _blob = new Blob(Utils.sha1(contents), contents);
+
+        _commitCodec = ObjectCodec.encode(_commit);
+        _commitJava = Utils.serialize(_commit);
+        _blobCodec = ObjectCodec.encode(_blob);
+        _blobJava = Utils.serialize(_blob);
+        System.err.printf("commit of %d files: codec %d bytes, "
+                + "serialized %d bytes%n", files, _commitCodec.length,
+                _commitJava.length);
+        System.err.printf("blob of %d bytes: codec %d bytes, "
+                + "serialized %d bytes%n", blobBytes, _blobCodec.length,
+                _blobJava.length);
+    }
+
+    /**
+     * Encode a commit with ObjectCodec.
+     * @return byte[]
+     */
+    @Benchmark
+    public byte[] encodeCommitCodec() {
+        return ObjectCodec.encode(_commit);
+    }
+
+    /**
+     * Encode a commit with Java serialization.
+     * @return byte[]
+     */
+    @Benchmark
+    public byte[] encodeCommitSerialized() {
+        return Utils.serialize(_commit);
+    }
+
+    /**
+     * Decode a commit with ObjectCodec.
+     * @return commitobject
+     */
+    @Benchmark
+    public CommitObject decodeCommitCodec() {
+        return ObjectCodec.decodeCommit(ByteBuffer.wrap(_commitCodec));
+    }
+
+    /**
+     * Decode a commit with Java serialization.
+     * @return commitobject
+     * @throws Exception on failure
+     */
+    @Benchmark
+    public CommitObject decodeCommitSerialized() throws Exception {
+        return (CommitObject) deserialize(_commitJava);
+    }
+
+    /**
+     * Encode a blob with ObjectCodec.
+     * @return byte[]
+     */
+    @Benchmark
+    public byte[] encodeBlobCodec() {
+        return ObjectCodec.encode(_blob);
+    }
+
+    /**
+     * Encode a blob with Java serialization.
+     * @return byte[]
+     */
+    @Benchmark
+    public byte[] encodeBlobSerialized() {
+        return Utils.serialize(_blob);
+    }
+
+    /**
+     * Decode a blob with ObjectCodec.
+     * @return blob
+     */
+    @Benchmark
+    public Blob decodeBlobCodec() {
+        return ObjectCodec.decodeBlob(ByteBuffer.wrap(_blobCodec));
+    }
+
+    /**
+     * Decode a blob with Java serialization.
+     * @return blob
+     * @throws Exception on failure
+     */
+    @Benchmark
+    public Blob decodeBlobSerialized() throws Exception {
+        return (Blob) deserialize(_blobJava);
+    }
+
+    /**
+     * Read a Java-serialized object.
+     * @param bytes byte[]
+     * @return object
+     * @throws IOException on failure
+     * @throws ClassNotFoundException on failure
+     */
+    private static Object deserialize(byte[] bytes)
+        throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in =
+                 new ObjectInputStream(new ByteArrayInputStream(bytes))) {
+            return in.readObject();
+        }
+    }
+
+    /** Random seed, so runs are comparable. */
+    private static final long SEED = 61;
+    /** Directories the snapshot's files are spread over. */
+    private static final int DIRS = 16;
+
+    /** benchmark commit. */
+    private CommitObject _commit;
+    /** benchmark blob. */
+    private Blob _blob;
+    /** the commit in ObjectCodec form. */
+    private byte[] _commitCodec;
+    /** the commit in Java serialized form. */
+    private byte[] _commitJava;
+    /** the blob in ObjectCodec form. */
+    private byte[] _blobCodec;
+    /** the blob in Java serialized form. */
+    private byte[] _blobJava;
+}
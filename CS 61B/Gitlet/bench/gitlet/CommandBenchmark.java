@@ -0,0 +1,272 @@
+package gitlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+/** The everyday commands, each run as its own gitlet process in a
+ *  repository from RepoGenerator, just as a user runs them.  Times
+ *  include starting the JVM; baseline runs gitlet with no command, so
+ *  subtracting it leaves the command's own work.  Each benchmark gets a
+ *  fresh repository in its own fork, and whatever one run changes is
+ *  set up again, untimed, before the next.  Run with "make bench"; the
+ *  results are also written as JSON to BENCH_RESULTS.
+ *  @author Swadhin Nalubola
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(1)
+public class CommandBenchmark {
+
+    /** Files in the repository.  JMH sets parameters from generated
+     *  code, so they are public. */
+    @Param({"1000"})
+    public int files;
+
+    /** Typical file size in bytes. */
+    @Param({"4096"})
+    public int fileBytes;
+
+    /** Commits of history. */
+    @Param({"500"})
+    public int commits;
+
+    /** Branches the commits are spread over. */
+    @Param({"4"})
+    public int branches;
+
+    /** Share of files that are binary. */
+    @Param({"0.1"})
+    public double binaryRatio;
+
+    /**
+     * Generate the repository.
+     * @throws IOException on failure
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        _dir = Files.createTempDirectory("gitlet-bench").toFile();
+        _head = new RepoGenerator(files, fileBytes, commits, branches,
+                binaryRatio, SEED).generate(_dir);
+        ArrayList<String> classPath = new ArrayList<>();
+        for (String entry : System.getProperty("java.class.path")
+                 .split(File.pathSeparator)) {
+            classPath.add(new File(entry).getAbsolutePath());
+        }
+        _classPath = String.join(File.pathSeparator, classPath);
+        _runs = 0;
+    }
+
+    /**
+     * Ready the next run of the benchmark PARAMS names: give the added
+     * file new contents, stage it for commit, and undo the last merge.
+     * @param params benchmarkparams
+     * @throws IOException on failure
+     */
+    @Setup(Level.Iteration)
+    public void prepare(BenchmarkParams params) throws IOException {
+        _runs += 1;
+        String benchmark = params.getBenchmark();
+        switch (benchmark.substring(benchmark.lastIndexOf('.') + 1)) {
+        case "add":
+            edit();
+            break;
+        case "commit":
+            edit();
+            gitlet("add", ADDED);
+            break;
+        case "merge":
+            gitlet("reset", _head);
+            break;
+        default:
+            break;
+        }
+    }
+
+    /**
+     * Remove the repository.
+     * @throws IOException on failure
+     */
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        try (Stream<Path> walk = Files.walk(_dir.toPath())) {
+            for (Path p : (Iterable<Path>) walk
+                     .sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        }
+    }
+
+    /**
+     * Start gitlet and have it do nothing.
+     * @return output
+     * @throws IOException on failure
+     */
+    @Benchmark
+    public String baseline() throws IOException {
+        return gitlet();
+    }
+
+    /**
+     * Stage a changed file.
+     * @return output
+     * @throws IOException on failure
+     */
+    @Benchmark
+    public String add() throws IOException {
+        return gitlet("add", ADDED);
+    }
+
+    /**
+     * Commit a staged file.
+     * @return output
+     * @throws IOException on failure
+     */
+    @Benchmark
+    public String commit() throws IOException {
+        return gitlet("commit", "run " + _runs);
+    }
+
+    /**
+     * Show the status.
+     * @return output
+     * @throws IOException on failure
+     */
+    @Benchmark
+    public String status() throws IOException {
+        return gitlet("status");
+    }
+
+    /**
+     * Switch to another branch, and back on the next run.
+     * @return output
+     * @throws IOException on failure
+     */
+    @Benchmark
+    public String checkout() throws IOException {
+        return gitlet("checkout",
+                RepoGenerator.branchName(_runs % 2 == 1 ? 1 : 0));
+    }
+
+    /**
+     * Show the current branch's history.
+     * @return output
+     * @throws IOException on failure
+     */
+    @Benchmark
+    public String log() throws IOException {
+        return gitlet("log");
+    }
+
+    /**
+     * Show every commit.
+     * @return output
+     * @throws IOException on failure
+     */
+    @Benchmark
+    public String globalLog() throws IOException {
+        return gitlet("global-log");
+    }
+
+    /**
+     * Find the commits with a message.
+     * @return output
+     * @throws IOException on failure
+     */
+    @Benchmark
+    public String find() throws IOException {
+        return gitlet("find", "commit " + (commits / 2));
+    }
+
+    /**
+     * Merge another branch into master.
+     * @return output
+     * @throws IOException on failure
+     */
+    @Benchmark
+    public String merge() throws IOException {
+        return gitlet("merge", RepoGenerator.branchName(1));
+    }
+
+    /**
+     * Give the added file new contents.
+     * @throws IOException on failure
+     */
+    private void edit() throws IOException {
+        Files.write(new File(_dir, ADDED).toPath(),
+                ("run " + _runs + "\n").getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Run gitlet with ARGS in the repository and return what it printed.
+     * @param args string[]
+     * @return output
+     * @throws IOException on failure, or if gitlet did not exit normally
+     */
+    private String gitlet(String... args) throws IOException {
+        List<String> command = new ArrayList<>(Arrays.asList(
+                new File(System.getProperty("java.home"), "bin/java")
+                .getPath(), "-cp", _classPath, "gitlet.Main"));
+        command.addAll(Arrays.asList(args));
+        Process process = new ProcessBuilder(command).directory(_dir)
+            .redirectErrorStream(true).start();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+        try (InputStream in = process.getInputStream()) {
+            byte[] buf = new byte[BUF_SIZE];
+            for (int n = in.read(buf); n >= 0; n = in.read(buf)) {
+                output.write(buf, 0, n);
+            }
+            if (process.waitFor() != 0) {
+                throw new IOException("gitlet " + String.join(" ", args)
+                        + " failed: " + output);
+            }
+        } catch (InterruptedException excp) {
+            throw new IOException(excp);
+        }
+        return output.toString("UTF-8");
+    }
+
+    /** File changed for add and commit. */
+    private static final String ADDED = "added.txt";
+    /** Random seed, so runs are comparable. */
+    private static final long SEED = 61;
+    /** Size of the buffer reading gitlet's output. */
+    private static final int BUF_SIZE = 8192;
+
+    /** repository directory. */
+    private File _dir;
+    /** head of master as generated. */
+    private String _head;
+    /** class path for gitlet processes. */
+    private String _classPath;
+    /** runs so far, counting warmup. */
+    private int _runs;
+}
@@ -0,0 +1,208 @@
+package gitlet;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TimeZone;
+
+/** Builds synthetic repositories for benchmarks, writing objects straight
+ *  into the store rather than running commands.  The same settings and
+ *  seed always give the same repository, down to its commit ids.
+ *  The first commit after the initial one adds FILES files, a BINARYRATIO
+ *  share of them random bytes and the rest lines of text, of sizes spread
+ *  evenly around FILEBYTES.  All BRANCHES branches (master and branch1,
+ *  branch2 and so on) start there, and the rest of the COMMITS commits go
+ *  to them in turn, each rewriting a few files.  Each branch only changes
+ *  files of its own, so any two branches merge without conflicts.  master
+ *  is left checked out.
+ *  @author Swadhin Nalubola
+ */
+public class RepoGenerator {
+
+    /**
+     * Initialize a generator of repositories with FILES files of about
+     * FILEBYTES bytes, BINARYRATIO of them binary, and COMMITS commits
+     * spread over BRANCHES branches, drawn from SEED.
+     * @param files int
+     * @param fileBytes int
+     * @param commits int, at least 1
+     * @param branches int, at least 1
+     * @param binaryRatio double, from 0 to 1
+     * @param seed long
+     */
+    public RepoGenerator(int files, int fileBytes, int commits,
+                         int branches, double binaryRatio, long seed) {
+        _files = files;
+        _fileBytes = fileBytes;
+        _commits = commits;
+        _branches = branches;
+        _binaryRatio = binaryRatio;
+        _seed = seed;
+        _date = CommitObject.timestampFormat();
+        _date.setTimeZone(TimeZone.getTimeZone("UTC"));
+    }
+
+    /**
+     * The name of branch number B.
+     * @param b int
+     * @return string
+     */
+    public static String branchName(int b) {
+        return b == 0 ? "master" : "branch" + b;
+    }
+
+    /**
+     * The name of file number I.
+     * @param i int
+     * @return string
+     */
+    public static String fileName(int i) {
+        return "file" + i;
+    }
+
+    /**
+     * Make the repository in DIR, which must hold no repository yet.
+     * @param dir file
+     * @return the head of master
+     */
+    public String generate(File dir) {
+        Random random = new Random(_seed);
+        Repo repo = new Repo(dir.getPath());
+        repo.create();
+        _binary = new boolean[_files];
+        for (int i = 0; i < _files; i += 1) {
+            _binary[i] = random.nextDouble() < _binaryRatio;
+        }
+
+        String initial = commit(repo, "initial commit", null,
+                branchName(0), new HashMap<>(), 0);
+        HashMap<String, String> snapshot = new HashMap<>();
+        for (int i = 0; i < _files; i += 1) {
+            snapshot.put(fileName(i), blob(repo, random, i));
+        }
+        String root = commit(repo, "commit 0", initial, branchName(0),
+                snapshot, 1);
+        List<String> heads = new ArrayList<>();
+        List<HashMap<String, String>> snapshots = new ArrayList<>();
+        for (int b = 0; b < _branches; b += 1) {
+            heads.add(root);
+            snapshots.add(new HashMap<>(snapshot));
+        }
+        for (int c = 1; c < _commits; c += 1) {
+            int b = c % _branches;
+            HashMap<String, String> blobs = snapshots.get(b);
+            for (int k = 0; k < CHANGES; k += 1) {
+                int owned = (_files - b + _branches - 1) / _branches;
+                if (owned == 0) {
+                    break;
+                }
+                int i = b + _branches * random.nextInt(owned);
+                blobs.put(fileName(i), blob(repo, random, i));
+            }
+            heads.set(b, commit(repo, "commit " + c, heads.get(b),
+                    branchName(b), new HashMap<>(blobs), c + 1));
+        }
+        for (int b = 0; b < _branches; b += 1) {
+            repo.refs().set(branchName(b), heads.get(b));
+        }
+
+        Stage stage = new Stage();
+        stage.setHead(heads.get(0));
+        stage.setBranch(branchName(0));
+        for (Map.Entry<String, String> entry : snapshots.get(0).entrySet()) {
+            stage.track(entry.getKey(), entry.getValue());
+            repo.materializer().write(entry.getValue(),
+                    new File(dir, entry.getKey()));
+        }
+        repo.writeStage(stage);
+        return heads.get(0);
+    }
+
+    /**
+     * Store new contents for file number I.
+     * @param repo repo
+     * @param random random
+     * @param i int
+     * @return blob sha
+     */
+    private String blob(Repo repo, Random random, int i) {
+        int size = _fileBytes / 2 + random.nextInt(_fileBytes + 1);
+        byte[] contents;
+        if (_binary[i]) {
+            contents = new byte[size];
+            random.nextBytes(contents);
+        } else {
+            StringBuilder text = new StringBuilder();
+            while (text.length() < size) {
+                for (int w = 0; w < WORDS_PER_LINE; w += 1) {
+                    text.append(WORDS[random.nextInt(WORDS.length)])
+                        .append(' ');
+                }
+                text.append('\n');
+            }
+            contents = text.toString().getBytes(StandardCharsets.UTF_8);
+        }
+        String sha = Utils.sha1((Object) contents);
+        if (!repo.objects().hasBlob(sha)) {
+            repo.objects().writeBlob(new Blob(sha, contents));
+        }
+        return sha;
+    }
+
+    /**
+     * Store a commit.
+     * @param repo repo
+     * @param message string
+     * @param parent string, or null
+     * @param branch string
+     * @param blobs snapshot
+     * @param minute int, minutes after the epoch it was made
+     * @return commit sha
+     */
+    private String commit(Repo repo, String message, String parent,
+                          String branch, HashMap<String, String> blobs,
+                          int minute) {
+        CommitObject commit = new CommitObject(message, AUTHOR,
+                _date.format(new Date(minute * MINUTE)), parent, null,
+                branch, blobs);
+        repo.objects().writeCommit(commit);
+        return commit.getSHA();
+    }
+
+    /** Files each commit after the first rewrites. */
+    private static final int CHANGES = 3;
+    /** Words on each line of a text file. */
+    private static final int WORDS_PER_LINE = 8;
+    /** Words text files are made of. */
+    private static final String[] WORDS = {
+        "gitlet", "commit", "branch", "merge", "blob", "stage", "head",
+        "tree", "log", "checkout", "reset", "status", "find", "remote",
+    };
+    /** Author of every commit. */
+    private static final String AUTHOR = "bench";
+    /** Milliseconds in a minute. */
+    private static final long MINUTE = 60000;
+
+    /** number of files. */
+    private final int _files;
+    /** typical file size. */
+    private final int _fileBytes;
+    /** number of commits after the initial one. */
+    private final int _commits;
+    /** number of branches. */
+    private final int _branches;
+    /** share of binary files. */
+    private final double _binaryRatio;
+    /** random seed. */
+    private final long _seed;
+    /** timestamp format. */
+    private final SimpleDateFormat _date;
+    /** which files are binary, by number. */
+    private boolean[] _binary;
+}
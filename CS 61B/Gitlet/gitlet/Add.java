@@ -21,14 +21,12 @@ public class Add extends Command {
             System.exit(0);
         }
 
-        Stage stage = Utils.readObject(repo.stageFile(), Stage.class);
+        Stage stage = repo.readStage();
         String newFileSHA = Utils.sha1(Utils.readContents(toAdd));
         String headCommitSHA = stage.getHead();
 
         if (headCommitSHA != null) {
-            CommitObject headCommit =
-                    Utils.readObject(new File(repo.commitPath()
-                            + headCommitSHA + ".ser"), CommitObject.class);
+            CommitObject headCommit = repo.objects().readCommit(headCommitSHA);
             if (headCommit != null
                     && headCommit.getTrackedBlobs().containsKey(fileName)) {
                 String oldFileSHA = headCommit.getTrackedBlobs().get(fileName);
@@ -40,12 +38,12 @@ public class Add extends Command {
             stage.unRemove(fileName, newFileSHA);
         } else if (modified) {
             stage.stage(fileName, newFileSHA);
-            Blob blob = new Blob(newFileSHA, fileName,
-                    Utils.readContents(toAdd));
-            Utils.writeObject(new File(repo.blobPath()
-                    + newFileSHA + ".ser"), blob);
+            if (!repo.objects().hasBlob(newFileSHA)) {
+                Blob blob = new Blob(newFileSHA, Utils.readContents(toAdd));
+                repo.objects().writeBlob(blob);
+            }
         }
 
-        Utils.writeObject(repo.stageFile(), stage);
+        repo.writeStage(stage);
     }
 }
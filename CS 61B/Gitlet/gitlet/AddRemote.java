@@ -0,0 +1,25 @@
+package gitlet;
+
+import java.io.File;
+
+/** Command for add-remote.
+ *  @author Swadhin Nalubola
+ */
+public class AddRemote extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, 2, true)) {
+            System.exit(0);
+        }
+
+        File remoteFile = Transport.remoteFile(repo, args[0]);
+        if (remoteFile.exists()) {
+            System.out.println("A remote with that name already exists.");
+            System.exit(0);
+        }
+        remoteFile.getParentFile().mkdirs();
+        Utils.writeContents(remoteFile,
+                args[1].replace("/", File.separator));
+    }
+}
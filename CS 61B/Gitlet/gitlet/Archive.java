@@ -0,0 +1,213 @@
+package gitlet;
+
+import java.io.BufferedOutputStream;
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.zip.GZIPOutputStream;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/** Command for archive, which writes the files of a commit to a tar or
+ *  zip file, chosen by its name (.tar, .tar.gz or .tgz, .zip), without
+ *  touching the working directory.  Blobs are streamed from the object
+ *  store in name order while a few threads read the next WINDOW of them
+ *  ahead of the writer, so memory use does not grow with the commit.
+ *  The archive is written beside OUT and renamed into place when done.
+ *  @author Swadhin Nalubola
+ */
+public class Archive extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, 2, true)) {
+            System.exit(0);
+        }
+        String commitSHA = repo.objects().resolveCommit(args[0]);
+        if (commitSHA == null) {
+            System.out.println("No commit with that id exists.");
+            System.exit(0);
+        }
+        File out = new File(args[1]);
+        String format = format(out.getName());
+        if (format == null) {
+            System.out.println("Archive name must end in .tar, .tar.gz, "
+                    + ".tgz or .zip.");
+            System.exit(0);
+        }
+        CommitObject commit = repo.objects().readCommit(commitSHA);
+        File temp = null;
+        try {
+            File dir = out.getAbsoluteFile().getParentFile();
+            temp = File.createTempFile(out.getName(), ".tmp", dir);
+            try (OutputStream stream = new BufferedOutputStream(
+                     new FileOutputStream(temp), BUFFER)) {
+                write(repo, commit, format, stream);
+            }
+            Files.move(temp.toPath(), out.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException excp) {
+            throw Utils.error("Could not write %s.", out.getName());
+        } finally {
+            if (temp != null) {
+                temp.delete();
+            }
+        }
+    }
+
+    @Override
+    public boolean writes() {
+        return false;
+    }
+
+    /**
+     * Write the files of COMMIT to STREAM as an archive of type FORMAT.
+     * @param repo repo
+     * @param commit commitobject
+     * @param format string
+     * @param stream outputstream
+     * @throws IOException on failure
+     */
+    private void write(Repo repo, CommitObject commit, String format,
+                       OutputStream stream) throws IOException {
+        HashMap<String, String> blobs = commit.getTrackedBlobs();
+        ArrayList<String> names = new ArrayList<>(blobs.keySet());
+        Collections.sort(names);
+        long mtime = commit.getTime();
+        ObjectDatabase objects = repo.objects();
+        ExecutorService readers = Executors.newFixedThreadPool(READERS,
+            task -> {
+                Thread thread = new Thread(task);
+                thread.setDaemon(true);
+                return thread;
+            });
+        ArrayDeque<Future<ByteBuffer>> ahead = new ArrayDeque<>();
+        ZipOutputStream zip = null;
+        TarOutput tar = null;
+        if (format.equals(ZIP)) {
+            zip = new ZipOutputStream(stream);
+        } else if (format.equals(TGZ)) {
+            tar = new TarOutput(new GZIPOutputStream(stream, BUFFER));
+        } else {
+            tar = new TarOutput(stream);
+        }
+        try {
+            int next = 0;
+            for (String name : names) {
+                while (next < names.size() && ahead.size() < WINDOW) {
+                    String sha = blobs.get(names.get(next));
+                    ahead.add(readers.submit(() -> prefetch(objects, sha)));
+                    next += 1;
+                }
+                ByteBuffer contents = ahead.remove().get();
+                if (zip != null) {
+                    ZipEntry entry = new ZipEntry(name);
+                    entry.setTime(mtime);
+                    zip.putNextEntry(entry);
+                    copy(contents, zip);
+                    zip.closeEntry();
+                } else {
+                    tar.putNextEntry(name, contents.remaining(), mtime);
+                    copy(contents, tar);
+                    tar.closeEntry();
+                }
+            }
+            if (zip != null) {
+                zip.finish();
+            } else {
+                tar.close();
+            }
+        } catch (InterruptedException excp) {
+            throw Utils.error("archive was interrupted.");
+        } catch (ExecutionException excp) {
+            if (excp.getCause() instanceof GitletException) {
+                throw (GitletException) excp.getCause();
+            }
+            throw new IOException(excp.getCause());
+        } finally {
+            readers.shutdownNow();
+        }
+    }
+
+    /**
+     * Read blob SHA's contents ahead of the writer, bringing mapped
+     * contents into memory too.
+     * @param objects objectdatabase
+     * @param sha string
+     * @return bytebuffer
+     */
+    private static ByteBuffer prefetch(ObjectDatabase objects, String sha) {
+        ByteBuffer contents = objects.readBlobContents(sha);
+        if (contents instanceof MappedByteBuffer) {
+            ((MappedByteBuffer) contents).load();
+        }
+        return contents;
+    }
+
+    /**
+     * Write the remaining bytes of CONTENTS to STREAM.
+     * @param contents bytebuffer
+     * @param stream outputstream
+     * @throws IOException on failure
+     */
+    private void copy(ByteBuffer contents, OutputStream stream)
+        throws IOException {
+        if (contents.hasArray() && !contents.isReadOnly()) {
+            stream.write(contents.array(),
+                    contents.arrayOffset() + contents.position(),
+                    contents.remaining());
+            return;
+        }
+        while (contents.hasRemaining()) {
+            int length = Math.min(_chunk.length, contents.remaining());
+            contents.get(_chunk, 0, length);
+            stream.write(_chunk, 0, length);
+        }
+    }
+
+    /**
+     * The archive type of a file called NAME.
+     * @param name string
+     * @return string, or null if NAME has no known suffix
+     */
+    private static String format(String name) {
+        if (name.endsWith(".zip")) {
+            return ZIP;
+        } else if (name.endsWith(".tar.gz") || name.endsWith(".tgz")) {
+            return TGZ;
+        } else if (name.endsWith(".tar")) {
+            return TAR;
+        }
+        return null;
+    }
+
+    /** Zip archives. */
+    private static final String ZIP = "zip";
+    /** Tar archives. */
+    private static final String TAR = "tar";
+    /** Gzipped tar archives. */
+    private static final String TGZ = "tgz";
+    /** Threads reading blobs ahead of the writer. */
+    private static final int READERS = 4;
+    /** Most blobs read ahead of the writer. */
+    private static final int WINDOW = 16;
+    /** Bytes of output buffering. */
+    private static final int BUFFER = 1 << 16;
+
+    /** buffer for copying contents with no accessible array. */
+    private final byte[] _chunk = new byte[BUFFER];
+}
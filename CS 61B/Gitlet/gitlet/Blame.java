@@ -0,0 +1,205 @@
+package gitlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+
+/** Finds the commit each line of a file came from.  The commits that
+ *  touched the file are replayed oldest first, each diffed against the
+ *  one before: matched lines keep their origin and the rest get the
+ *  commit's.  The origins at the newest commit are saved in
+ *  .gitlet/blame, keyed by path and commit, and a later blame replays
+ *  only the commits after the newest saved one.
+ *  @author Swadhin Nalubola
+ */
+public class Blame {
+
+    /**
+     * Initialize blame.
+     * @param repo repo
+     */
+    public Blame(Repo repo) {
+        _repo = repo;
+    }
+
+    /**
+     * The commit each line of PATH at commit COMMIT came from.
+     * @param path string
+     * @param commit commit sha
+     * @return array of commit shas, one per line
+     */
+    public String[] origins(String path, String commit) {
+        ArrayDeque<String> pending = new ArrayDeque<>();
+        String[] origins = new String[0];
+        List<String> lines = Collections.emptyList();
+        Iterator<String> touching =
+            new PathHistory(_repo).touching(path, commit);
+        while (touching.hasNext()) {
+            String sha = touching.next();
+            String[] cached = readCache(path, sha);
+            if (cached != null) {
+                origins = cached;
+                lines = linesAt(path, sha);
+                break;
+            }
+            pending.push(sha);
+        }
+        String newest = null;
+        while (!pending.isEmpty()) {
+            String sha = pending.pop();
+            List<String> next = linesAt(path, sha);
+            int[] match = Diff.match(lines, next);
+            String[] nextOrigins = new String[next.size()];
+            for (int i = 0; i < nextOrigins.length; i += 1) {
+                nextOrigins[i] = match[i] < 0 ? sha : origins[match[i]];
+            }
+            origins = nextOrigins;
+            lines = next;
+            newest = sha;
+            _replayed += 1;
+        }
+        if (newest != null) {
+            writeCache(path, newest, origins);
+        }
+        return origins;
+    }
+
+    /**
+     * Number of commits replayed so far.
+     * @return long
+     */
+    public long replayed() {
+        return _replayed;
+    }
+
+    /**
+     * The lines of PATH at commit SHA.
+     * @param path string
+     * @param sha string
+     * @return list, empty if PATH is not there
+     */
+    public List<String> linesAt(String path, String sha) {
+        CommitObject commit = _repo.objects().readCommit(sha);
+        String blob = commit == null
+            ? null : commit.getTrackedBlobs().get(path);
+        if (blob == null) {
+            return Collections.emptyList();
+        }
+        return Diff.lines(_repo.objects().readBlob(blob).getContents());
+    }
+
+    /**
+     * Saved origins of PATH at commit SHA.
+     * @param path string
+     * @param sha string
+     * @return array, or null if none were saved
+     */
+    private String[] readCache(String path, String sha) {
+        File file = cacheFile(path, sha);
+        if (!file.isFile()) {
+            return null;
+        }
+        try {
+            ByteBuffer buf = FileObjectDatabase.read(file);
+            if (buf.getInt() != CACHE_MAGIC) {
+                return null;
+            }
+            String[] commits = new String[buf.getInt()];
+            byte[] raw = new byte[HASH];
+            for (int i = 0; i < commits.length; i += 1) {
+                buf.get(raw);
+                commits[i] = hex(raw);
+            }
+            String[] origins = new String[buf.getInt()];
+            for (int i = 0; i < origins.length; i += 1) {
+                origins[i] = commits[buf.getInt()];
+            }
+            return origins;
+        } catch (BufferUnderflowException | IndexOutOfBoundsException
+                 | NegativeArraySizeException | GitletException excp) {
+            return null;
+        }
+    }
+
+    /**
+     * Save ORIGINS as the origins of PATH at commit SHA.
+     * @param path string
+     * @param sha string
+     * @param origins array
+     */
+    private void writeCache(String path, String sha, String[] origins) {
+        HashMap<String, Integer> index = new HashMap<>();
+        ArrayList<String> commits = new ArrayList<>();
+        for (String origin : origins) {
+            if (!index.containsKey(origin)) {
+                index.put(origin, commits.size());
+                commits.add(origin);
+            }
+        }
+        try {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.writeInt(CACHE_MAGIC);
+            out.writeInt(commits.size());
+            for (String commit : commits) {
+                for (int i = 0; i < HASH; i += 1) {
+                    out.write(Integer.parseInt(
+                            commit.substring(2 * i, 2 * i + 2), 16));
+                }
+            }
+            out.writeInt(origins.length);
+            for (String origin : origins) {
+                out.writeInt(index.get(origin));
+            }
+            out.flush();
+            File file = cacheFile(path, sha);
+            file.getParentFile().mkdirs();
+            Repo.store(file, bytes.toByteArray());
+        } catch (IOException | GitletException excp) {
+            return;
+        }
+    }
+
+    /**
+     * File of the saved origins of PATH at commit SHA.
+     * @param path string
+     * @param sha string
+     * @return file
+     */
+    private File cacheFile(String path, String sha) {
+        return Utils.join(_repo.blamePath(), Utils.sha1(path), sha);
+    }
+
+    /**
+     * Hex form of RAW.
+     * @param raw byte[]
+     * @return string
+     */
+    private static String hex(byte[] raw) {
+        StringBuilder hex = new StringBuilder(2 * raw.length);
+        for (byte b : raw) {
+            hex.append(Character.forDigit((b >>> 4) & 0xf, 16))
+                .append(Character.forDigit(b & 0xf, 16));
+        }
+        return hex.toString();
+    }
+
+    /** First int of a saved origins file. */
+    private static final int CACHE_MAGIC = 0x474c424c;
+    /** Bytes in a raw commit id. */
+    private static final int HASH = 20;
+
+    /** the repo. */
+    private final Repo _repo;
+    /** commits replayed. */
+    private long _replayed;
+}
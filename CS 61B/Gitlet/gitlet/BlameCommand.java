@@ -0,0 +1,43 @@
+package gitlet;
+
+import java.util.List;
+
+/** Command for blame, which shows the commit each line of a file in the
+ *  head commit came from.
+ *  @author Swadhin Nalubola
+ */
+public class BlameCommand extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, 1, true)) {
+            System.exit(0);
+        }
+        String path = args[0];
+        String head = repo.readStage().getHead();
+        CommitObject headCommit = repo.objects().readCommit(head);
+        if (headCommit == null
+                || !headCommit.getTrackedBlobs().containsKey(path)) {
+            System.out.println("File does not exist in that commit.");
+            System.exit(0);
+        }
+        Blame blame = new Blame(repo);
+        String[] origins = blame.origins(path, head);
+        List<String> lines = blame.linesAt(path, head);
+        String width = Integer.toString(Integer.toString(lines.size())
+                .length());
+        for (int i = 0; i < lines.size(); i += 1) {
+            CommitObject origin = repo.objects().readCommit(origins[i]);
+            String author = origin.getAuthor() == null
+                ? "unknown" : origin.getAuthor();
+            System.out.printf("%.7s (%s %s %" + width + "d) %s%n",
+                    origins[i], author, origin.getTimeStamp(), i + 1,
+                    lines.get(i));
+        }
+    }
+
+    @Override
+    public boolean writes() {
+        return false;
+    }
+}
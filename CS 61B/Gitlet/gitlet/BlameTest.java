@@ -0,0 +1,173 @@
+package gitlet;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.HashMap;
+
+/** Tests of Blame, over commits written straight into a repository in a
+ *  temporary directory.
+ *  @author Swadhin Nalubola
+ */
+public class BlameTest {
+
+    /**
+     * Make an empty repository.
+     * @throws IOException on failure
+     */
+    @Before
+    public void setUp() throws IOException {
+        _dir = Files.createTempDirectory("blame").toFile();
+        _repo = new Repo(_dir.getPath());
+        _repo.create();
+    }
+
+    /**
+     * Delete the repository.
+     */
+    @After
+    public void tearDown() {
+        delete(_dir);
+    }
+
+    @Test
+    public void originsTest() {
+        String first = commit(null, "a\nb\nc\n");
+        String second = commit(first, "a\nB\nc\n");
+        String third = commit(second, "x\na\nB\nc\n");
+        assertArrayEquals(new String[] {first, first, first},
+                new Blame(_repo).origins(PATH, first));
+        assertArrayEquals(new String[] {first, second, first},
+                new Blame(_repo).origins(PATH, second));
+        assertArrayEquals(new String[] {third, first, second, first},
+                new Blame(_repo).origins(PATH, third));
+    }
+
+    @Test
+    public void untouchedCommitTest() {
+        String first = commit(null, "a\n");
+        String other = commit(first, "a\n", "other", "b\n");
+        assertArrayEquals(new String[] {first},
+                new Blame(_repo).origins(PATH, other));
+    }
+
+    @Test
+    public void cacheReuseTest() {
+        String first = commit(null, "a\nb\n");
+        String second = commit(first, "a\nB\n");
+        Blame blame = new Blame(_repo);
+        blame.origins(PATH, second);
+        assertEquals(2, blame.replayed());
+
+        String third = commit(second, "a\nB\nc\n");
+        blame = new Blame(_repo);
+        assertArrayEquals(new String[] {first, second, third},
+                blame.origins(PATH, third));
+        assertEquals(1, blame.replayed());
+
+        blame = new Blame(_repo);
+        assertArrayEquals(new String[] {first, second, third},
+                blame.origins(PATH, third));
+        assertEquals(0, blame.replayed());
+    }
+
+    @Test
+    public void corruptCacheTest() {
+        String first = commit(null, "a\nb\n");
+        String second = commit(first, "a\nB\n");
+        new Blame(_repo).origins(PATH, second);
+        File[] caches = cacheFiles();
+        assertEquals(1, caches.length);
+
+        byte[] saved = Utils.readContents(caches[0]);
+        Utils.writeContents(caches[0],
+                (Object) "not a cache".getBytes(StandardCharsets.UTF_8));
+        Blame blame = new Blame(_repo);
+        assertArrayEquals(new String[] {first, second},
+                blame.origins(PATH, second));
+        assertEquals(2, blame.replayed());
+
+        Utils.writeContents(caches[0], (Object) Arrays.copyOf(
+                saved, saved.length - 1));
+        blame = new Blame(_repo);
+        assertArrayEquals(new String[] {first, second},
+                blame.origins(PATH, second));
+        assertEquals(2, blame.replayed());
+    }
+
+    /**
+     * Write a commit on PARENT tracking PATH with CONTENTS, and then
+     * each alternating path and contents in MORE.
+     * @param parent commit sha, or null
+     * @param contents string
+     * @param more string[]
+     * @return commit sha
+     */
+    private String commit(String parent, String contents, String... more) {
+        HashMap<String, String> blobs = new HashMap<>();
+        blobs.put(PATH, blob(contents));
+        for (int i = 0; i < more.length; i += 2) {
+            blobs.put(more[i], blob(more[i + 1]));
+        }
+        _count += 1;
+        CommitObject commit = new CommitObject("commit " + _count, "wug",
+                TIME, parent, null, "master", blobs);
+        _repo.objects().writeCommit(commit);
+        return commit.getSHA();
+    }
+
+    /**
+     * Store CONTENTS as a blob.
+     * @param contents string
+     * @return blob sha
+     */
+    private String blob(String contents) {
+        byte[] bytes = contents.getBytes(StandardCharsets.UTF_8);
+        String sha = Utils.sha1((Object) bytes);
+        _repo.objects().writeBlob(new Blob(sha, bytes));
+        return sha;
+    }
+
+    /**
+     * The saved origins files of PATH.
+     * @return file[]
+     */
+    private File[] cacheFiles() {
+        File[] files = Utils.join(_repo.blamePath(), Utils.sha1(PATH))
+            .listFiles();
+        return files == null ? new File[0] : files;
+    }
+
+    /**
+     * Delete FILE and everything under it.
+     * @param file file
+     */
+    private static void delete(File file) {
+        File[] children = file.listFiles();
+        if (children != null) {
+            for (File child : children) {
+                delete(child);
+            }
+        }
+        file.delete();
+    }
+
+    /** The path blamed. */
+    private static final String PATH = "wug.txt";
+    /** Timestamp of every commit. */
+    private static final String TIME = "Thu Jan 01 00:00:00 1970 +0000";
+
+    /** directory of the repository. */
+    private File _dir;
+    /** the repository. */
+    private Repo _repo;
+    /** commits written. */
+    private int _count;
+}
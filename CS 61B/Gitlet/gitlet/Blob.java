@@ -3,7 +3,9 @@ package gitlet;
 import java.io.Serializable;
 import java.util.Objects;
 
-/** Blobs for files in gitlet.
+/** Blobs for files in gitlet.  A blob holds only the contents of a
+ *  file; the names it appears under are recorded in commit snapshots, so
+ *  identical files share one blob.
  * @author Swadhin Nalubola
  */
 public class Blob implements Serializable {
@@ -11,12 +13,10 @@ public class Blob implements Serializable {
     /**
      * Initialize Blob.
      * @param sha1 string
-     * @param fileName string
      * @param fileContents byte[]
      */
-    public Blob(String sha1, String fileName, byte[] fileContents) {
+    public Blob(String sha1, byte[] fileContents) {
         _sha1 = sha1;
-        _name = fileName;
         _contents = fileContents;
     }
 
@@ -28,14 +28,6 @@ public class Blob implements Serializable {
         return _sha1;
     }
 
-    /**
-     * Get name.
-     * @return name.
-     */
-    public String getName() {
-        return _name;
-    }
-
     /**
      * Get contents.
      * @return contents.
@@ -69,12 +61,13 @@ public class Blob implements Serializable {
         return this.getSHA1().equals(blob.getSHA1());
     }
 
+    /** Stays that of the old class, so that its serialized blobs can
+     *  still be read. */
+    private static final long serialVersionUID = 574866595081615898L;
+
     /** sha1 code for the blob. */
     private final String _sha1;
 
-    /** name of the blob. */
-    private final String _name;
-
     /** contents of the blob. */
     private final byte[] _contents;
 }
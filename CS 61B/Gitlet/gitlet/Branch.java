@@ -11,15 +11,12 @@ public class Branch extends Command {
             System.exit(0);
         }
 
-        Stage stage = Utils.readObject(repo.stageFile(), Stage.class);
+        Stage stage = repo.readStage();
         String branchName = args[0];
 
-        if (stage.getBranches().containsKey(branchName)) {
+        if (!repo.refs().compareAndSet(branchName, null, stage.getHead())) {
             System.out.println("A branch with that name already exists.");
             System.exit(0);
         }
-        stage.addBranch(branchName, stage.getHead());
-
-        Utils.writeObject(repo.stageFile(), stage);
     }
 }
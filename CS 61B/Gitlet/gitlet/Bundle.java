@@ -0,0 +1,228 @@
+package gitlet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+
+/** Command for bundle, which carries history between repositories as a
+ *  file:
+ *  bundle create FILE BRANCH [--since COMMIT]  write BRANCH's commits,
+ *                                             leaving out COMMIT (an id
+ *                                             or a branch) and its
+ *                                             history, to FILE
+ *  bundle unbundle FILE                       store FILE's objects and
+ *                                             set branch bundle/BRANCH
+ *  A bundle is a few lines of text, then a pack (see Pack):
+ *      # gitlet bundle v1
+ *      -COMMIT          a commit the receiver must already have
+ *      TIP BRANCH       the branch and its head
+ *      (an empty line)
+ *  The pack ends in a SHA-1 of its objects.  Both ends stream: create
+ *  writes objects straight from the store into the file, and unbundle
+ *  reads it once, storing the objects only after the pack's SHA-1 is
+ *  checked (see Pack.read), so a damaged bundle stores nothing.  Only
+ *  blobs not in COMMIT's snapshot are written, so a nightly bundle
+ *  holds about what changed that day.
+ *  @author Swadhin Nalubola
+ */
+public class Bundle extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, Math.max(1, args.length), true)) {
+            System.exit(0);
+        }
+        if (args[0].equals("create")
+                && (args.length == 3 || (args.length == 5
+                                         && args[3].equals("--since")))) {
+            create(repo, new File(args[1]), args[2],
+                    args.length == 5 ? args[4] : null);
+        } else if (args[0].equals("unbundle") && args.length == 2) {
+            unbundle(repo, new File(args[1]));
+        } else {
+            System.out.println("Incorrect operands.");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Write BRANCH of REPO to OUT, leaving out commit SINCE and its
+     * history if SINCE is not null.
+     * @param repo repo
+     * @param out file
+     * @param branch string
+     * @param since commit id or prefix, or null
+     */
+    private void create(Repo repo, File out, String branch, String since) {
+        String tip = repo.refs().get(branch);
+        if (tip == null) {
+            System.out.println("A branch with that name does not exist.");
+            System.exit(0);
+        }
+        String base = null;
+        HashSet<String> had = new HashSet<>();
+        HashSet<String> hadBlobs = new HashSet<>();
+        if (since != null) {
+            base = repo.refs().contains(since) ? repo.refs().get(since)
+                : repo.objects().resolveCommit(since);
+            if (base == null) {
+                System.out.println("No commit with that id exists.");
+                System.exit(0);
+            }
+            had = Transport.ancestors(repo, base);
+            hadBlobs.addAll(repo.objects().readCommit(base)
+                    .getTrackedBlobs().values());
+        }
+        Transport.Negotiation needed = Transport.negotiate(repo,
+                had::contains, hadBlobs::contains, tip);
+        if (needed.commits().isEmpty()) {
+            System.out.println("No commits to bundle.");
+            System.exit(0);
+        }
+
+        StringBuilder header = new StringBuilder(HEADER).append('\n');
+        if (base != null) {
+            header.append('-').append(base).append('\n');
+        }
+        header.append(tip).append(' ').append(branch).append("\n\n");
+        File temp = null;
+        try {
+            File dir = out.getAbsoluteFile().getParentFile();
+            temp = File.createTempFile(out.getName(), ".tmp", dir);
+            try (OutputStream stream = new BufferedOutputStream(
+                     new FileOutputStream(temp), BUFFER)) {
+                stream.write(header.toString()
+                        .getBytes(StandardCharsets.UTF_8));
+                Pack.write(stream, repo, needed.blobs(),
+                        needed.commits());
+            }
+            Files.move(temp.toPath(), out.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException excp) {
+            throw Utils.error("Could not write %s.", out.getName());
+        } finally {
+            if (temp != null) {
+                temp.delete();
+            }
+        }
+    }
+
+    /**
+     * Store the objects of bundle IN in REPO and point branch
+     * bundle/BRANCH at its tip.  The pack is checked whole before any
+     * of it is stored.
+     * @param repo repo
+     * @param in file
+     */
+    private void unbundle(Repo repo, File in) {
+        if (!in.isFile()) {
+            System.out.println("Bundle file not found.");
+            System.exit(0);
+        }
+        String[] tip;
+        try (InputStream stream = new BufferedInputStream(
+                 new FileInputStream(in), BUFFER)) {
+            tip = header(repo, stream);
+            String branch = PREFIX + tip[1];
+            String checkedOut = repo.checkedOut(branch);
+            if (checkedOut != null) {
+                System.out.println("Branch " + branch + " is checked out in "
+                        + checkedOut + ".");
+                System.exit(0);
+            }
+            Pack.read(stream, repo);
+        } catch (IOException excp) {
+            throw Utils.error("Could not read %s: %s", in.getName(),
+                    excp.getMessage());
+        }
+        if (!repo.objects().hasCommit(tip[0])) {
+            throw Utils.error("Corrupt bundle.");
+        }
+        repo.refs().set(PREFIX + tip[1], tip[0]);
+    }
+
+    /**
+     * Read the header of a bundle from IN, leaving IN at its pack, and
+     * check that REPO has the commits it builds on.  Every id must be a
+     * full object id and the branch a valid ref name, so that neither
+     * can name a file outside .gitlet.
+     * @param repo repo
+     * @param in inputstream
+     * @return the tip commit id and its branch
+     * @throws IOException on failure
+     */
+    private static String[] header(Repo repo, InputStream in)
+        throws IOException {
+        if (!HEADER.equals(line(in))) {
+            throw Utils.error("Not a gitlet bundle.");
+        }
+        List<String> missing = new ArrayList<>();
+        String[] tip = null;
+        for (String line = line(in); !line.isEmpty(); line = line(in)) {
+            if (line.startsWith("-") && Pack.isId(line.substring(1))) {
+                if (!repo.objects().hasCommit(line.substring(1))) {
+                    missing.add(line.substring(1));
+                }
+            } else if (line.indexOf(' ') == ID_LENGTH && tip == null
+                       && Pack.isId(line.substring(0, ID_LENGTH))) {
+                tip = new String[] {line.substring(0, ID_LENGTH),
+                                    line.substring(ID_LENGTH + 1)};
+                if (!RefStore.validName(tip[1])) {
+                    throw Utils.error("Bad branch name %s in bundle.",
+                            tip[1]);
+                }
+            } else {
+                throw Utils.error("Corrupt bundle.");
+            }
+        }
+        if (tip == null) {
+            throw Utils.error("Corrupt bundle.");
+        } else if (!missing.isEmpty()) {
+            System.out.println("This repository lacks the commits the "
+                    + "bundle builds on: " + String.join(" ", missing));
+            System.exit(0);
+        }
+        return tip;
+    }
+
+    /**
+     * Read one line of the header from IN, without reading past it.
+     * @param in inputstream
+     * @return string, without its newline
+     * @throws IOException on failure, or at the end of IN
+     */
+    private static String line(InputStream in) throws IOException {
+        ByteArrayOutputStream line = new ByteArrayOutputStream();
+        for (int b = in.read(); b != '\n'; b = in.read()) {
+            if (b < 0 || line.size() > MAX_LINE) {
+                throw Utils.error("Corrupt bundle.");
+            }
+            line.write(b);
+        }
+        return line.toString("UTF-8");
+    }
+
+    /** First line of every bundle. */
+    private static final String HEADER = "# gitlet bundle v1";
+    /** Prefix of the branches unbundle sets. */
+    private static final String PREFIX = "bundle/";
+    /** Characters in a commit id. */
+    private static final int ID_LENGTH = 40;
+    /** Longest header line read. */
+    private static final int MAX_LINE = 4096;
+    /** Stream buffer size. */
+    private static final int BUFFER = 1 << 16;
+}
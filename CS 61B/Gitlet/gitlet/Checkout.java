@@ -1,6 +1,7 @@
 package gitlet;
 
 import java.io.File;
+import java.util.ArrayList;
 import java.util.HashMap;
 
 /** Command for checkout in gitlet.
@@ -28,14 +29,12 @@ public class Checkout extends Command {
      */
     public void checkoutFile(Repo repo, String[] args) {
 
-        Stage stage = Utils.readObject(repo.stageFile(), Stage.class);
+        Stage stage = repo.readStage();
         String fileName = args[1];
         String headCommitSHA = stage.getHead();
 
         if (headCommitSHA != null) {
-            CommitObject headCommit =
-                    Utils.readObject(new File(repo.commitPath()
-                            + headCommitSHA + ".ser"), CommitObject.class);
+            CommitObject headCommit = repo.objects().readCommit(headCommitSHA);
             HashMap<String, String> blobs = headCommit.getTrackedBlobs();
             if (!blobs.containsKey(fileName)) {
                 System.out.println("File does not exist in that commit.");
@@ -43,18 +42,14 @@ public class Checkout extends Command {
             }
 
             String fileSHA = blobs.get(fileName);
-            Blob blob = Utils.readObject(new File(repo.blobPath()
-                    + fileSHA + ".ser"), Blob.class);
-            String blobName = blob.getName();
-            byte[] newFileContents = blob.getContents();
-            Utils.writeContents(new File(blobName), newFileContents);
+            repo.materializer().write(fileSHA, new File(fileName));
 
             if (stage.getStaged().containsKey(fileName)) {
                 stage.unStage(fileName, fileSHA);
             }
         }
 
-        Utils.writeObject(repo.stageFile(), stage);
+        repo.writeStage(stage);
     }
 
     /**
@@ -69,25 +64,16 @@ public class Checkout extends Command {
             System.exit(0);
         }
 
-        Stage stage = Utils.readObject(repo.stageFile(), Stage.class);
-        String commitSHA = args[0];
-        if (commitSHA.length() < 10) {
-            for (String fullSHA : stage.getCommits().keySet()) {
-                if (commitSHA.substring(0, 5).equals(fullSHA.substring(0, 5))) {
-                    commitSHA = fullSHA;
-                }
-            }
-        }
+        Stage stage = repo.readStage();
+        String commitSHA = repo.objects().resolveCommit(args[0]);
         String fileName = args[2];
 
-        if (!stage.getCommits().keySet().contains(commitSHA)) {
+        if (commitSHA == null) {
             System.out.println("No commit with that id exists.");
             System.exit(0);
         }
 
-        CommitObject newCommit =
-                Utils.readObject(new File(repo.commitPath()
-                        + commitSHA + ".ser"), CommitObject.class);
+        CommitObject newCommit = repo.objects().readCommit(commitSHA);
         HashMap<String, String> blobs = newCommit.getTrackedBlobs();
         if (!blobs.containsKey(fileName)) {
             System.out.println("File does not exist in that commit.");
@@ -95,16 +81,13 @@ public class Checkout extends Command {
         }
 
         String fileSHA = blobs.get(fileName);
-        Blob blob = Utils.readObject(new File(repo.blobPath()
-                + fileSHA + ".ser"), Blob.class);
-        byte[] newFileContents = blob.getContents();
-        Utils.writeContents(new File(fileName), newFileContents);
+        repo.materializer().write(fileSHA, new File(fileName));
 
         if (stage.getStaged().containsKey(fileName)) {
             stage.unStage(fileName, fileSHA);
         }
 
-        Utils.writeObject(repo.stageFile(), stage);
+        repo.writeStage(stage);
     }
 
     /**
@@ -113,45 +96,39 @@ public class Checkout extends Command {
      * @param args string[]
      */
     public void checkoutBranch(Repo repo, String[] args) {
-        Stage stage = Utils.readObject(repo.stageFile(), Stage.class);
+        Stage stage = repo.readStage();
         String checkoutBranch = args[0];
         String currentBranch = stage.getBranch();
 
-        if (!stage.getBranches().containsKey(checkoutBranch)) {
+        String checkoutCommitSHA = repo.refs().get(checkoutBranch);
+        if (checkoutCommitSHA == null) {
             System.out.println("No such branch exists.");
             System.exit(0);
         } else if (checkoutBranch.equals(currentBranch)) {
             System.out.println("No need to checkout the current branch.");
             System.exit(0);
         }
-        String checkoutCommitSHA = stage.getBranches().get(checkoutBranch);
+        String other = repo.otherWorktree(checkoutBranch);
+        if (other != null) {
+            System.out.println("Branch " + checkoutBranch
+                    + " is already checked out in " + other + ".");
+            System.exit(0);
+        }
         CommitObject checkoutCommit =
-                Utils.readObject(new File(repo.commitPath()
-                        + checkoutCommitSHA + ".ser"), CommitObject.class);
+                repo.objects().readCommit(checkoutCommitSHA);
         HashMap<String, String> checkoutBlobs =
                 checkoutCommit.getTrackedBlobs();
-        File[] workingDirectoryFiles =
-                new File(repo.getWorkingDirectory()).listFiles();
-        for (File file : workingDirectoryFiles) {
-            String fileName = file.getName();
-            if (file.isFile() && checkoutBlobs.containsKey(fileName)
-                    && !stage.getStaged().containsKey(fileName)
-                    && !stage.getTracked().containsKey(fileName)) {
-                String fileSHA = Utils.sha1(Utils.readContents(file));
-                if (!fileSHA.equals(checkoutBlobs.get(fileName))) {
-                    System.out.println("There is an untracked file in "
-                            + "the way; delete it or add it first.");
-                    System.exit(0);
-                }
-            }
-        }
-        for (File file : workingDirectoryFiles) {
-            String fileName = file.getName();
-            if (stage.getTracked().containsKey(fileName)
-                    && !checkoutBlobs.containsKey(fileName)) {
+        SparseCheckout sparse = repo.sparseCheckout();
+        repo.workingTree().requireClean(stage, stage.getTracked(),
+                checkoutBlobs);
+        for (String fileName
+                 : new ArrayList<>(stage.getTracked().keySet())) {
+            if (!checkoutBlobs.containsKey(fileName)) {
                 String fileSHA = stage.getTracked().get(fileName);
                 stage.unTrack(fileName, fileSHA);
-                Utils.restrictedDelete(file);
+                if (sparse.includes(fileName)) {
+                    repo.materializer().delete(new File(fileName));
+                }
             }
         }
         boolean isBranchSame = checkoutCommitSHA != null
@@ -159,17 +136,17 @@ public class Checkout extends Command {
         if (!isBranchSame) {
             for (String blobFileName : checkoutBlobs.keySet()) {
                 String blobSHA = checkoutBlobs.get(blobFileName);
-                Blob blob = Utils.readObject(new
-                        File(repo.blobPath() + blobSHA + ".ser"), Blob.class);
-                byte[] newFileContents = blob.getContents();
-                Utils.writeContents(new File(blobFileName), newFileContents);
-                stage.track(blobFileName, blob.getSHA1());
+                if (sparse.includes(blobFileName)) {
+                    repo.materializer().write(blobSHA,
+                            new File(blobFileName));
+                }
+                stage.track(blobFileName, blobSHA);
             }
         }
         stage.emptyStage();
         stage.setHead(checkoutCommit.getSHA());
         stage.setBranch(checkoutBranch);
-        stage.addBranch(checkoutBranch, checkoutCommit.getSHA());
-        Utils.writeObject(repo.stageFile(), stage);
+        repo.workingTree().record(stage);
+        repo.writeStage(stage);
     }
 }
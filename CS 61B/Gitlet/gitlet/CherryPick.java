@@ -0,0 +1,162 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/** Command for cherry-pick COMMIT..., which commits the change each
+ *  commit made on top of the head, in order.  Every new snapshot is
+ *  found by a TreeMerge in memory; the working directory and stage are
+ *  changed once, at the end, and only where the head's snapshot and the
+ *  last new one differ.  At the first conflict the commits before it are
+ *  kept and the conflicting one is left in the working directory to be
+ *  resolved and committed, as merge leaves one.
+ *  @author Swadhin Nalubola
+ */
+public class CherryPick extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, Math.max(1, args.length), true)) {
+            System.exit(0);
+        }
+        Stage stage = repo.readStage();
+        if (!stage.getStaged().isEmpty() || !stage.getRemoved().isEmpty()) {
+            System.out.println("You have uncommitted changes.");
+            System.exit(0);
+        }
+        List<String> picks = new ArrayList<>();
+        for (String arg : args) {
+            String sha = repo.objects().resolveCommit(arg);
+            if (sha == null) {
+                System.out.println("No commit with that id exists.");
+                System.exit(0);
+            }
+            picks.add(sha);
+        }
+        replay(repo, stage, stage.getHead(), picks);
+    }
+
+    /**
+     * Replay the commits PICKS, oldest first, onto commit ONTO, and make
+     * the result the head of STAGE's branch.  Commits with nothing left
+     * to change, and ones without a parent, are skipped.
+     * @param repo repo
+     * @param stage stage, with nothing staged
+     * @param onto commit sha
+     * @param picks list of commit shas
+     */
+    public void replay(Repo repo, Stage stage, String onto,
+                       List<String> picks) {
+        ObjectDatabase objects = repo.objects();
+        String oldHead = stage.getHead();
+        String branch = stage.getBranch();
+        String timestamp = CommitObject.now();
+        String tip = onto;
+        HashMap<String, String> tree = objects.readCommit(onto)
+            .getTrackedBlobs();
+        for (int i = 0; i < picks.size(); i += 1) {
+            CommitObject pick = objects.readCommit(picks.get(i));
+            if (pick.getParentSHA() == null) {
+                continue;
+            }
+            TreeMerge merge = new TreeMerge(objects.readCommit(
+                    pick.getParentSHA()).getTrackedBlobs(), tree,
+                    pick.getTrackedBlobs());
+            if (!merge.conflicts().isEmpty()) {
+                stop(repo, stage, tip, tree, merge);
+                System.out.println("Could not apply "
+                        + pick.getSHA().substring(0, 7) + " "
+                        + pick.getLogMessage());
+                if (i + 1 < picks.size()) {
+                    System.out.println("Left to apply: " + String.join(" ",
+                            picks.subList(i + 1, picks.size())));
+                }
+                System.out.println("Encountered a merge conflict.");
+                return;
+            }
+            if (merge.result().equals(tree)) {
+                continue;
+            }
+            CommitObject commit = new CommitObject(pick.getLogMessage(),
+                    pick.getAuthor(), timestamp, tip, null, branch,
+                    merge.result());
+            objects.writeCommit(commit);
+            tip = commit.getSHA();
+            tree = merge.result();
+        }
+        repo.workingTree().update(stage,
+                objects.readCommit(oldHead).getTrackedBlobs(), tree);
+        finish(repo, stage, oldHead, tip);
+    }
+
+    /**
+     * Move to commit TIP, with snapshot TREE, and leave the conflicting
+     * MERGE on top of it: its clean changes staged and its conflicted
+     * paths written with conflict markers.
+     * @param repo repo
+     * @param stage stage
+     * @param tip commit sha
+     * @param tree snapshot of TIP
+     * @param merge treemerge
+     */
+    private void stop(Repo repo, Stage stage, String tip,
+                      HashMap<String, String> tree, TreeMerge merge) {
+        String oldHead = stage.getHead();
+        HashMap<String, String> from = repo.objects().readCommit(oldHead)
+            .getTrackedBlobs();
+        for (String name : merge.conflicts()) {
+            repo.workingTree().requireClean(stage, name, from.get(name),
+                    tree.get(name));
+        }
+        HashMap<String, String> merged = merge.result();
+        repo.workingTree().update(stage, from, merged);
+        for (Map.Entry<String, String> entry : tree.entrySet()) {
+            if (!entry.getValue().equals(merged.get(entry.getKey()))) {
+                stage.track(entry.getKey(), entry.getValue());
+                if (!merged.containsKey(entry.getKey())) {
+                    stage.remove(entry.getKey(), entry.getValue());
+                }
+            }
+        }
+        for (Map.Entry<String, String> entry : merged.entrySet()) {
+            if (!entry.getValue().equals(tree.get(entry.getKey()))) {
+                stage.stage(entry.getKey(), entry.getValue());
+                if (!tree.containsKey(entry.getKey())) {
+                    stage.unTrack(entry.getKey(), null);
+                }
+            }
+        }
+        for (String name : merge.conflicts()) {
+            if (repo.sparseCheckout().includes(name)) {
+                File file = new File(repo.getWorkingDirectory(), name);
+                Materializer.release(file);
+                file.getParentFile().mkdirs();
+                Utils.writeContents(file,
+                        (Object) merge.conflictContents(repo.objects(), name));
+            }
+        }
+        finish(repo, stage, oldHead, tip);
+    }
+
+    /**
+     * Move STAGE and its branch from commit OLDHEAD to commit TIP, and
+     * save STAGE.
+     * @param repo repo
+     * @param stage stage, already tracking TIP's snapshot
+     * @param oldHead commit sha
+     * @param tip commit sha
+     */
+    private void finish(Repo repo, Stage stage, String oldHead,
+                        String tip) {
+        if (!repo.refs().compareAndSet(stage.getBranch(), oldHead, tip)) {
+            System.out.println("Branch " + stage.getBranch()
+                    + " was moved by another process.");
+            System.exit(0);
+        }
+        stage.setHead(tip);
+        repo.writeStage(stage);
+    }
+}
@@ -0,0 +1,56 @@
+package gitlet;
+
+import java.io.File;
+import java.util.HashMap;
+
+/** Command for clone.  The new repository lists the source's object
+ *  store as an alternate instead of copying it, so it only stores the
+ *  objects it creates itself.  The source becomes the remote origin.
+ *  @author Swadhin Nalubola
+ */
+public class Clone extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, 1, false)) {
+            System.exit(0);
+        }
+
+        File gitletDir = new File(args[0].replace("/", File.separator));
+        if (!gitletDir.getName().equals(".gitlet")) {
+            gitletDir = new File(gitletDir, ".gitlet");
+        }
+        if (!gitletDir.isAbsolute()) {
+            gitletDir = new File(repo.getWorkingDirectory(),
+                    gitletDir.getPath());
+        }
+        Repo source = new Repo(gitletDir.getAbsoluteFile().getParent());
+        if (!source.exists()) {
+            System.out.println("Remote directory not found.");
+            System.exit(0);
+        }
+
+        repo.create();
+        repo.lock();
+        repo.addAlternate(gitletDir);
+        repo.refs().copyFrom(source.refs());
+        new AddRemote().run(repo, new String[]{"origin",
+            gitletDir.getAbsolutePath()});
+
+        Stage sourceStage =
+            source.readStage();
+        String branch = sourceStage.getBranch();
+        String head = repo.refs().get(branch);
+        Stage stage = new Stage();
+        stage.setBranch(branch);
+        stage.setHead(head);
+        HashMap<String, String> blobs =
+            repo.objects().readCommit(head).getTrackedBlobs();
+        for (String fileName : blobs.keySet()) {
+            String blobSHA = blobs.get(fileName);
+            repo.materializer().write(blobSHA, new File(fileName));
+            stage.track(fileName, blobSHA);
+        }
+        repo.writeStage(stage);
+    }
+}
@@ -36,4 +36,14 @@ public class Command {
         }
         return true;
     }
+
+    /**
+     * Does the command change the repo.  Main takes the repo's writer
+     * lock before running commands that do; the others only read and run
+     * alongside a writer.
+     * @return boolean
+     */
+    public boolean writes() {
+        return true;
+    }
 }
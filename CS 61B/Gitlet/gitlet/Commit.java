@@ -1,8 +1,6 @@
 package gitlet;
 
-import java.text.SimpleDateFormat;
-import java.util.Date;
-import java.io.File;
+import java.util.HashMap;
 
 /** Command for commit.
  * @author Swadhin Nalubola
@@ -20,8 +18,18 @@ public class Commit extends Command {
             System.out.println("Please enter a commit message.");
             System.exit(0);
         }
+        commit(repo, args[0], null);
+    }
 
-        Stage stage = Utils.readObject(repo.stageFile(), Stage.class);
+    /**
+     * Commit the stage with message LOGMESSAGE and, for a merge, second
+     * parent PARENT2SHA.
+     * @param repo repo
+     * @param logMessage string
+     * @param parent2SHA string, or null
+     */
+    public void commit(Repo repo, String logMessage, String parent2SHA) {
+        Stage stage = repo.readStage();
 
         if (stage.isStageEmpty() && stage.getHead()
                 != null && stage.getRemoved().isEmpty()) {
@@ -35,24 +43,25 @@ public class Commit extends Command {
         }
         stage.emptyStage();
 
-        String timestamp = new SimpleDateFormat(
-                "EEE MMM dd hh:mm:ss YYYY Z").format(new Date());
-        String logMessage = args[0];
-        String sha1 = Utils.sha1(timestamp + logMessage);
+        String timestamp = CommitObject.now();
+        String author = CommitObject.author(repo);
         String parentSHA = stage.getHead();
         String branch = stage.getBranch();
 
         CommitObject thisCommit =
-                new CommitObject(sha1, logMessage, timestamp,
-                        parentSHA, null, branch, stage);
+                new CommitObject(logMessage, author, timestamp,
+                        parentSHA, parent2SHA, branch,
+                        new HashMap<>(stage.getTracked()));
         stage.setHead(thisCommit.getSHA());
-        stage.addBranch(branch, thisCommit.getSHA());
-        stage.addCommit(thisCommit);
 
-        File thisCommitFile = new File(repo.commitPath()
-                + thisCommit.getSHA() + ".ser");
-        Utils.writeObject(thisCommitFile, thisCommit);
+        repo.objects().writeCommit(thisCommit);
+        if (!repo.refs().compareAndSet(branch, parentSHA,
+                thisCommit.getSHA())) {
+            System.out.println("Branch " + branch
+                    + " was moved by another process.");
+            System.exit(0);
+        }
 
-        Utils.writeObject(repo.stageFile(), stage);
+        repo.writeStage(stage);
     }
 }
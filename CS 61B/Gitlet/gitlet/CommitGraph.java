@@ -0,0 +1,441 @@
+package gitlet;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+/** The commit-graph file, .gitlet/commit-graph: the parents and time of
+ *  every commit and a Bloom filter of the paths each commit changed from
+ *  its first parent, so history walks need not load commits.  The file
+ *  holds a header ("GLCG", version, commit count), the sorted raw commit
+ *  ids, one fixed-size record per commit (first parent, second parent,
+ *  filter offset, filter length, time) and the filters themselves.  It
+ *  is read in place by binary search.  Commits made after it was written
+ *  are simply not in it.
+ *  @author Swadhin Nalubola
+ */
+public class CommitGraph {
+
+    /**
+     * Open the commit graph of REPO.
+     * @param repo repo
+     */
+    public CommitGraph(Repo repo) {
+        _buf = map(repo.commitGraphFile());
+        _count = _buf == null ? 0 : _buf.getInt(MAGIC.length + 4);
+    }
+
+    /**
+     * Write the commit graph of every commit of REPO, under the shared
+     * lock so that worktrees writing at once do not interleave.
+     * @param repo repo
+     * @return number of commits written
+     */
+    public static int write(Repo repo) {
+        repo.lockShared();
+        try {
+            return build(repo);
+        } finally {
+            repo.unlockShared();
+        }
+    }
+
+    /**
+     * Build and store the commit graph of every commit of REPO.
+     * @param repo repo
+     * @return number of commits written
+     */
+    private static int build(Repo repo) {
+        ObjectDatabase objects = repo.objects();
+        ArrayList<String> ids = new ArrayList<>(objects.commitIds());
+        Collections.sort(ids);
+        HashMap<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < ids.size(); i += 1) {
+            index.put(ids.get(i), i);
+        }
+        try {
+            ByteArrayOutputStream filters = new ByteArrayOutputStream();
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            DataOutputStream out = new DataOutputStream(bytes);
+            out.write(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(ids.size());
+            for (String id : ids) {
+                out.write(raw(id));
+            }
+            for (String id : ids) {
+                CommitObject commit = objects.readCommit(id);
+                CommitObject parent =
+                    objects.readCommit(commit.getParentSHA());
+                byte[] filter = filter(changedPaths(commit, parent));
+                out.writeInt(indexOf(index, commit.getParentSHA()));
+                out.writeInt(indexOf(index, commit.getParent2SHA()));
+                out.writeInt(filter == null ? 0 : filters.size());
+                out.writeInt(filter == null ? NO_FILTER : filter.length);
+                out.writeLong(commit.getTime());
+                if (filter != null) {
+                    filters.write(filter);
+                }
+            }
+            filters.writeTo(out);
+            out.flush();
+            Repo.store(repo.commitGraphFile(), bytes.toByteArray());
+        } catch (IOException excp) {
+            throw Utils.error("Could not write the commit graph.");
+        }
+        return ids.size();
+    }
+
+    /**
+     * Is commit SHA in the graph.
+     * @param sha string
+     * @return boolean
+     */
+    public boolean contains(String sha) {
+        return find(sha) >= 0;
+    }
+
+    /**
+     * First parent of commit SHA, which must be in the graph.
+     * @param sha string
+     * @return string, or null for a root commit
+     */
+    public String parent(String sha) {
+        return idAt(_buf.getInt(record(find(sha))));
+    }
+
+    /**
+     * Second parent of commit SHA, which must be in the graph.
+     * @param sha string
+     * @return string, or null if it is not a merge
+     */
+    public String parent2(String sha) {
+        return idAt(_buf.getInt(record(find(sha)) + 4));
+    }
+
+    /**
+     * When commit SHA, which must be in the graph, was made.
+     * @param sha string
+     * @return milliseconds since the epoch
+     */
+    public long time(String sha) {
+        return _buf.getLong(record(find(sha)) + 16);
+    }
+
+    /**
+     * Might commit SHA, which must be in the graph, have changed PATH
+     * from its first parent.  False answers are always right.
+     * @param sha string
+     * @param path string
+     * @return boolean
+     */
+    public boolean mayChange(String sha, String path) {
+        int record = record(find(sha));
+        int offset = _buf.getInt(record + 8);
+        int length = _buf.getInt(record + 12);
+        if (length == NO_FILTER) {
+            return true;
+        }
+        int start = filtersStart() + offset;
+        long bits = 8L * length;
+        int[] hashes = hashes(path);
+        for (int i = 0; i < HASHES; i += 1) {
+            long bit = Integer.toUnsignedLong(hashes[0] + i * hashes[1])
+                % bits;
+            if ((_buf.get(start + (int) (bit >>> 3)) & (1 << (bit & 7)))
+                    == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Paths whose blobs differ between COMMIT and PARENT.
+     * @param commit commitobject
+     * @param parent commitobject, or null for a root commit
+     * @return list
+     */
+    static List<String> changedPaths(CommitObject commit,
+                                     CommitObject parent) {
+        Map<String, String> blobs = commit.getTrackedBlobs();
+        Map<String, String> parentBlobs = parent == null
+            ? Collections.emptyMap() : parent.getTrackedBlobs();
+        HashSet<String> changed = new HashSet<>();
+        for (Map.Entry<String, String> entry : blobs.entrySet()) {
+            if (!entry.getValue().equals(parentBlobs.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String path : parentBlobs.keySet()) {
+            if (!blobs.containsKey(path)) {
+                changed.add(path);
+            }
+        }
+        return new ArrayList<>(changed);
+    }
+
+    /**
+     * The Bloom filter of PATHS.
+     * @param paths list
+     * @return byte[], or null if there are too many paths to be worth it
+     */
+    private static byte[] filter(List<String> paths) {
+        if (paths.size() > MAX_PATHS) {
+            return null;
+        }
+        int length = Math.max(MIN_FILTER_BYTES,
+                (paths.size() * BITS_PER_PATH + 7) / 8);
+        byte[] filter = new byte[length];
+        long bits = 8L * length;
+        for (String path : paths) {
+            int[] hashes = hashes(path);
+            for (int i = 0; i < HASHES; i += 1) {
+                long bit = Integer.toUnsignedLong(hashes[0] + i * hashes[1])
+                    % bits;
+                filter[(int) (bit >>> 3)] |= 1 << (bit & 7);
+            }
+        }
+        return filter;
+    }
+
+    /**
+     * The two base hashes of PATH, from which each filter bit is derived.
+     * @param path string
+     * @return int[2]
+     */
+    private static int[] hashes(String path) {
+        byte[] bytes = path.getBytes(StandardCharsets.UTF_8);
+        return new int[] {murmur3(SEED1, bytes), murmur3(SEED2, bytes)};
+    }
+
+    /**
+     * The 32-bit MurmurHash3 of DATA.
+     * @param seed int
+     * @param data byte[]
+     * @return int
+     */
+    private static int murmur3(int seed, byte[] data) {
+        final int c1 = 0xcc9e2d51;
+        final int c2 = 0x1b873593;
+        int h = seed;
+        int blocks = data.length / 4;
+        ByteBuffer buf = ByteBuffer.wrap(data).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < blocks; i += 1) {
+            int k = buf.getInt(4 * i);
+            k *= c1;
+            k = Integer.rotateLeft(k, 15);
+            k *= c2;
+            h ^= k;
+            h = Integer.rotateLeft(h, 13);
+            h = h * 5 + 0xe6546b64;
+        }
+        int k = 0;
+        int tail = 4 * blocks;
+        switch (data.length & 3) {
+        case 3:
+            k ^= (data[tail + 2] & 0xff) << 16;
+            // fall through
+        case 2:
+            k ^= (data[tail + 1] & 0xff) << 8;
+            // fall through
+        case 1:
+            k ^= data[tail] & 0xff;
+            k *= c1;
+            k = Integer.rotateLeft(k, 15);
+            k *= c2;
+            h ^= k;
+            break;
+        default:
+            break;
+        }
+        h ^= data.length;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Index of commit SHA in the graph.
+     * @param sha string
+     * @return int, or -1 if it is not there
+     */
+    private int find(String sha) {
+        if (sha == null || sha.length() != 2 * HASH) {
+            return -1;
+        }
+        byte[] key = raw(sha);
+        int lo = 0;
+        int hi = _count - 1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            int cmp = compareId(mid, key);
+            if (cmp < 0) {
+                lo = mid + 1;
+            } else if (cmp > 0) {
+                hi = mid - 1;
+            } else {
+                return mid;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Compare the id at INDEX with KEY.
+     * @param index int
+     * @param key raw id
+     * @return int
+     */
+    private int compareId(int index, byte[] key) {
+        int start = HEADER + index * HASH;
+        for (int i = 0; i < HASH; i += 1) {
+            int cmp = Integer.compare(_buf.get(start + i) & 0xff,
+                    key[i] & 0xff);
+            if (cmp != 0) {
+                return cmp;
+            }
+        }
+        return 0;
+    }
+
+    /**
+     * The id at INDEX.
+     * @param index int, negative for none
+     * @return string, or null
+     */
+    private String idAt(int index) {
+        if (index < 0) {
+            return null;
+        }
+        StringBuilder id = new StringBuilder(2 * HASH);
+        int start = HEADER + index * HASH;
+        for (int i = 0; i < HASH; i += 1) {
+            int b = _buf.get(start + i) & 0xff;
+            id.append(Character.forDigit(b >>> 4, 16))
+                .append(Character.forDigit(b & 0xf, 16));
+        }
+        return id.toString();
+    }
+
+    /**
+     * Offset of the record at INDEX.
+     * @param index int
+     * @return int
+     */
+    private int record(int index) {
+        if (index < 0) {
+            throw Utils.error("Commit is not in the commit graph.");
+        }
+        return HEADER + _count * HASH + index * RECORD;
+    }
+
+    /**
+     * Offset of the first filter.
+     * @return int
+     */
+    private int filtersStart() {
+        return HEADER + _count * (HASH + RECORD);
+    }
+
+    /**
+     * Index of SHA in INDEX.
+     * @param index map
+     * @param sha string, or null
+     * @return int, or -1
+     */
+    private static int indexOf(Map<String, Integer> index, String sha) {
+        Integer i = sha == null ? null : index.get(sha);
+        return i == null ? -1 : i;
+    }
+
+    /**
+     * Raw bytes of hex id SHA.
+     * @param sha string
+     * @return byte[]
+     */
+    private static byte[] raw(String sha) {
+        byte[] raw = new byte[HASH];
+        for (int i = 0; i < HASH; i += 1) {
+            raw[i] = (byte) Integer.parseInt(sha.substring(2 * i, 2 * i + 2),
+                    16);
+        }
+        return raw;
+    }
+
+    /**
+     * Map FILE, checking its header.
+     * @param file file
+     * @return buffer, or null if there is no usable commit graph
+     */
+    private static MappedByteBuffer map(File file) {
+        if (!file.isFile()) {
+            return null;
+        }
+        try (RandomAccessFile in = new RandomAccessFile(file, "r");
+             FileChannel channel = in.getChannel()) {
+            MappedByteBuffer buf = channel.map(FileChannel.MapMode.READ_ONLY,
+                    0, channel.size());
+            if (buf.limit() < HEADER) {
+                return null;
+            }
+            for (int i = 0; i < MAGIC.length; i += 1) {
+                if (buf.get(i) != MAGIC[i]) {
+                    return null;
+                }
+            }
+            if (buf.getInt(MAGIC.length) != VERSION) {
+                return null;
+            }
+            return buf;
+        } catch (IOException excp) {
+            return null;
+        }
+    }
+
+    /** First bytes of the file. */
+    private static final byte[] MAGIC = {'G', 'L', 'C', 'G'};
+    /** File format version. */
+    private static final int VERSION = 2;
+    /** Bytes in the header. */
+    private static final int HEADER = MAGIC.length + 8;
+    /** Bytes in a raw id. */
+    private static final int HASH = 20;
+    /** Bytes in a commit record. */
+    private static final int RECORD = 24;
+    /** Filter length of commits that changed too many paths to filter. */
+    private static final int NO_FILTER = -1;
+    /** Most changed paths worth a filter. */
+    private static final int MAX_PATHS = 512;
+    /** Filter bits per changed path. */
+    private static final int BITS_PER_PATH = 10;
+    /** Bits set per path. */
+    private static final int HASHES = 7;
+    /** Smallest filter. */
+    private static final int MIN_FILTER_BYTES = 8;
+    /** Seed of the first path hash. */
+    private static final int SEED1 = 0x293ae76f;
+    /** Seed of the second path hash. */
+    private static final int SEED2 = 0x7e646e2c;
+
+    /** the mapped file, or null. */
+    private final MappedByteBuffer _buf;
+    /** number of commits in the graph. */
+    private final int _count;
+}
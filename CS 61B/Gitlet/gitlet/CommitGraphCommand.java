@@ -0,0 +1,20 @@
+package gitlet;
+
+/** Command for commit-graph write, which rewrites .gitlet/commit-graph
+ *  to cover every commit.
+ *  @author Swadhin Nalubola
+ */
+public class CommitGraphCommand extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, 1, true)) {
+            System.exit(0);
+        }
+        if (!args[0].equals("write")) {
+            System.out.println("Incorrect operands.");
+            System.exit(0);
+        }
+        CommitGraph.write(repo);
+    }
+}
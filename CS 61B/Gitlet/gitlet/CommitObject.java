@@ -1,6 +1,9 @@
 package gitlet;
 
 import java.io.Serializable;
+import java.text.ParseException;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 import java.util.HashMap;
 import java.util.Objects;
 
@@ -10,25 +13,54 @@ import java.util.Objects;
 public class CommitObject implements Serializable {
 
     /**
-     * Initialize CommitObject.
-     * @param sha string
+     * Initialize a new CommitObject, whose sha is the hash of its
+     * canonical encoding.
      * @param logMessage string
+     * @param author string
      * @param timestamp string
      * @param parentSHA string
      * @param parent2SHA string
      * @param branch string
-     * @param stage stage
+     * @param blobs snapshot of file name to blob sha
      */
-    public CommitObject(String sha, String logMessage, String timestamp,
+    public CommitObject(String logMessage, String author, String timestamp,
                         String parentSHA, String parent2SHA, String branch,
-                        Stage stage) {
+                        HashMap<String, String> blobs) {
+        _logMessage = logMessage;
+        _author = author;
+        _timestamp = timestamp;
+        _parentSHA = parentSHA;
+        _parent2SHA = parent2SHA;
+        _branch = branch;
+        _blobs = blobs;
+        _stage = null;
+        _sha = ObjectCodec.commitId(this);
+    }
+
+    /**
+     * Initialize a stored CommitObject.
+     * @param sha string
+     * @param logMessage string
+     * @param author string
+     * @param timestamp string
+     * @param parentSHA string
+     * @param parent2SHA string
+     * @param branch string
+     * @param blobs snapshot of file name to blob sha
+     */
+    public CommitObject(String sha, String logMessage, String author,
+                        String timestamp, String parentSHA,
+                        String parent2SHA, String branch,
+                        HashMap<String, String> blobs) {
         _sha = sha;
         _logMessage = logMessage;
+        _author = author;
         _timestamp = timestamp;
         _parentSHA = parentSHA;
         _parent2SHA = parent2SHA;
         _branch = branch;
-        _stage = stage;
+        _blobs = blobs;
+        _stage = null;
     }
 
     /**
@@ -39,6 +71,50 @@ public class CommitObject implements Serializable {
         return _sha;
     }
 
+    /**
+     * The time now, formatted as commit timestamps are written.
+     * @return string
+     */
+    public static String now() {
+        return timestampFormat().format(new Date());
+    }
+
+    /**
+     * A new format for writing commit timestamps, in the default time
+     * zone.
+     * @return simpledateformat
+     */
+    public static SimpleDateFormat timestampFormat() {
+        return new SimpleDateFormat(TIMESTAMP);
+    }
+
+    /**
+     * The author of commits made in REPO: its user.name setting, or the
+     * system user's name.
+     * @param repo repo
+     * @return string
+     */
+    public static String author(Repo repo) {
+        return repo.config().get("user.name",
+                System.getProperty("user.name"));
+    }
+
+    /**
+     * Is PATH usable as a snapshot entry: a relative path with no empty,
+     * "." or ".." parts, which could name a file outside the working
+     * directory.
+     * @param path string
+     * @return boolean
+     */
+    public static boolean validPath(String path) {
+        for (String part : path.split("/", -1)) {
+            if (part.isEmpty() || part.equals(".") || part.equals("..")) {
+                return false;
+            }
+        }
+        return true;
+    }
+
     /** Get timestamp.
      * @return string
      */
@@ -46,6 +122,18 @@ public class CommitObject implements Serializable {
         return _timestamp;
     }
 
+    /** Get the time the commit was made.
+     * @return milliseconds since the epoch, or 0 if unknown
+     */
+    public long getTime() {
+        try {
+            return new SimpleDateFormat(TIMESTAMP).parse(_timestamp)
+                .getTime();
+        } catch (ParseException excp) {
+            return 0;
+        }
+    }
+
     /** Get log message.
      * @return string
      */
@@ -53,6 +141,13 @@ public class CommitObject implements Serializable {
         return _logMessage;
     }
 
+    /** Get author.
+     * @return string, or null for commits made before authors were kept
+     */
+    public String getAuthor() {
+        return _author;
+    }
+
     /** Get parent sha.
      * @return string
      */
@@ -67,14 +162,6 @@ public class CommitObject implements Serializable {
         return _parent2SHA;
     }
 
-    /**
-     * set other parent sha.
-     * @param parent2SHA string
-     */
-    public void setParent2SHA(String parent2SHA) {
-        _parent2SHA = parent2SHA;
-    }
-
     /** Get branch.
      * @return string
      */
@@ -82,18 +169,25 @@ public class CommitObject implements Serializable {
         return _branch;
     }
 
-    /** Get stage.
-     * @return stage
-     */
-    public Stage getStage() {
-        return _stage;
-    }
-
     /** Get tracked blobs.
      * @return blobs
      */
     public HashMap<String, String> getTrackedBlobs() {
-        return getStage().getTracked();
+        return _blobs;
+    }
+
+    /**
+     * Replace a commit written by the first version, which kept a copy
+     * of the whole stage rather than a snapshot, with one holding the
+     * stage's tracked files.
+     * @return commitobject
+     */
+    private Object readResolve() {
+        if (_blobs != null || _stage == null) {
+            return this;
+        }
+        return new CommitObject(_sha, _logMessage, _author, _timestamp,
+                _parentSHA, _parent2SHA, _branch, _stage.getTracked());
     }
 
     @Override
@@ -113,18 +207,28 @@ public class CommitObject implements Serializable {
         return this.getSHA().equals(commitObject.getSHA());
     }
 
+    /** Stays that of the old class, so that its serialized commits can
+     *  still be read. */
+    private static final long serialVersionUID = -2218558136441611190L;
+    /** Format of commit timestamps. */
+    private static final String TIMESTAMP = "EEE MMM dd HH:mm:ss yyyy Z";
+
     /** sha. */
     private final String _sha;
     /** logmessage. */
     private final String _logMessage;
+    /** author. */
+    private final String _author;
     /** timestamp. */
     private final String _timestamp;
     /** parent sha. */
     private final String _parentSHA;
     /** other parent sha. */
-    private String _parent2SHA;
+    private final String _parent2SHA;
     /** branch. */
     private final String _branch;
-    /** stage. */
+    /** Snapshot of the commit, in the form of filename, blob sha1. */
+    private final HashMap<String, String> _blobs;
+    /** Stage of commits written by the first version; null otherwise. */
     private final Stage _stage;
 }
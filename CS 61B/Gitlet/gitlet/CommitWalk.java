@@ -0,0 +1,206 @@
+package gitlet;
+
+import java.util.ArrayDeque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/** The commits log shows, newest first: first parents back from a
+ *  commit, or only those touching a path (PathHistory).  Commits are
+ *  loaded only as the iterator advances, a few threads reading the next
+ *  WINDOW of them ahead of the caller.  The ids to read come from the
+ *  commit graph where it has them, so reading ahead need not wait for
+ *  each commit to find its parent.  Commits made before SINCE or after
+ *  UNTIL are left out, by their time in the commit graph where it has
+ *  one, so they are never loaded; history is taken to get older going
+ *  back, so the walk ends at the first commit made before SINCE.  Close
+ *  it to stop the readers.
+ *  @author Swadhin Nalubola
+ */
+public class CommitWalk implements Iterator<CommitObject>, AutoCloseable {
+
+    /**
+     * Initialize a walk of REPO's commits from START back, touching PATH
+     * if it is not null, and made from SINCE to UNTIL.
+     * @param repo repo
+     * @param start commit sha, or null for no commits
+     * @param path string, or null for every commit
+     * @param since milliseconds since the epoch
+     * @param until milliseconds since the epoch
+     */
+    public CommitWalk(Repo repo, String start, String path, long since,
+                      long until) {
+        _objects = repo.objects();
+        _graph = repo.commitGraph();
+        _since = since;
+        _until = until;
+        if (path != null && start != null) {
+            _paths = new PathHistory(repo).touching(path, start);
+        } else {
+            _next = start;
+        }
+        _readers = Executors.newFixedThreadPool(READERS, task -> {
+            Thread thread = new Thread(task);
+            thread.setDaemon(true);
+            return thread;
+        });
+        _ahead = new ArrayDeque<>();
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (_current == null) {
+            _current = advance();
+        }
+        return _current != null;
+    }
+
+    @Override
+    public CommitObject next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        CommitObject next = _current;
+        _current = null;
+        return next;
+    }
+
+    @Override
+    public void close() {
+        _readers.shutdownNow();
+    }
+
+    /**
+     * Load the next commit to show.
+     * @return commitobject, or null at the end of the walk
+     */
+    private CommitObject advance() {
+        while (true) {
+            fill();
+            if (_ahead.isEmpty()) {
+                return null;
+            }
+            CommitObject commit = take(_ahead.remove());
+            if (_waiting && _ahead.isEmpty()) {
+                _waiting = false;
+                _next = commit.getParentSHA();
+            }
+            if (limited() && !_graph.contains(commit.getSHA())) {
+                long time = commit.getTime();
+                if (time < _since) {
+                    end();
+                    return null;
+                } else if (time > _until) {
+                    continue;
+                }
+            }
+            return commit;
+        }
+    }
+
+    /**
+     * Start reading commits until WINDOW of them are being read ahead,
+     * the walk ends, or the next id is only known once the last commit
+     * started is read.
+     */
+    private void fill() {
+        while (_ahead.size() < WINDOW && !_waiting && !_ended) {
+            String sha;
+            if (_paths != null) {
+                sha = _paths.hasNext() ? _paths.next() : null;
+            } else {
+                sha = _next;
+                if (sha != null && _graph.contains(sha)) {
+                    _next = _graph.parent(sha);
+                } else {
+                    _next = null;
+                    _waiting = sha != null;
+                }
+            }
+            if (sha == null) {
+                _ended = true;
+                return;
+            }
+            if (limited() && _graph.contains(sha)) {
+                long time = _graph.time(sha);
+                if (time < _since) {
+                    _ended = true;
+                    return;
+                } else if (time > _until) {
+                    continue;
+                }
+            }
+            _ahead.add(_readers.submit(() -> _objects.readCommit(sha)));
+        }
+    }
+
+    /**
+     * The commit FUTURE reads, once it has.
+     * @param future future
+     * @return commitobject
+     */
+    private static CommitObject take(Future<CommitObject> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException excp) {
+            throw Utils.error("log was interrupted.");
+        } catch (ExecutionException excp) {
+            if (excp.getCause() instanceof GitletException) {
+                throw (GitletException) excp.getCause();
+            }
+            throw Utils.error("Could not read a commit.");
+        }
+    }
+
+    /**
+     * Is the walk limited by time.
+     * @return boolean
+     */
+    private boolean limited() {
+        return _since != Long.MIN_VALUE || _until != Long.MAX_VALUE;
+    }
+
+    /**
+     * End the walk, dropping the commits being read ahead.
+     */
+    private void end() {
+        _ended = true;
+        _waiting = false;
+        for (Future<CommitObject> future : _ahead) {
+            future.cancel(false);
+        }
+        _ahead.clear();
+    }
+
+    /** Threads reading commits ahead of the caller. */
+    private static final int READERS = 4;
+    /** Most commits read ahead of the caller. */
+    private static final int WINDOW = 32;
+
+    /** object database. */
+    private final ObjectDatabase _objects;
+    /** commit graph. */
+    private final CommitGraph _graph;
+    /** earliest time shown. */
+    private final long _since;
+    /** latest time shown. */
+    private final long _until;
+    /** commits touching the path, or null to follow first parents. */
+    private Iterator<String> _paths;
+    /** next first parent to read, or null if none or not known yet. */
+    private String _next;
+    /** is the next first parent known only once the last commit
+     *  started is read. */
+    private boolean _waiting;
+    /** have the last commits to read been started. */
+    private boolean _ended;
+    /** commits being read, oldest started first. */
+    private final ArrayDeque<Future<CommitObject>> _ahead;
+    /** threads reading them. */
+    private final ExecutorService _readers;
+    /** commit to return next, or null if not loaded yet. */
+    private CommitObject _current;
+}
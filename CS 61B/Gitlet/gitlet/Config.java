@@ -0,0 +1,68 @@
+package gitlet;
+
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Properties;
+
+/** Settings of a repository, kept as key=value lines in .gitlet/config.
+ *  @author Swadhin Nalubola
+ */
+public class Config {
+
+    /**
+     * Initialize config.
+     * @param file the config file
+     */
+    public Config(File file) {
+        _file = file;
+        _properties = new Properties();
+        if (file.isFile()) {
+            try (InputStream in = new FileInputStream(file)) {
+                _properties.load(in);
+            } catch (IOException excp) {
+                throw Utils.error("Could not read %s.", file.getName());
+            }
+        }
+    }
+
+    /**
+     * Get a setting.
+     * @param key string
+     * @param defaultValue string
+     * @return the value of KEY, or DEFAULTVALUE if it is not set
+     */
+    public String get(String key, String defaultValue) {
+        return _properties.getProperty(key, defaultValue);
+    }
+
+    /**
+     * Change a setting and save the config.
+     * @param key string
+     * @param value string
+     */
+    public void set(String key, String value) {
+        _properties.setProperty(key, value);
+        File temp = new File(_file.getPath() + ".tmp");
+        try {
+            try (OutputStream out = new FileOutputStream(temp)) {
+                _properties.store(out, null);
+            }
+            Files.move(temp.toPath(), _file.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException excp) {
+            throw Utils.error("Could not write %s.", _file.getName());
+        }
+    }
+
+    /** the config file. */
+    private final File _file;
+    /** the settings. */
+    private final Properties _properties;
+}
@@ -0,0 +1,25 @@
+package gitlet;
+
+/** Command for config, which prints or changes a repository setting.
+ *  @author Swadhin Nalubola
+ */
+public class ConfigCommand extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (args.length == 1) {
+            if (!super.valid(args, 1, true)) {
+                System.exit(0);
+            }
+            String value = repo.config().get(args[0], null);
+            if (value != null) {
+                System.out.println(value);
+            }
+        } else {
+            if (!super.valid(args, 2, true)) {
+                System.exit(0);
+            }
+            repo.config().set(args[0], args[1]);
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package gitlet;
+
+/** Command for count-objects [-v], which shows how many objects are
+ *  stored and how much disk they take.  Every object is a file of its
+ *  own; -v splits them into commits and blobs and adds the objects found
+ *  only in alternates and the garbage in the object folders, one
+ *  "name: value" line each, sizes in KiB.  See Sizer.
+ *  @author Swadhin Nalubola
+ */
+public class CountObjects extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, args.length, true)) {
+            System.exit(0);
+        } else if (args.length > 1
+                   || (args.length == 1 && !args[0].equals("-v"))) {
+            System.out.println("Incorrect operands.");
+            System.exit(0);
+        }
+        Sizer sizer = new Sizer(repo);
+        sizer.files();
+        long count = sizer.count(Sizer.COMMITS) + sizer.count(Sizer.BLOBS);
+        long bytes = sizer.bytes(Sizer.COMMITS) + sizer.bytes(Sizer.BLOBS);
+        if (args.length == 0) {
+            System.out.println(count + " objects, " + kib(bytes)
+                    + " kilobytes");
+            return;
+        }
+        System.out.println("count: " + count);
+        System.out.println("size: " + kib(bytes));
+        System.out.println("commits: " + sizer.count(Sizer.COMMITS));
+        System.out.println("size-commits: " + kib(sizer.bytes(Sizer.COMMITS)));
+        System.out.println("blobs: " + sizer.count(Sizer.BLOBS));
+        System.out.println("size-blobs: " + kib(sizer.bytes(Sizer.BLOBS)));
+        System.out.println("in-alternates: " + sizer.count(Sizer.ALTERNATES));
+        System.out.println("size-alternates: "
+                + kib(sizer.bytes(Sizer.ALTERNATES)));
+        System.out.println("garbage: " + sizer.count(Sizer.GARBAGE));
+        System.out.println("size-garbage: " + kib(sizer.bytes(Sizer.GARBAGE)));
+    }
+
+    @Override
+    public boolean writes() {
+        return false;
+    }
+
+    /**
+     * BYTES in KiB, rounded up.
+     * @param bytes long
+     * @return long
+     */
+    private static long kib(long bytes) {
+        return (bytes + KIB - 1) / KIB;
+    }
+
+    /** Bytes in a KiB. */
+    private static final long KIB = 1024;
+}
@@ -0,0 +1,225 @@
+package gitlet;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/** Line diffs, by Myers' O(ND) algorithm in its linear-space form: find
+ *  the middle of the shortest edit script by running it forwards and
+ *  backwards at once, then split there and recurse.  Lines are compared
+ *  as small ints, and common leading and trailing lines are matched
+ *  before any searching.
+ *  @author Swadhin Nalubola
+ */
+public class Diff {
+
+    /**
+     * Match the lines of B against the lines of A along a shortest edit
+     * script.
+     * @param a old lines
+     * @param b new lines
+     * @return for each line of B, the index of the line of A it is
+     *         unchanged from, or -1 if it was inserted
+     */
+    public static int[] match(List<String> a, List<String> b) {
+        HashMap<String, Integer> ids = new HashMap<>();
+        int[] x = intern(a, ids);
+        int[] y = intern(b, ids);
+        int[] match = new int[y.length];
+        Arrays.fill(match, -1);
+        new Diff(x, y, match).diff(0, x.length, 0, y.length);
+        return match;
+    }
+
+    /**
+     * Split CONTENTS into lines.  A final newline does not start another
+     * line.
+     * @param contents byte[]
+     * @return list
+     */
+    public static List<String> lines(byte[] contents) {
+        String text = new String(contents, StandardCharsets.UTF_8);
+        ArrayList<String> lines = new ArrayList<>();
+        int start = 0;
+        while (start < text.length()) {
+            int end = text.indexOf('\n', start);
+            if (end < 0) {
+                end = text.length();
+            }
+            lines.add(text.substring(start, end));
+            start = end + 1;
+        }
+        return lines;
+    }
+
+    /**
+     * Initialize a diff of line ids A and B into MATCH.
+     * @param a int[]
+     * @param b int[]
+     * @param match int[]
+     */
+    private Diff(int[] a, int[] b, int[] match) {
+        _a = a;
+        _b = b;
+        _match = match;
+    }
+
+    /**
+     * Diff A[ALO, AHI) against B[BLO, BHI).
+     * @param aLo int
+     * @param aHi int
+     * @param bLo int
+     * @param bHi int
+     */
+    private void diff(int aLo, int aHi, int bLo, int bHi) {
+        while (aLo < aHi && bLo < bHi && _a[aLo] == _b[bLo]) {
+            _match[bLo] = aLo;
+            aLo += 1;
+            bLo += 1;
+        }
+        while (aLo < aHi && bLo < bHi && _a[aHi - 1] == _b[bHi - 1]) {
+            aHi -= 1;
+            bHi -= 1;
+            _match[bHi] = aHi;
+        }
+        if (aLo == aHi || bLo == bHi) {
+            return;
+        }
+        long split = middle(aLo, aHi, bLo, bHi);
+        int x = (int) (split >>> Integer.SIZE);
+        int y = (int) split;
+        if ((x == aLo && y == bLo) || (x == aHi && y == bHi)) {
+            return;
+        }
+        diff(aLo, x, bLo, y);
+        diff(x, aHi, y, bHi);
+    }
+
+    /**
+     * A point on a shortest edit script from (ALO, BLO) to (AHI, BHI)
+     * about halfway along it.
+     * @param aLo int
+     * @param aHi int
+     * @param bLo int
+     * @param bHi int
+     * @return x in the high 32 bits, y in the low 32 bits
+     */
+    private long middle(int aLo, int aHi, int bLo, int bHi) {
+        int n = aHi - aLo;
+        int m = bHi - bLo;
+        int maxD = (n + m + 1) / 2;
+        int offset = maxD;
+        int length = 2 * maxD + 2;
+        int[] forward = new int[length];
+        int[] backward = new int[length];
+        Arrays.fill(forward, -1);
+        Arrays.fill(backward, -1);
+        forward[offset + 1] = 0;
+        backward[offset + 1] = 0;
+        int delta = n - m;
+        boolean odd = (delta & 1) != 0;
+        int kStart = 0;
+        int kEnd = 0;
+        int rStart = 0;
+        int rEnd = 0;
+        for (int d = 0; d < maxD; d += 1) {
+            for (int k = -d + kStart; k <= d - kEnd; k += 2) {
+                int i = offset + k;
+                int x;
+                if (k == -d || (k != d && forward[i - 1] < forward[i + 1])) {
+                    x = forward[i + 1];
+                } else {
+                    x = forward[i - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m && _a[aLo + x] == _b[bLo + y]) {
+                    x += 1;
+                    y += 1;
+                }
+                forward[i] = x;
+                if (x > n) {
+                    kEnd += 2;
+                } else if (y > m) {
+                    kStart += 2;
+                } else if (odd) {
+                    int j = offset + delta - k;
+                    if (j >= 0 && j < length && backward[j] != -1
+                            && x >= n - backward[j]) {
+                        return point(aLo + x, bLo + y);
+                    }
+                }
+            }
+            for (int k = -d + rStart; k <= d - rEnd; k += 2) {
+                int j = offset + k;
+                int x;
+                if (k == -d
+                        || (k != d && backward[j - 1] < backward[j + 1])) {
+                    x = backward[j + 1];
+                } else {
+                    x = backward[j - 1] + 1;
+                }
+                int y = x - k;
+                while (x < n && y < m
+                        && _a[aHi - 1 - x] == _b[bHi - 1 - y]) {
+                    x += 1;
+                    y += 1;
+                }
+                backward[j] = x;
+                if (x > n) {
+                    rEnd += 2;
+                } else if (y > m) {
+                    rStart += 2;
+                } else if (!odd) {
+                    int i = offset + delta - k;
+                    if (i >= 0 && i < length && forward[i] != -1) {
+                        int fx = forward[i];
+                        int fy = fx - (i - offset);
+                        if (fx >= n - x) {
+                            return point(aLo + fx, bLo + fy);
+                        }
+                    }
+                }
+            }
+        }
+        return point(aLo, bLo);
+    }
+
+    /**
+     * Pack point (X, Y).
+     * @param x int
+     * @param y int
+     * @return long
+     */
+    private static long point(int x, int y) {
+        return ((long) x << Integer.SIZE) | (y & 0xffffffffL);
+    }
+
+    /**
+     * Number LINES so that equal lines get equal numbers.
+     * @param lines list
+     * @param ids map of line, number, shared by both sides
+     * @return int[]
+     */
+    private static int[] intern(List<String> lines,
+                                HashMap<String, Integer> ids) {
+        int[] result = new int[lines.size()];
+        for (int i = 0; i < result.length; i += 1) {
+            Integer id = ids.get(lines.get(i));
+            if (id == null) {
+                id = ids.size();
+                ids.put(lines.get(i), id);
+            }
+            result[i] = id;
+        }
+        return result;
+    }
+
+    /** old line ids. */
+    private final int[] _a;
+    /** new line ids. */
+    private final int[] _b;
+    /** for each new line, the old line it matches, or -1. */
+    private final int[] _match;
+}
@@ -0,0 +1,139 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/** Tests of Diff.
+ *  @author Swadhin Nalubola
+ */
+public class DiffTest {
+
+    @Test
+    public void emptyTest() {
+        assertArrayEquals(new int[0], Diff.match(lines(), lines()));
+        assertArrayEquals(new int[] {-1, -1},
+                Diff.match(lines(), lines("a", "b")));
+        assertArrayEquals(new int[0], Diff.match(lines("a", "b"), lines()));
+    }
+
+    @Test
+    public void sameTest() {
+        assertArrayEquals(new int[] {0, 1, 2},
+                Diff.match(lines("a", "b", "c"), lines("a", "b", "c")));
+    }
+
+    @Test
+    public void disjointTest() {
+        assertArrayEquals(new int[] {-1, -1},
+                Diff.match(lines("a", "b"), lines("c", "d")));
+    }
+
+    @Test
+    public void editTest() {
+        assertArrayEquals(new int[] {-1, 0, -1, 2},
+                Diff.match(lines("a", "b", "c"), lines("x", "a", "B", "c")));
+    }
+
+    @Test
+    public void randomTest() {
+        Random random = new Random(SEED);
+        for (int trial = 0; trial < TRIALS; trial += 1) {
+            int alphabet = 1 + random.nextInt(4);
+            List<String> a = randomLines(random, alphabet);
+            List<String> b = randomLines(random, alphabet);
+            int[] match = Diff.match(a, b);
+            assertEquals(b.size(), match.length);
+            int matched = 0;
+            int last = -1;
+            for (int i = 0; i < match.length; i += 1) {
+                if (match[i] < 0) {
+                    continue;
+                }
+                assertTrue("matches must keep their order",
+                        match[i] > last);
+                assertEquals(a.get(match[i]), b.get(i));
+                last = match[i];
+                matched += 1;
+            }
+            assertEquals("a shortest edit script keeps a longest common "
+                    + "subsequence", lcs(a, b), matched);
+        }
+    }
+
+    @Test
+    public void linesTest() {
+        assertEquals(lines(), Diff.lines(bytes("")));
+        assertEquals(lines("a", "b"), Diff.lines(bytes("a\nb\n")));
+        assertEquals(lines("a", "b"), Diff.lines(bytes("a\nb")));
+        assertEquals(lines(""), Diff.lines(bytes("\n")));
+        assertEquals(lines("a", "", "b"), Diff.lines(bytes("a\n\nb\n")));
+    }
+
+    /**
+     * LINES as a list.
+     * @param lines string[]
+     * @return list
+     */
+    private static List<String> lines(String... lines) {
+        return new ArrayList<>(Arrays.asList(lines));
+    }
+
+    /**
+     * TEXT as UTF-8 bytes.
+     * @param text string
+     * @return byte[]
+     */
+    private static byte[] bytes(String text) {
+        return text.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Up to MAX_LINES lines drawn by RANDOM from the first ALPHABET
+     * letters.
+     * @param random random
+     * @param alphabet int
+     * @return list
+     */
+    private static List<String> randomLines(Random random, int alphabet) {
+        int length = random.nextInt(MAX_LINES + 1);
+        List<String> lines = new ArrayList<>(Collections.nCopies(length, ""));
+        for (int i = 0; i < length; i += 1) {
+            lines.set(i, Character.toString((char) ('a'
+                    + random.nextInt(alphabet))));
+        }
+        return lines;
+    }
+
+    /**
+     * Length of a longest common subsequence of A and B, by dynamic
+     * programming.
+     * @param a list
+     * @param b list
+     * @return int
+     */
+    private static int lcs(List<String> a, List<String> b) {
+        int[][] table = new int[a.size() + 1][b.size() + 1];
+        for (int i = a.size() - 1; i >= 0; i -= 1) {
+            for (int j = b.size() - 1; j >= 0; j -= 1) {
+                table[i][j] = a.get(i).equals(b.get(j))
+                    ? table[i + 1][j + 1] + 1
+                    : Math.max(table[i + 1][j], table[i][j + 1]);
+            }
+        }
+        return table[0][0];
+    }
+
+    /** Seed of the random inputs. */
+    private static final long SEED = 61;
+    /** Random diffs checked. */
+    private static final int TRIALS = 5000;
+    /** Most lines in a random input. */
+    private static final int MAX_LINES = 40;
+}
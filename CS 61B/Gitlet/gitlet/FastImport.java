@@ -0,0 +1,710 @@
+package gitlet;
+
+import java.io.BufferedInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TimeZone;
+import java.util.TreeMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+
+/** Command for fast-import, which reads a git fast-export stream on
+ *  standard input and stores its blobs and commits directly.  Blobs are
+ *  written on import.threads threads (by default one per processor)
+ *  while the stream is parsed; commits are written as they are read,
+ *  since later commits start from their parents' snapshots.  Branches
+ *  under refs/heads are updated once all objects are written, at the
+ *  end and at each checkpoint.  Commits without a parent are given the
+ *  repo's initial commit as one, so imported history joins the rest.  If
+ *  the current branch moves, it is checked out as reset would.
+ *  @author Swadhin Nalubola
+ */
+public class FastImport extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, 0, true)) {
+            System.exit(0);
+        }
+        _repo = repo;
+        _objects = repo.objects();
+        _in = new BufferedInputStream(System.in, BUFFER);
+        _marks = new HashMap<>();
+        _tips = new LinkedHashMap<>();
+        _written = new HashSet<>();
+        _pending = new ArrayDeque<>();
+        _memory = new Semaphore(MAX_PENDING_KB);
+        _dates = new HashMap<>();
+        _writers = Executors.newFixedThreadPool(threads(repo), task -> {
+            Thread thread = new Thread(task);
+            thread.setDaemon(true);
+            return thread;
+        });
+        try {
+            parse();
+            checkpoint();
+        } catch (IOException excp) {
+            throw Utils.error("Could not read the import stream.");
+        } finally {
+            _writers.shutdownNow();
+        }
+        System.out.println("Imported " + _commits + " commits and "
+                + _blobs + " blobs (" + _duplicates + " already stored).");
+        if (_droppedParents > 0) {
+            System.out.println("Dropped " + _droppedParents
+                    + " merge parents beyond the second.");
+        }
+        if (_skipped > 0) {
+            System.out.println("Skipped " + _skipped
+                    + " tags and refs outside refs/heads.");
+        }
+        Stage stage = repo.readStage();
+        String head = _tips.get(HEADS + stage.getBranch());
+        if (head != null && !head.equals(stage.getHead())) {
+            new Reset().run(repo, new String[] {head});
+        }
+    }
+
+    /**
+     * Read commands until the stream ends.
+     * @throws IOException on failure
+     */
+    private void parse() throws IOException {
+        for (String line = nextLine(); line != null; line = nextLine()) {
+            if (line.isEmpty() || line.startsWith("#")
+                    || line.startsWith("feature ")
+                    || line.startsWith("option ")) {
+                continue;
+            } else if (line.equals("blob")) {
+                blob();
+            } else if (line.startsWith("commit ")) {
+                commit(line.substring("commit ".length()));
+            } else if (line.startsWith("reset ")) {
+                reset(line.substring("reset ".length()));
+            } else if (line.startsWith("tag ")) {
+                tag();
+            } else if (line.startsWith("progress ")) {
+                System.out.println(line.substring("progress ".length()));
+            } else if (line.equals("checkpoint")) {
+                checkpoint();
+            } else if (line.equals("done")) {
+                return;
+            } else {
+                throw Utils.error("Unsupported fast-import command: %s",
+                        line);
+            }
+        }
+    }
+
+    /**
+     * Read a blob command.
+     * @throws IOException on failure
+     */
+    private void blob() throws IOException {
+        String mark = optional("mark ");
+        optional("original-oid ");
+        String sha = storeBlob(data(nextLine()));
+        if (mark != null) {
+            _marks.put(mark, sha);
+        }
+    }
+
+    /**
+     * Read a commit command for REF and store the commit.
+     * @param ref string
+     * @throws IOException on failure
+     */
+    private void commit(String ref) throws IOException {
+        String mark = optional("mark ");
+        optional("original-oid ");
+        String author = optional("author ");
+        String committer = optional("committer ");
+        if (committer == null) {
+            throw Utils.error("Commit to %s has no committer.", ref);
+        }
+        optional("encoding ");
+        String message = new String(data(nextLine()),
+                StandardCharsets.UTF_8).trim();
+        String from = optional("from ");
+        String parent = from != null ? commitish(from) : tip(ref);
+        String parent2 = null;
+        for (String merge = optional("merge "); merge != null;
+             merge = optional("merge ")) {
+            if (parent2 == null) {
+                parent2 = commitish(merge);
+            } else {
+                _droppedParents += 1;
+            }
+        }
+        TreeMap<String, String> tree = new TreeMap<>();
+        if (parent == null) {
+            parent = initialCommit();
+        } else {
+            tree.putAll(_objects.readCommit(parent).getTrackedBlobs());
+        }
+        fileCommands(tree);
+        String branch = ref.startsWith(HEADS)
+            ? ref.substring(HEADS.length()) : null;
+        CommitObject commit = new CommitObject(message,
+                name(author != null ? author : committer),
+                timestamp(committer), parent, parent2, branch,
+                new HashMap<>(tree));
+        _objects.writeCommit(commit);
+        _commits += 1;
+        _tips.put(ref, commit.getSHA());
+        if (mark != null) {
+            _marks.put(mark, commit.getSHA());
+        }
+    }
+
+    /**
+     * Apply the file commands of a commit to TREE, which is sorted so
+     * that the paths under a directory can be found without a scan.
+     * @param tree map of path, blob sha
+     * @throws IOException on failure
+     */
+    private void fileCommands(TreeMap<String, String> tree)
+        throws IOException {
+        for (String line = nextLine(); line != null; line = nextLine()) {
+            if (line.isEmpty()) {
+                return;
+            } else if (line.startsWith("M ")) {
+                modify(tree, line);
+            } else if (line.startsWith("D ")) {
+                removePath(tree, path(line.substring(2), line));
+            } else if (line.startsWith("C ") || line.startsWith("R ")) {
+                String[] paths = twoPaths(line.substring(2));
+                HashMap<String, String> moved = new HashMap<>();
+                if (tree.containsKey(paths[0])) {
+                    moved.put(paths[1], tree.get(paths[0]));
+                }
+                for (Map.Entry<String, String> entry
+                         : under(tree, paths[0]).entrySet()) {
+                    moved.put(paths[1]
+                            + entry.getKey().substring(paths[0].length()),
+                            entry.getValue());
+                }
+                if (line.charAt(0) == 'R') {
+                    removePath(tree, paths[0]);
+                }
+                removePath(tree, paths[1]);
+                tree.putAll(moved);
+            } else if (line.equals("deleteall")) {
+                tree.clear();
+            } else if (line.startsWith("N ")) {
+                if (line.startsWith("N inline ")) {
+                    data(nextLine());
+                }
+            } else {
+                _peeked = line;
+                return;
+            }
+        }
+    }
+
+    /**
+     * Apply the filemodify command LINE to TREE.
+     * @param tree map of path, blob sha
+     * @param line string
+     * @throws IOException on failure
+     */
+    private void modify(TreeMap<String, String> tree, String line)
+        throws IOException {
+        String[] parts = line.split(" ", 4);
+        if (parts.length < 4) {
+            throw Utils.error("Bad file command: %s", line);
+        }
+        String mode = parts[1];
+        String path = path(parts[3], line);
+        String sha;
+        if (parts[2].equals("inline")) {
+            sha = storeBlob(data(nextLine()));
+        } else if (parts[2].startsWith(":")) {
+            sha = _marks.get(parts[2]);
+        } else {
+            sha = _written.contains(parts[2]) || _objects.hasBlob(parts[2])
+                ? parts[2] : null;
+        }
+        if (mode.equals(GITLINK_MODE)) {
+            return;
+        } else if (mode.equals(TREE_MODE) || mode.equals("40000")) {
+            throw Utils.error("Tree entries are not supported: %s", line);
+        } else if (sha == null) {
+            throw Utils.error("Unknown blob %s.", parts[2]);
+        }
+        removePath(tree, path);
+        tree.put(path, sha);
+    }
+
+    /**
+     * Read a reset command for REF.
+     * @param ref string
+     * @throws IOException on failure
+     */
+    private void reset(String ref) throws IOException {
+        String from = optional("from ");
+        _tips.put(ref, from == null ? null : commitish(from));
+    }
+
+    /**
+     * Read and skip an annotated tag.
+     * @throws IOException on failure
+     */
+    private void tag() throws IOException {
+        optional("mark ");
+        optional("from ");
+        optional("original-oid ");
+        optional("tagger ");
+        data(nextLine());
+        _skipped += 1;
+    }
+
+    /**
+     * Wait for every object to be written, then update the branches,
+     * none of them if one is checked out in another worktree.  The
+     * current branch is left for run to check out.
+     */
+    private void checkpoint() {
+        while (!_pending.isEmpty()) {
+            finish(_pending.remove());
+        }
+        String current = HEADS + _repo.readStage().getBranch();
+        for (Map.Entry<String, String> entry : _tips.entrySet()) {
+            String ref = entry.getKey();
+            if (ref.startsWith(HEADS) && entry.getValue() != null
+                    && !ref.equals(current)) {
+                String other = _repo.otherWorktree(
+                        ref.substring(HEADS.length()));
+                if (other != null) {
+                    throw Utils.error("Branch %s is checked out in %s.",
+                            ref.substring(HEADS.length()), other);
+                }
+            }
+        }
+        for (Map.Entry<String, String> entry : _tips.entrySet()) {
+            String ref = entry.getKey();
+            if (!ref.startsWith(HEADS)) {
+                if (!_skippedRefs.contains(ref)) {
+                    _skippedRefs.add(ref);
+                    _skipped += 1;
+                }
+            } else if (entry.getValue() != null && !ref.equals(current)) {
+                _repo.refs().set(ref.substring(HEADS.length()),
+                        entry.getValue());
+            }
+        }
+    }
+
+    /**
+     * Store CONTENTS as a blob unless it is already stored, writing it on
+     * another thread.
+     * @param contents byte[]
+     * @return blob sha
+     */
+    private String storeBlob(byte[] contents) {
+        String sha = Utils.sha1((Object) contents);
+        if (!_written.add(sha) || _objects.hasBlob(sha)) {
+            _duplicates += 1;
+            return sha;
+        }
+        int permits = Math.min(MAX_PENDING_KB,
+                Math.max(1, contents.length >> KB_SHIFT));
+        _memory.acquireUninterruptibly(permits);
+        _pending.add(_writers.submit(() -> {
+            try {
+                _objects.writeBlob(new Blob(sha, contents));
+            } finally {
+                _memory.release(permits);
+            }
+        }));
+        while (_pending.size() > MAX_PENDING_WRITES) {
+            finish(_pending.remove());
+        }
+        _blobs += 1;
+        return sha;
+    }
+
+    /**
+     * Wait for the write WRITE, passing on its failure.
+     * @param write future
+     */
+    private static void finish(Future<?> write) {
+        try {
+            write.get();
+        } catch (InterruptedException excp) {
+            throw Utils.error("fast-import was interrupted.");
+        } catch (ExecutionException excp) {
+            if (excp.getCause() instanceof GitletException) {
+                throw (GitletException) excp.getCause();
+            }
+            throw Utils.error("Could not write a blob.");
+        }
+    }
+
+    /**
+     * The commit named by REF: a mark, a ref imported or stored, or a
+     * stored commit id.
+     * @param ref string
+     * @return commit sha
+     */
+    private String commitish(String ref) {
+        String sha = ref.startsWith(":") ? _marks.get(ref) : tip(ref);
+        if (sha == null) {
+            sha = _objects.resolveCommit(ref);
+        }
+        if (sha == null) {
+            throw Utils.error("Unknown commit %s.", ref);
+        }
+        return sha;
+    }
+
+    /**
+     * The latest commit on REF, from this import or the repo.
+     * @param ref string
+     * @return commit sha, or null if REF has none
+     */
+    private String tip(String ref) {
+        if (_tips.containsKey(ref)) {
+            return _tips.get(ref);
+        }
+        String name = ref.startsWith(HEADS)
+            ? ref.substring(HEADS.length()) : ref;
+        return _repo.refs().get(name);
+    }
+
+    /**
+     * The repo's initial commit, parent of imported root commits.
+     * @return commit sha
+     */
+    private String initialCommit() {
+        if (_initial == null) {
+            String sha = _repo.readStage().getHead();
+            for (String parent = sha; parent != null;
+                 parent = _objects.readCommit(parent).getParentSHA()) {
+                sha = parent;
+            }
+            _initial = sha;
+        }
+        return _initial;
+    }
+
+    /**
+     * The name in IDENT, a "Name <email> when tz" line.
+     * @param ident string
+     * @return string
+     */
+    private static String name(String ident) {
+        int email = ident.indexOf(" <");
+        return email < 0 ? ident : ident.substring(0, email);
+    }
+
+    /**
+     * The time in IDENT, a "Name <email> when tz" line, formatted as
+     * commit formats its own timestamps.
+     * @param ident string
+     * @return string
+     */
+    private String timestamp(String ident) {
+        String[] when = ident.substring(ident.lastIndexOf('>') + 1).trim()
+            .split(" ");
+        try {
+            long seconds = Long.parseLong(when[0]);
+            String zone = when.length > 1 ? when[1] : "+0000";
+            SimpleDateFormat format = _dates.get(zone);
+            if (format == null) {
+                format = CommitObject.timestampFormat();
+                format.setTimeZone(TimeZone.getTimeZone("GMT" + zone));
+                _dates.put(zone, format);
+            }
+            return format.format(new Date(seconds * 1000));
+        } catch (NumberFormatException excp) {
+            throw Utils.error("Bad date in %s.", ident);
+        }
+    }
+
+    /**
+     * Remove PATH, and everything under it if it is a directory, from
+     * TREE.
+     * @param tree map of path, blob sha
+     * @param path string
+     */
+    private static void removePath(TreeMap<String, String> tree,
+                                   String path) {
+        tree.remove(path);
+        under(tree, path).clear();
+    }
+
+    /**
+     * The entries of TREE under the directory DIR, as a view of TREE.
+     * They sort between DIR/ and DIR0, '0' being the character after '/'.
+     * @param tree map of path, blob sha
+     * @param dir string
+     * @return sorted map
+     */
+    private static SortedMap<String, String> under(
+            TreeMap<String, String> tree, String dir) {
+        return tree.subMap(dir + "/", dir + "0");
+    }
+
+    /**
+     * The path QUOTED, unquoted and checked to be a valid snapshot entry
+     * (see CommitObject.validPath).
+     * @param quoted string
+     * @param line the file command, for errors
+     * @return string
+     */
+    private static String path(String quoted, String line) {
+        String path = unquote(quoted);
+        if (!CommitObject.validPath(path)) {
+            throw Utils.error("Bad path in file command: %s", line);
+        }
+        return path;
+    }
+
+    /**
+     * Split the operands of a copy or rename into source and destination.
+     * @param operands string
+     * @return string[2]
+     */
+    private static String[] twoPaths(String operands) {
+        int split;
+        if (operands.startsWith("\"")) {
+            split = 1;
+            while (split < operands.length()
+                    && operands.charAt(split) != '"') {
+                split += operands.charAt(split) == '\\' ? 2 : 1;
+            }
+            split += 1;
+        } else {
+            split = operands.indexOf(' ');
+        }
+        if (split < 0 || split >= operands.length()) {
+            throw Utils.error("Bad file command: %s", operands);
+        }
+        return new String[] {path(operands.substring(0, split), operands),
+                             path(operands.substring(split + 1), operands)};
+    }
+
+    /**
+     * PATH with C-style quoting removed, if it is quoted.
+     * @param path string
+     * @return string
+     */
+    private static String unquote(String path) {
+        if (!path.startsWith("\"") || !path.endsWith("\"")
+                || path.length() < 2) {
+            return path;
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        byte[] raw = path.substring(1, path.length() - 1)
+            .getBytes(StandardCharsets.UTF_8);
+        for (int i = 0; i < raw.length; i += 1) {
+            if (raw[i] != '\\' || i + 1 == raw.length) {
+                bytes.write(raw[i]);
+                continue;
+            }
+            i += 1;
+            switch (raw[i]) {
+            case 'n':
+                bytes.write('\n');
+                break;
+            case 't':
+                bytes.write('\t');
+                break;
+            case '0': case '1': case '2': case '3':
+                int value = 0;
+                for (int j = 0; j < 3 && i < raw.length
+                         && raw[i] >= '0' && raw[i] <= '7'; j += 1) {
+                    value = value * 8 + raw[i] - '0';
+                    i += 1;
+                }
+                i -= 1;
+                bytes.write(value);
+                break;
+            default:
+                bytes.write(raw[i]);
+            }
+        }
+        return new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * If the next line starts with PREFIX, consume it.
+     * @param prefix string
+     * @return the rest of the line, or null if it did not match
+     * @throws IOException on failure
+     */
+    private String optional(String prefix) throws IOException {
+        String line = nextLine();
+        if (line != null && line.startsWith(prefix)) {
+            return line.substring(prefix.length());
+        }
+        _peeked = line;
+        return null;
+    }
+
+    /**
+     * Read the data whose header is LINE.
+     * @param line string
+     * @return byte[]
+     * @throws IOException on failure
+     */
+    private byte[] data(String line) throws IOException {
+        if (line == null || !line.startsWith("data ")) {
+            throw Utils.error("Expected data, got %s", line);
+        }
+        String size = line.substring("data ".length());
+        if (size.startsWith("<<")) {
+            String delimiter = size.substring(2);
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            for (String next = nextLine(); !delimiter.equals(next);
+                 next = nextLine()) {
+                if (next == null) {
+                    throw Utils.error("Data ends early.");
+                }
+                bytes.write(next.getBytes(StandardCharsets.UTF_8));
+                bytes.write('\n');
+            }
+            return bytes.toByteArray();
+        }
+        int length;
+        try {
+            length = Integer.parseInt(size);
+        } catch (NumberFormatException excp) {
+            throw Utils.error("Bad data length %s.", size);
+        }
+        byte[] contents = readFully(_in, length);
+        _in.mark(1);
+        if (_in.read() != '\n') {
+            _in.reset();
+        }
+        return contents;
+    }
+
+    /**
+     * Read exactly LENGTH bytes from IN.
+     * @param in inputstream
+     * @param length int
+     * @return byte[]
+     * @throws IOException on failure
+     */
+    private static byte[] readFully(InputStream in, int length)
+        throws IOException {
+        byte[] contents = new byte[length];
+        int read = 0;
+        while (read < length) {
+            int n = in.read(contents, read, length - read);
+            if (n < 0) {
+                throw Utils.error("Data ends early.");
+            }
+            read += n;
+        }
+        return contents;
+    }
+
+    /**
+     * The next line of the stream, without its newline.
+     * @return string, or null at the end
+     * @throws IOException on failure
+     */
+    private String nextLine() throws IOException {
+        if (_peeked != null) {
+            String line = _peeked;
+            _peeked = null;
+            return line;
+        }
+        _line.reset();
+        int b = _in.read();
+        if (b < 0) {
+            return null;
+        }
+        while (b >= 0 && b != '\n') {
+            _line.write(b);
+            b = _in.read();
+        }
+        return new String(_line.toByteArray(), StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Number of threads to write blobs on.
+     * @param repo repo
+     * @return int
+     */
+    private static int threads(Repo repo) {
+        String threads = repo.config().get("import.threads",
+                Integer.toString(Runtime.getRuntime().availableProcessors()));
+        try {
+            return Math.max(1, Integer.parseInt(threads));
+        } catch (NumberFormatException excp) {
+            throw Utils.error("Bad import.threads %s.", threads);
+        }
+    }
+
+    /** Prefix of branch refs. */
+    private static final String HEADS = "refs/heads/";
+    /** Mode of submodule entries, which are left out. */
+    private static final String GITLINK_MODE = "160000";
+    /** Mode of tree entries. */
+    private static final String TREE_MODE = "040000";
+    /** Bytes of input buffering. */
+    private static final int BUFFER = 1 << 16;
+    /** Most KiB of blob contents waiting to be written. */
+    private static final int MAX_PENDING_KB = 1 << 16;
+    /** Bits to shift a byte count by to get KiB. */
+    private static final int KB_SHIFT = 10;
+    /** Most blob writes waiting to be checked. */
+    private static final int MAX_PENDING_WRITES = 4096;
+
+    /** the repo. */
+    private Repo _repo;
+    /** its objects. */
+    private ObjectDatabase _objects;
+    /** the stream. */
+    private InputStream _in;
+    /** a line pushed back by a reader that did not want it. */
+    private String _peeked;
+    /** buffer for reading lines. */
+    private final ByteArrayOutputStream _line = new ByteArrayOutputStream();
+    /** object sha of each mark. */
+    private HashMap<String, String> _marks;
+    /** latest commit on each ref, or null after a reset to nothing. */
+    private LinkedHashMap<String, String> _tips;
+    /** blobs stored by this import. */
+    private HashSet<String> _written;
+    /** blob writes not yet checked. */
+    private ArrayDeque<Future<?>> _pending;
+    /** KiB of blob contents that may still be queued for writing. */
+    private Semaphore _memory;
+    /** timestamp formats by time zone. */
+    private HashMap<String, SimpleDateFormat> _dates;
+    /** threads writing blobs. */
+    private ExecutorService _writers;
+    /** refs counted as skipped. */
+    private final ArrayList<String> _skippedRefs = new ArrayList<>();
+    /** the repo's initial commit, once found. */
+    private String _initial;
+    /** commits imported. */
+    private long _commits;
+    /** blobs written. */
+    private long _blobs;
+    /** blobs that were already stored. */
+    private long _duplicates;
+    /** merge parents dropped. */
+    private long _droppedParents;
+    /** tags and refs not imported. */
+    private long _skipped;
+}
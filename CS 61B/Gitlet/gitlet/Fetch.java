@@ -0,0 +1,48 @@
+package gitlet;
+
+/** Command for fetch, which copies a remote branch into the local
+ *  branch REMOTE/BRANCH, unless a worktree has that branch checked out.
+ *  @author Swadhin Nalubola
+ */
+public class Fetch extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, 2, true)) {
+            System.exit(0);
+        }
+        fetch(repo, args[0], args[1]);
+    }
+
+    /**
+     * Fetch BRANCH of remote REMOTENAME.
+     * @param repo repo
+     * @param remoteName string
+     * @param branch string
+     * @return name of the local branch that was updated
+     */
+    public String fetch(Repo repo, String remoteName, String branch) {
+        Repo remote = Transport.openRemote(repo, remoteName);
+        if (remote == null) {
+            System.out.println("Remote directory not found.");
+            System.exit(0);
+        }
+        String remoteHead = remote.refs().get(branch);
+        if (remoteHead == null) {
+            System.out.println("That remote does not have that branch.");
+            System.exit(0);
+        }
+        String localBranch = remoteName + "/" + branch;
+        String checkedOut = repo.checkedOut(localBranch);
+        if (checkedOut != null) {
+            System.out.println("Branch " + localBranch
+                    + " is checked out in " + checkedOut + ".");
+            System.exit(0);
+        }
+
+        Transport.transfer(remote, repo,
+                Transport.negotiate(remote, repo, remoteHead));
+        repo.refs().set(localBranch, remoteHead);
+        return localBranch;
+    }
+}
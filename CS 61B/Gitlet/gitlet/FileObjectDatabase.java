@@ -0,0 +1,217 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+
+/** The object database of a repository on disk: one file per object in
+ *  .gitlet/commit and .gitlet/blobs, encoded by ObjectCodec and searched
+ *  here and then in each alternate.  Decoded objects are kept in an
+ *  ObjectCache whose limit in bytes is the cache.size setting; with
+ *  cache.stats=true its counters are printed to standard error when the
+ *  process exits.
+ *  @author Swadhin Nalubola
+ */
+public class FileObjectDatabase implements ObjectDatabase {
+
+    /**
+     * Initialize the object database of REPO.
+     * @param repo repo
+     */
+    public FileObjectDatabase(Repo repo) {
+        _repo = repo;
+        String size = repo.config().get("cache.size",
+                Long.toString(DEFAULT_CACHE_SIZE));
+        try {
+            _cache = new ObjectCache(Long.parseLong(size));
+        } catch (NumberFormatException excp) {
+            throw Utils.error("Bad cache.size %s.", size);
+        }
+        if (Boolean.parseBoolean(repo.config().get("cache.stats", "false"))) {
+            Runtime.getRuntime().addShutdownHook(new Thread(() ->
+                System.err.println(_cache.stats())));
+        }
+    }
+
+    @Override
+    public boolean hasCommit(String sha) {
+        return _cache.contains(COMMIT + sha)
+            || _repo.findCommitFile(sha) != null;
+    }
+
+    @Override
+    public boolean hasBlob(String sha) {
+        return _cache.contains(BLOB + sha) || _repo.findBlobFile(sha) != null;
+    }
+
+    @Override
+    public CommitObject readCommit(String sha) {
+        if (sha == null) {
+            return null;
+        }
+        CommitObject commit = (CommitObject) _cache.get(COMMIT + sha);
+        if (commit == null) {
+            File file = _repo.findCommitFile(sha);
+            if (file == null) {
+                return null;
+            }
+            commit = ObjectCodec.decodeCommit(read(file));
+            _cache.put(COMMIT + sha, commit, weigh(commit));
+        }
+        return commit;
+    }
+
+    @Override
+    public Blob readBlob(String sha) {
+        Blob blob = (Blob) _cache.get(BLOB + sha);
+        if (blob == null) {
+            File file = _repo.findBlobFile(sha);
+            if (file == null) {
+                throw Utils.error("Missing blob %s.", sha);
+            }
+            blob = ObjectCodec.decodeBlob(read(file));
+            _cache.put(BLOB + sha, blob, weigh(blob));
+        }
+        return blob;
+    }
+
+    @Override
+    public ByteBuffer readBlobContents(String sha) {
+        Blob blob = (Blob) _cache.get(BLOB + sha);
+        if (blob != null) {
+            return ByteBuffer.wrap(blob.getContents()).asReadOnlyBuffer();
+        }
+        File file = _repo.findBlobFile(sha);
+        if (file == null) {
+            throw Utils.error("Missing blob %s.", sha);
+        }
+        return ObjectCodec.blobContents(read(file));
+    }
+
+    @Override
+    public void writeCommit(CommitObject commit) {
+        Repo.store(_repo.commitFile(commit.getSHA()),
+                ObjectCodec.encode(commit));
+        _cache.put(COMMIT + commit.getSHA(), commit, weigh(commit));
+    }
+
+    @Override
+    public void writeBlob(Blob blob) {
+        Repo.store(_repo.blobFile(blob.getSHA1()), ObjectCodec.encode(blob));
+        _cache.put(BLOB + blob.getSHA1(), blob, weigh(blob));
+    }
+
+    @Override
+    public List<String> commitIds() {
+        LinkedHashSet<String> ids = new LinkedHashSet<>();
+        for (Repo store : _repo.objectStores()) {
+            String[] stored = new File(store.commitPath()).list();
+            if (stored == null) {
+                continue;
+            }
+            for (String name : stored) {
+                if (name.endsWith(SUFFIX)) {
+                    ids.add(name.substring(0,
+                            name.length() - SUFFIX.length()));
+                }
+            }
+        }
+        return new ArrayList<>(ids);
+    }
+
+    @Override
+    public String resolveCommit(String prefix) {
+        if (hasCommit(prefix)) {
+            return prefix;
+        }
+        if (prefix.isEmpty()) {
+            return null;
+        }
+        String found = null;
+        for (String id : commitIds()) {
+            if (id.startsWith(prefix)) {
+                if (found != null) {
+                    return null;
+                }
+                found = id;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * The stored bytes of FILE.  Large files are mapped rather than read.
+     * @param file file
+     * @return bytebuffer
+     */
+    static ByteBuffer read(File file) {
+        try (FileChannel channel = FileChannel.open(file.toPath(),
+                StandardOpenOption.READ)) {
+            long size = channel.size();
+            Trace.count(Trace.FILES_READ, 1);
+            Trace.count(Trace.BYTES_READ, size);
+            if (size > MAP_THRESHOLD) {
+                return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+            }
+            ByteBuffer buf = ByteBuffer.allocate((int) size);
+            while (buf.hasRemaining() && channel.read(buf) >= 0) {
+                continue;
+            }
+            buf.flip();
+            return buf;
+        } catch (IOException excp) {
+            throw Utils.error("Could not read %s.", file.getName());
+        }
+    }
+
+    /**
+     * Estimated bytes held by a decoded commit.
+     * @param commit commitobject
+     * @return long
+     */
+    private static long weigh(CommitObject commit) {
+        long bytes = OBJECT_BYTES + 2L * (commit.getLogMessage().length()
+                + commit.getTimeStamp().length());
+        for (Map.Entry<String, String> entry
+                 : commit.getTrackedBlobs().entrySet()) {
+            bytes += ENTRY_BYTES + 2L * (entry.getKey().length()
+                    + entry.getValue().length());
+        }
+        return bytes;
+    }
+
+    /**
+     * Estimated bytes held by a decoded blob.
+     * @param blob blob
+     * @return long
+     */
+    private static long weigh(Blob blob) {
+        return OBJECT_BYTES + blob.getContents().length;
+    }
+
+    /** Cache key prefix of commits. */
+    private static final String COMMIT = "c";
+    /** Cache key prefix of blobs. */
+    private static final String BLOB = "b";
+    /** Suffix of stored object files. */
+    private static final String SUFFIX = ".ser";
+    /** Default cache limit in bytes. */
+    private static final long DEFAULT_CACHE_SIZE = 16L << 20;
+    /** Files larger than this many bytes are mapped. */
+    private static final long MAP_THRESHOLD = 1L << 20;
+    /** Rough bytes of an object apart from its contents. */
+    private static final long OBJECT_BYTES = 256;
+    /** Rough bytes of a map entry apart from its strings. */
+    private static final long ENTRY_BYTES = 96;
+
+    /** the repo. */
+    private final Repo _repo;
+    /** decoded objects. */
+    private final ObjectCache _cache;
+}
@@ -1,6 +1,6 @@
 package gitlet;
 
-import java.io.File;
+import java.util.List;
 
 /** Command for find.
  *  @author Swadhin Nalubola
@@ -14,10 +14,10 @@ public class Find extends Command {
         }
 
         String message = args[0];
-        File[] commits = new File(repo.commitPath()).listFiles();
+        List<String> commits = repo.objects().commitIds();
         int found = 0;
-        for (File commit : commits) {
-            CommitObject current = Utils.readObject(commit, CommitObject.class);
+        for (String commit : commits) {
+            CommitObject current = repo.objects().readCommit(commit);
             if (current.getLogMessage().equals(message)) {
                 System.out.println(current.getSHA());
                 found += 1;
@@ -28,4 +28,9 @@ public class Find extends Command {
             System.out.println("Found no commit with that message.");
         }
     }
+
+    @Override
+    public boolean writes() {
+        return false;
+    }
 }
@@ -0,0 +1,258 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/** Command for fsck, which re-hashes every commit and blob, checks that
+ *  every parent and snapshot entry names a stored object and that every
+ *  snapshot path stays inside the working directory, and checks the
+ *  branch heads and the stage.  Objects are checked on fsck.threads
+ *  threads, by default one per processor.
+ *  @author Swadhin Nalubola
+ */
+public class Fsck extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, 0, true)) {
+            System.exit(0);
+        }
+        _commits = storedFiles(repo, true);
+        _blobs = storedFiles(repo, false);
+        _commitFiles = new ArrayList<>(_commits.values());
+        _blobFiles = new ArrayList<>(_blobs.values());
+        _problems = new ConcurrentLinkedQueue<>();
+        _legacy = new AtomicInteger();
+        _next = new AtomicInteger();
+
+        int threads = threads(repo);
+        ArrayList<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < threads; i += 1) {
+            Thread worker = new Thread(this::work);
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException excp) {
+                throw Utils.error("fsck was interrupted.");
+            }
+        }
+        checkRefs(repo);
+
+        ArrayList<String> problems = new ArrayList<>(_problems);
+        Collections.sort(problems);
+        for (String problem : problems) {
+            System.out.println(problem);
+        }
+        System.out.println("Checked " + _commits.size() + " commits and "
+                + _blobs.size() + " blobs; " + problems.size()
+                + " problems.");
+        if (_legacy.get() > 0) {
+            System.out.println(_legacy.get() + " commits have ids from "
+                    + "before commits were content addressed.");
+        }
+    }
+
+    @Override
+    public boolean writes() {
+        return false;
+    }
+
+    /**
+     * Check objects until none are left.
+     */
+    private void work() {
+        int total = _commitFiles.size() + _blobFiles.size();
+        for (int i = _next.getAndIncrement(); i < total;
+             i = _next.getAndIncrement()) {
+            if (i < _commitFiles.size()) {
+                checkCommit(_commitFiles.get(i));
+            } else {
+                checkBlob(_blobFiles.get(i - _commitFiles.size()));
+            }
+        }
+    }
+
+    /**
+     * Re-hash the commit stored in FILE and check what it names.
+     * @param file file
+     */
+    private void checkCommit(File file) {
+        String id = idOf(file);
+        CommitObject commit;
+        try {
+            commit = ObjectCodec.decodeCommit(FileObjectDatabase.read(file));
+        } catch (GitletException excp) {
+            _problems.add("corrupt commit " + id);
+            return;
+        }
+        if (!id.equals(commit.getSHA())) {
+            _problems.add("commit " + id + " is stored as "
+                    + commit.getSHA());
+        } else if (!id.equals(ObjectCodec.commitId(commit))) {
+            if (id.equals(ObjectCodec.legacyCommitId(commit))) {
+                _legacy.incrementAndGet();
+            } else {
+                _problems.add("hash mismatch in commit " + id);
+            }
+        }
+        checkCommitLink(id, "parent", commit.getParentSHA());
+        checkCommitLink(id, "second parent", commit.getParent2SHA());
+        for (Map.Entry<String, String> entry
+                 : commit.getTrackedBlobs().entrySet()) {
+            if (!CommitObject.validPath(entry.getKey())) {
+                _problems.add("bad path " + entry.getKey() + " in commit "
+                        + id);
+            }
+            if (!_blobs.containsKey(entry.getValue())) {
+                _problems.add("missing blob " + entry.getValue() + " ("
+                        + entry.getKey() + ") in commit " + id);
+            }
+        }
+    }
+
+    /**
+     * Check that commit ID's link called WHAT names a stored commit.
+     * @param id string
+     * @param what string
+     * @param sha string, or null if there is no link
+     */
+    private void checkCommitLink(String id, String what, String sha) {
+        if (sha != null && !_commits.containsKey(sha)) {
+            _problems.add("missing " + what + " " + sha + " of commit "
+                    + id);
+        }
+    }
+
+    /**
+     * Re-hash the blob stored in FILE.
+     * @param file file
+     */
+    private void checkBlob(File file) {
+        String id = idOf(file);
+        Blob blob;
+        try {
+            blob = ObjectCodec.decodeBlob(FileObjectDatabase.read(file));
+        } catch (GitletException excp) {
+            _problems.add("corrupt blob " + id);
+            return;
+        }
+        if (!id.equals(blob.getSHA1())) {
+            _problems.add("blob " + id + " is stored as " + blob.getSHA1());
+        } else if (!id.equals(Utils.sha1((Object) blob.getContents()))) {
+            _problems.add("hash mismatch in blob " + id);
+        }
+    }
+
+    /**
+     * Check that the branch heads, stash entries and the stage name
+     * stored objects.
+     * @param repo repo
+     */
+    private void checkRefs(Repo repo) {
+        for (Iterator<String> names = repo.refs().names("");
+             names.hasNext();) {
+            String name = names.next();
+            String sha = repo.refs().get(name);
+            if (sha == null || !_commits.containsKey(sha)) {
+                _problems.add("branch " + name + " points to missing "
+                        + "commit " + sha);
+            }
+        }
+        for (String sha : Stash.entries(repo)) {
+            if (!_commits.containsKey(sha)) {
+                _problems.add("stash entry points to missing commit " + sha);
+            }
+        }
+        Stage stage = repo.readStage();
+        if (stage.getHead() != null && !_commits.containsKey(stage.getHead())) {
+            _problems.add("head points to missing commit "
+                    + stage.getHead());
+        }
+        ArrayList<String> staged = new ArrayList<>();
+        staged.addAll(stage.getTracked().values());
+        staged.addAll(stage.getStaged().values());
+        for (String sha : staged) {
+            if (!_blobs.containsKey(sha)) {
+                _problems.add("stage names missing blob " + sha);
+            }
+        }
+    }
+
+    /**
+     * Stored files of every commit, or every blob, here and in
+     * alternates, by id.
+     * @param repo repo
+     * @param commits boolean, false for blobs
+     * @return map of id, file
+     */
+    private static Map<String, File> storedFiles(Repo repo,
+                                                 boolean commits) {
+        LinkedHashMap<String, File> files = new LinkedHashMap<>();
+        for (Repo store : repo.objectStores()) {
+            String dir = commits ? store.commitPath() : store.blobPath();
+            File[] stored = new File(dir).listFiles();
+            if (stored == null) {
+                continue;
+            }
+            for (File file : stored) {
+                if (file.getName().endsWith(SUFFIX)) {
+                    files.putIfAbsent(idOf(file), file);
+                }
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Id of the object stored in FILE.
+     * @param file file
+     * @return string
+     */
+    private static String idOf(File file) {
+        String name = file.getName();
+        return name.substring(0, name.length() - SUFFIX.length());
+    }
+
+    /**
+     * Number of threads to check objects on.
+     * @param repo repo
+     * @return int
+     */
+    private static int threads(Repo repo) {
+        String threads = repo.config().get("fsck.threads", Integer.toString(
+                Runtime.getRuntime().availableProcessors()));
+        try {
+            return Math.max(1, Integer.parseInt(threads));
+        } catch (NumberFormatException excp) {
+            throw Utils.error("Bad fsck.threads %s.", threads);
+        }
+    }
+
+    /** Suffix of stored object files. */
+    private static final String SUFFIX = ".ser";
+
+    /** stored commits by id. */
+    private Map<String, File> _commits;
+    /** stored blobs by id. */
+    private Map<String, File> _blobs;
+    /** stored commit files, in the order they are handed out. */
+    private List<File> _commitFiles;
+    /** stored blob files, in the order they are handed out. */
+    private List<File> _blobFiles;
+    /** problems found. */
+    private ConcurrentLinkedQueue<String> _problems;
+    /** commits whose ids predate content addressing. */
+    private AtomicInteger _legacy;
+    /** index of the next object to check. */
+    private AtomicInteger _next;
+}
@@ -1,6 +1,6 @@
 package gitlet;
 
-import java.io.File;
+import java.util.List;
 
 /** Command for global log.
  *  @author Swadhin Nalubola
@@ -13,9 +13,9 @@ public class GlobalLog extends Command {
             System.exit(0);
         }
 
-        File[] commits = new File(repo.commitPath()).listFiles();
-        for (File commit : commits) {
-            CommitObject current = Utils.readObject(commit, CommitObject.class);
+        List<String> commits = repo.objects().commitIds();
+        for (String commit : commits) {
+            CommitObject current = repo.objects().readCommit(commit);
             System.out.println("===");
             System.out.println("commit " + current.getSHA());
             if (current.getParent2SHA() != null) {
@@ -28,4 +28,9 @@ public class GlobalLog extends Command {
             System.out.println();
         }
     }
+
+    @Override
+    public boolean writes() {
+        return false;
+    }
 }
@@ -0,0 +1,323 @@
+package gitlet;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.regex.Pattern;
+
+/** The patterns of a .gitletignore file, compiled for fast matching.
+ *  Patterns follow .gitignore: one per line, # starts a comment, ! makes
+ *  a pattern re-include what an earlier one ignored, a trailing / matches
+ *  only directories, and a pattern with a / anywhere else is relative to
+ *  the working directory rather than matched against names at any depth.
+ *  *, ?, [...] and ** are globs.  The last matching pattern wins, and
+ *  everything under an ignored directory is ignored.
+ *  Patterns without globs are looked up, not scanned: relative ones in a
+ *  trie over path segments, the rest in a table of names.  Globs like
+ *  *.o become suffix tests and the others regular expressions, compiled
+ *  once; only the ones later than the best lookup hit are tried.
+ *  @author Swadhin Nalubola
+ */
+public class IgnoreRules {
+
+    /**
+     * The rules in DIR/.gitletignore, or no rules if there is no such
+     * file.
+     * @param dir file
+     * @return ignorerules
+     */
+    public static IgnoreRules load(File dir) {
+        File file = new File(dir, FILE_NAME);
+        if (!file.isFile()) {
+            return new IgnoreRules(new String[0]);
+        }
+        String text = new String(Utils.readContents(file),
+                StandardCharsets.UTF_8);
+        return new IgnoreRules(text.split("\r?\n"));
+    }
+
+    /**
+     * Compile the patterns in LINES.
+     * @param lines string[]
+     */
+    public IgnoreRules(String[] lines) {
+        _root = new Node();
+        _names = new HashMap<>();
+        _globs = new ArrayList<>();
+        int index = 0;
+        for (String line : lines) {
+            if (add(line.trim(), index)) {
+                index += 1;
+            }
+        }
+        _count = index;
+    }
+
+    /**
+     * Is anything ignored at all.
+     * @return boolean
+     */
+    public boolean isEmpty() {
+        return _count == 0;
+    }
+
+    /**
+     * Is PATH, or a directory it is in, ignored.
+     * @param path string, / separated and relative to the working
+     *             directory
+     * @param isDirectory boolean
+     * @return boolean
+     */
+    public boolean ignored(String path, boolean isDirectory) {
+        if (_count == 0) {
+            return false;
+        }
+        for (int slash = path.indexOf('/'); slash >= 0;
+             slash = path.indexOf('/', slash + 1)) {
+            if (matches(path.substring(0, slash), true)) {
+                return true;
+            }
+        }
+        return matches(path, isDirectory);
+    }
+
+    /**
+     * Could anything under directory DIR be matched: DIR itself is, or a
+     * pattern names something inside it, or a name or glob pattern could
+     * match at any depth.
+     * @param dir string, / separated and relative to the working
+     *            directory
+     * @return boolean
+     */
+    public boolean mayContain(String dir) {
+        if (!_names.isEmpty() || !_globs.isEmpty() || ignored(dir, true)) {
+            return true;
+        }
+        Node node = _root;
+        for (String segment : dir.split("/")) {
+            node = node._children.get(segment);
+            if (node == null) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Is PATH ignored by its own name, assuming the directories it is in
+     * are not.  Walks that stop at ignored directories need only this.
+     * @param path string, / separated and relative to the working
+     *             directory
+     * @param isDirectory boolean
+     * @return boolean
+     */
+    public boolean matches(String path, boolean isDirectory) {
+        if (_count == 0) {
+            return false;
+        }
+        Rule best = null;
+        Node node = _root;
+        int start = 0;
+        while (node != null && start <= path.length()) {
+            int end = path.indexOf('/', start);
+            if (end < 0) {
+                end = path.length();
+            }
+            node = node._children.get(path.substring(start, end));
+            start = end + 1;
+        }
+        if (node != null) {
+            best = later(best, node._rules, isDirectory);
+        }
+        String name = path.substring(path.lastIndexOf('/') + 1);
+        best = later(best, _names.get(name), isDirectory);
+        for (int i = _globs.size() - 1; i >= 0; i -= 1) {
+            Rule rule = _globs.get(i);
+            if (best != null && rule._index < best._index) {
+                break;
+            }
+            if ((isDirectory || !rule._directoryOnly)
+                    && (rule._suffix != null ? name.endsWith(rule._suffix)
+                        : rule._glob.matcher(rule._anchored ? path : name)
+                        .matches())) {
+                best = rule;
+                break;
+            }
+        }
+        return best != null && !best._negated;
+    }
+
+    /**
+     * Compile the pattern LINE as rule number INDEX.
+     * @param line string
+     * @param index int
+     * @return boolean, false if LINE holds no pattern
+     */
+    private boolean add(String line, int index) {
+        if (line.isEmpty() || line.startsWith("#")) {
+            return false;
+        }
+        Rule rule = new Rule();
+        rule._index = index;
+        String pattern = line;
+        if (pattern.startsWith("!")) {
+            rule._negated = true;
+            pattern = pattern.substring(1);
+        } else if (pattern.startsWith("\\")) {
+            pattern = pattern.substring(1);
+        }
+        if (pattern.endsWith("/")) {
+            rule._directoryOnly = true;
+            pattern = pattern.substring(0, pattern.length() - 1);
+        }
+        rule._anchored = pattern.indexOf('/') >= 0;
+        if (pattern.startsWith("/")) {
+            pattern = pattern.substring(1);
+        }
+        if (pattern.isEmpty()) {
+            return false;
+        }
+        if (!isGlob(pattern)) {
+            if (rule._anchored) {
+                Node node = _root;
+                for (String segment : pattern.split("/")) {
+                    node = node._children.computeIfAbsent(segment,
+                        s -> new Node());
+                }
+                node._rules.add(rule);
+            } else {
+                _names.computeIfAbsent(pattern, s -> new ArrayList<>())
+                    .add(rule);
+            }
+        } else {
+            String rest = pattern.substring(1);
+            if (pattern.startsWith("*") && !rule._anchored && !isGlob(rest)) {
+                rule._suffix = rest;
+            } else {
+                rule._glob = Pattern.compile(regex(pattern));
+            }
+            _globs.add(rule);
+        }
+        return true;
+    }
+
+    /**
+     * The later of BEST and the latest rule in RULES that applies to a
+     * directory, or not, as ISDIRECTORY says.
+     * @param best rule, or null
+     * @param rules list, or null
+     * @param isDirectory boolean
+     * @return rule, or null
+     */
+    private static Rule later(Rule best, List<Rule> rules,
+                              boolean isDirectory) {
+        if (rules == null) {
+            return best;
+        }
+        for (int i = rules.size() - 1; i >= 0; i -= 1) {
+            Rule rule = rules.get(i);
+            if (isDirectory || !rule._directoryOnly) {
+                return best == null || rule._index > best._index
+                    ? rule : best;
+            }
+        }
+        return best;
+    }
+
+    /**
+     * Does PATTERN use glob characters.
+     * @param pattern string
+     * @return boolean
+     */
+    private static boolean isGlob(String pattern) {
+        for (int i = 0; i < pattern.length(); i += 1) {
+            if ("*?[\\".indexOf(pattern.charAt(i)) >= 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * A regular expression matching what the glob GLOB does.
+     * @param glob string
+     * @return string
+     */
+    private static String regex(String glob) {
+        StringBuilder regex = new StringBuilder();
+        int i = 0;
+        while (i < glob.length()) {
+            char c = glob.charAt(i);
+            if (glob.startsWith("**/", i)) {
+                regex.append("(?:.*/)?");
+                i += 3;
+                continue;
+            } else if (glob.startsWith("**", i)) {
+                regex.append(".*");
+                i += 2;
+                continue;
+            }
+            int close = glob.indexOf(']', i + 2);
+            if (c == '*') {
+                regex.append("[^/]*");
+            } else if (c == '?') {
+                regex.append("[^/]");
+            } else if (c == '[' && close > 0) {
+                String set = glob.substring(i + 1, close);
+                regex.append('[');
+                if (set.startsWith("!") || set.startsWith("^")) {
+                    regex.append('^');
+                    set = set.substring(1);
+                }
+                regex.append(set.replace("\\", "\\\\").replace("[", "\\["));
+                regex.append(']');
+                i = close;
+            } else if (c == '\\' && i + 1 < glob.length()) {
+                i += 1;
+                regex.append(Pattern.quote(glob.substring(i, i + 1)));
+            } else {
+                regex.append(Pattern.quote(String.valueOf(c)));
+            }
+            i += 1;
+        }
+        return regex.toString();
+    }
+
+    /** One compiled pattern. */
+    private static class Rule {
+        /** position among the patterns. */
+        private int _index;
+        /** does it re-include. */
+        private boolean _negated;
+        /** does it match only directories. */
+        private boolean _directoryOnly;
+        /** is it matched against the whole path rather than the name. */
+        private boolean _anchored;
+        /** the compiled glob, or null for a literal or suffix pattern. */
+        private Pattern _glob;
+        /** for a pattern * followed by a literal, that literal. */
+        private String _suffix;
+    }
+
+    /** A trie node, for one path segment. */
+    private static class Node {
+        /** nodes of the next segment. */
+        private final HashMap<String, Node> _children = new HashMap<>();
+        /** rules matching the path ending here. */
+        private final List<Rule> _rules = new ArrayList<>();
+    }
+
+    /** Name of the ignore file. */
+    static final String FILE_NAME = ".gitletignore";
+
+    /** root of the trie of literal relative paths. */
+    private final Node _root;
+    /** literal patterns matched against names at any depth. */
+    private final HashMap<String, List<Rule>> _names;
+    /** glob rules, in order. */
+    private final List<Rule> _globs;
+    /** number of patterns. */
+    private final int _count;
+}
@@ -0,0 +1,111 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/** Tests of IgnoreRules.
+ *  @author Swadhin Nalubola
+ */
+public class IgnoreRulesTest {
+
+    @Test
+    public void lastMatchWinsTest() {
+        IgnoreRules rules = rules("*.log", "!keep.log");
+        assertTrue(rules.ignored("a.log", false));
+        assertTrue(rules.ignored("dir/a.log", false));
+        assertFalse(rules.ignored("keep.log", false));
+        assertFalse(rules.ignored("dir/keep.log", false));
+        rules = rules("!keep.log", "*.log");
+        assertTrue(rules.ignored("keep.log", false));
+    }
+
+    @Test
+    public void negationUnderIgnoredDirectoryTest() {
+        IgnoreRules rules = rules("build/", "!build/keep.txt");
+        assertTrue(rules.ignored("build/keep.txt", false));
+        assertTrue(rules.ignored("build/other.txt", false));
+    }
+
+    @Test
+    public void trailingSlashTest() {
+        IgnoreRules rules = rules("build/");
+        assertTrue(rules.ignored("build", true));
+        assertFalse(rules.ignored("build", false));
+        assertTrue(rules.ignored("src/build", true));
+        assertTrue(rules.ignored("build/out/a.class", false));
+        assertFalse(rules.ignored("builds/a.class", false));
+    }
+
+    @Test
+    public void anchoredTest() {
+        IgnoreRules rules = rules("/top.txt", "doc/notes.txt", "name.txt");
+        assertTrue(rules.ignored("top.txt", false));
+        assertFalse(rules.ignored("a/top.txt", false));
+        assertTrue(rules.ignored("doc/notes.txt", false));
+        assertFalse(rules.ignored("a/doc/notes.txt", false));
+        assertTrue(rules.ignored("name.txt", false));
+        assertTrue(rules.ignored("a/b/name.txt", false));
+    }
+
+    @Test
+    public void anchoredGlobTest() {
+        IgnoreRules rules = rules("/*.txt", "src/*.o");
+        assertTrue(rules.ignored("a.txt", false));
+        assertFalse(rules.ignored("dir/a.txt", false));
+        assertTrue(rules.ignored("src/a.o", false));
+        assertFalse(rules.ignored("src/sub/a.o", false));
+        assertFalse(rules.ignored("lib/src/a.o", false));
+    }
+
+    @Test
+    public void doubleStarTest() {
+        IgnoreRules rules = rules("**/logs", "a/**/z.txt", "out/**");
+        assertTrue(rules.ignored("logs", true));
+        assertTrue(rules.ignored("x/y/logs", true));
+        assertTrue(rules.ignored("x/y/logs/today", false));
+        assertTrue(rules.ignored("a/z.txt", false));
+        assertTrue(rules.ignored("a/b/c/z.txt", false));
+        assertFalse(rules.ignored("b/a/z.txt", false));
+        assertTrue(rules.ignored("out/a/b", false));
+        assertFalse(rules.ignored("out", true));
+    }
+
+    @Test
+    public void bracketTest() {
+        IgnoreRules rules = rules("file[0-9].txt", "[!a]*.c", "?.h");
+        assertTrue(rules.ignored("file3.txt", false));
+        assertFalse(rules.ignored("filex.txt", false));
+        assertTrue(rules.ignored("b.c", false));
+        assertFalse(rules.ignored("a.c", false));
+        assertTrue(rules.ignored("x.h", false));
+        assertFalse(rules.ignored("xy.h", false));
+    }
+
+    @Test
+    public void commentsAndEscapesTest() {
+        IgnoreRules rules = rules("# a comment", "", "\\#hash", "\\!bang");
+        assertFalse(rules.ignored("# a comment", false));
+        assertTrue(rules.ignored("#hash", false));
+        assertTrue(rules.ignored("!bang", false));
+        assertTrue(rules(new String[0]).isEmpty());
+        assertFalse(rules("# only a comment").ignored("x", false));
+    }
+
+    @Test
+    public void mayContainTest() {
+        IgnoreRules rules = rules("/build/", "/doc/api/");
+        assertTrue(rules.mayContain("build"));
+        assertTrue(rules.mayContain("doc"));
+        assertFalse(rules.mayContain("src"));
+        assertTrue(rules("*.o").mayContain("src"));
+    }
+
+    /**
+     * The rules for the pattern lines LINES.
+     * @param lines string[]
+     * @return ignorerules
+     */
+    private static IgnoreRules rules(String... lines) {
+        return new IgnoreRules(lines);
+    }
+}
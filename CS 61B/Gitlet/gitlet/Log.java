@@ -1,36 +1,160 @@
 package gitlet;
 
-import java.util.HashMap;
+import java.io.BufferedWriter;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.text.ParsePosition;
+import java.text.SimpleDateFormat;
+import java.util.Date;
 
-/** Command for log.
+/** Command for log [-n N] [--since=DATE] [--until=DATE] [--oneline]
+ *  [-- FILE].  "log -- FILE" shows only the commits that changed FILE;
+ *  -n shows at most N commits, --since and --until only those made in
+ *  that time, and --oneline each on one line.  DATE is yyyy-MM-dd,
+ *  optionally followed by HH:mm or HH:mm:ss, or a commit timestamp.
+ *  Commits are read as they are shown (see CommitWalk) and output is
+ *  buffered, the first page being flushed at once; if the reader goes
+ *  away, as head does, log stops.
  * @author Swadhin Nalubola
  */
 public class Log extends Command {
 
     @Override
     public void run(Repo repo, String[] args) {
-        if (!super.valid(args, 0, false)) {
+        if (!super.valid(args, args.length, true)) {
             System.exit(0);
         }
+        int limit = Integer.MAX_VALUE;
+        long since = Long.MIN_VALUE;
+        long until = Long.MAX_VALUE;
+        boolean oneline = false;
+        String path = null;
+        for (int i = 0; i < args.length; i += 1) {
+            if (args[i].equals("--") && i + 2 == args.length) {
+                path = args[i + 1];
+                i += 1;
+            } else if (args[i].equals("-n") && i + 1 < args.length) {
+                limit = count(args[i + 1]);
+                i += 1;
+            } else if (args[i].startsWith(SINCE)) {
+                since = date(args[i].substring(SINCE.length()));
+            } else if (args[i].startsWith(UNTIL)) {
+                until = date(args[i].substring(UNTIL.length()));
+            } else if (args[i].equals("--oneline")) {
+                oneline = true;
+            } else {
+                System.out.println("Incorrect operands.");
+                System.exit(0);
+            }
+        }
 
-        Stage stage = Utils.readObject(repo.stageFile(), Stage.class);
-        HashMap<String, CommitObject> commits = stage.getCommits();
-
-        if (stage.getHead() != null) {
-            CommitObject current = commits.get(stage.getHead());
-            while (current != null) {
-                System.out.println("===");
-                System.out.println("commit " + current.getSHA());
-                if (current.getParent2SHA() != null) {
-                    System.out.println("Merge: "
-                            + current.getParentSHA().substring(0, 7)
-                            + current.getParent2SHA().substring(0, 7));
+        Stage stage = repo.readStage();
+        Writer out = new BufferedWriter(new OutputStreamWriter(
+                new FileOutputStream(FileDescriptor.out),
+                StandardCharsets.UTF_8), BUFFER);
+        try (CommitWalk commits = new CommitWalk(repo, stage.getHead(),
+                 path, since, until)) {
+            for (int shown = 0; shown < limit && commits.hasNext();
+                 shown += 1) {
+                print(out, commits.next(), oneline);
+                if (shown + 1 == FIRST_PAGE) {
+                    out.flush();
                 }
-                System.out.println("Date: " + current.getTimeStamp());
-                System.out.println(current.getLogMessage());
-                System.out.println();
-                current = commits.get(current.getParentSHA());
+            }
+            out.flush();
+        } catch (IOException excp) {
+            return;
+        }
+    }
+
+    @Override
+    public boolean writes() {
+        return false;
+    }
+
+    /**
+     * Write one commit to OUT, on one line if ONELINE.
+     * @param out writer
+     * @param current commitobject
+     * @param oneline boolean
+     * @throws IOException on failure
+     */
+    private void print(Writer out, CommitObject current, boolean oneline)
+        throws IOException {
+        if (oneline) {
+            String message = current.getLogMessage();
+            int end = message.indexOf('\n');
+            out.write(current.getSHA().substring(0, 7) + " "
+                    + (end < 0 ? message : message.substring(0, end))
+                    + "\n");
+            return;
+        }
+        out.write("===\n");
+        out.write("commit " + current.getSHA() + "\n");
+        if (current.getParent2SHA() != null) {
+            out.write("Merge: "
+                    + current.getParentSHA().substring(0, 7)
+                    + current.getParent2SHA().substring(0, 7) + "\n");
+        }
+        out.write("Date: " + current.getTimeStamp() + "\n");
+        out.write(current.getLogMessage() + "\n");
+        out.write("\n");
+    }
+
+    /**
+     * The commit count ARG.
+     * @param arg string
+     * @return int
+     */
+    private static int count(String arg) {
+        int count;
+        try {
+            count = Integer.parseInt(arg);
+        } catch (NumberFormatException excp) {
+            count = -1;
+        }
+        if (count < 0) {
+            System.out.println("Incorrect operands.");
+            System.exit(0);
+        }
+        return count;
+    }
+
+    /**
+     * The time ARG names, in one of DATES.
+     * @param arg string
+     * @return milliseconds since the epoch
+     */
+    private static long date(String arg) {
+        for (String format : DATES) {
+            SimpleDateFormat date = new SimpleDateFormat(format);
+            date.setLenient(false);
+            ParsePosition position = new ParsePosition(0);
+            Date time = date.parse(arg, position);
+            if (time != null && position.getIndex() == arg.length()) {
+                return time.getTime();
             }
         }
+        System.out.println("Invalid date: " + arg);
+        System.exit(0);
+        return 0;
     }
+
+    /** Prefix of the earliest time to show. */
+    private static final String SINCE = "--since=";
+    /** Prefix of the latest time to show. */
+    private static final String UNTIL = "--until=";
+    /** Formats DATE may be in. */
+    private static final String[] DATES = {
+        "yyyy-MM-dd", "yyyy-MM-dd HH:mm", "yyyy-MM-dd HH:mm:ss",
+        "EEE MMM dd HH:mm:ss yyyy Z",
+    };
+    /** Bytes of output buffering. */
+    private static final int BUFFER = 1 << 16;
+    /** Commits written before the output is first flushed. */
+    private static final int FIRST_PAGE = 32;
 }
@@ -9,8 +9,19 @@ import java.util.HashMap;
 public class Main {
 
     /** Usage: java gitlet.Main ARGS, where ARGS contains
-     *  <COMMAND> <OPERAND> .... */
+     *  [--trace[=FILE]] <COMMAND> <OPERAND> ....  --trace, like
+     *  GITLET_TRACE=FILE, traces the command; see Trace. */
     public static void main(String... args) {
+        String trace = System.getenv(TRACE_VARIABLE);
+        if (args.length > 0 && (args[0].equals(TRACE_OPTION)
+                || args[0].startsWith(TRACE_OPTION + "="))) {
+            trace = args[0].equals(TRACE_OPTION) ? "1"
+                : args[0].substring(TRACE_OPTION.length() + 1);
+            args = Arrays.copyOfRange(args, 1, args.length);
+        }
+        if (trace != null && !trace.isEmpty() && !trace.equals("0")) {
+            Trace.start(trace.equals("1") ? null : trace);
+        }
 
         if (args.length == 0) {
             System.out.println("Please enter a command.");
@@ -31,6 +42,28 @@ public class Main {
         _commands.put("rm-branch", new RemoveBranch());
         _commands.put("reset", new Reset());
         _commands.put("merge", new Merge());
+        _commands.put("pack-refs", new PackRefs());
+        _commands.put("add-remote", new AddRemote());
+        _commands.put("rm-remote", new RemoveRemote());
+        _commands.put("fetch", new Fetch());
+        _commands.put("push", new Push());
+        _commands.put("pull", new Pull());
+        _commands.put("clone", new Clone());
+        _commands.put("config", new ConfigCommand());
+        _commands.put("watch", new Watch());
+        _commands.put("fsck", new Fsck());
+        _commands.put("commit-graph", new CommitGraphCommand());
+        _commands.put("blame", new BlameCommand());
+        _commands.put("archive", new Archive());
+        _commands.put("fast-import", new FastImport());
+        _commands.put("sparse-checkout", new SparseCheckoutCommand());
+        _commands.put("stash", new Stash());
+        _commands.put("cherry-pick", new CherryPick());
+        _commands.put("rebase", new Rebase());
+        _commands.put("worktree", new Worktree());
+        _commands.put("bundle", new Bundle());
+        _commands.put("count-objects", new CountObjects());
+        _commands.put("sizer", new SizerCommand());
 
         if (!_commands.containsKey(args[0])) {
             System.out.println("No command with that name exists.");
@@ -38,9 +71,31 @@ public class Main {
         }
         Command command = _commands.get(args[0]);
         String[] commandArgs = Arrays.copyOfRange(args, 1, args.length);
-        command.run(new Repo(System.getProperty("user.dir")), commandArgs);
+        Trace.Span span = Trace.span("gitlet", args[0]);
+        try {
+            Repo repo = new Repo(System.getProperty("user.dir"));
+            if (command.writes() && repo.exists()) {
+                Trace.Span lock = Trace.span("lock");
+                try {
+                    repo.lock();
+                } finally {
+                    lock.close();
+                }
+            }
+            command.run(repo, commandArgs);
+        } catch (GitletException excp) {
+            System.out.println(excp.getMessage());
+            System.exit(0);
+        } finally {
+            span.close();
+        }
     }
 
+    /** Option tracing the command. */
+    private static final String TRACE_OPTION = "--trace";
+    /** Environment variable tracing every command. */
+    private static final String TRACE_VARIABLE = "GITLET_TRACE";
+
     /** Hashmap for all commands. */
     private static HashMap<String, Command> _commands;
 }
@@ -0,0 +1,185 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/** Writes blobs into the working directory.  The checkout.mode setting
+ *  picks how:
+ *  copy  (default) write the blob's contents into the file.
+ *  link  hard link the file to a read-only copy of the blob kept in
+ *        .gitlet/cache, so an unchanged file costs only a link.
+ *  clone copy the cached file with Files.copy, which the platform may
+ *        turn into a copy-on-write clone.
+ *  When a mode is not possible here, the next one down is used, ending
+ *  with a FileChannel.transferTo copy of the cached file.  Files written
+ *  in link mode share the cache's read-only permission; replace them
+ *  rather than editing them in place.
+ *  @author Swadhin Nalubola
+ */
+public class Materializer {
+
+    /**
+     * Initialize materializer.
+     * @param repo repo
+     */
+    public Materializer(Repo repo) {
+        _repo = repo;
+        _mode = repo.config().get("checkout.mode", COPY);
+        if (!_mode.equals(COPY) && !_mode.equals(LINK)
+                && !_mode.equals(CLONE)) {
+            throw Utils.error("Unknown checkout.mode %s.", _mode);
+        }
+    }
+
+    /**
+     * Make FILE hold the contents of blob BLOBSHA.
+     * @param blobSHA string
+     * @param file file
+     */
+    public void write(String blobSHA, File file) {
+        try {
+            File dir = file.getAbsoluteFile().getParentFile();
+            if (dir != null) {
+                dir.mkdirs();
+            }
+            if (_mode.equals(COPY)) {
+                release(file);
+                Utils.writeContents(file,
+                        _repo.objects().readBlob(blobSHA).getContents());
+                return;
+            }
+            Path cached = cached(blobSHA);
+            Path target = file.toPath();
+            if (Files.exists(target) && Files.isSameFile(target, cached)) {
+                return;
+            }
+            release(file);
+            Trace.count(Trace.FILES_WRITTEN, 1);
+            if (_mode.equals(LINK) && link(target, cached)) {
+                return;
+            }
+            if (!cloneCopy(target, cached)) {
+                transferCopy(target, cached);
+            }
+            Trace.count(Trace.BYTES_WRITTEN, file.length());
+            file.setWritable(true);
+        } catch (IOException excp) {
+            throw Utils.error("Could not write %s.", file.getName());
+        }
+    }
+
+    /**
+     * Delete FILE, and then the directories above it that it leaves
+     * empty, up to the working directory.
+     * @param file file
+     */
+    public void delete(File file) {
+        release(file);
+        Path root = new File(_repo.getWorkingDirectory()).toPath()
+            .toAbsolutePath().normalize();
+        Path dir = file.toPath().toAbsolutePath().normalize().getParent();
+        while (dir != null && dir.startsWith(root) && !dir.equals(root)
+               && dir.toFile().delete()) {
+            dir = dir.getParent();
+        }
+    }
+
+    /**
+     * Delete FILE before it is rewritten.  A hard-linked file must not be
+     * written through, since that would change the cached blob.
+     * @param file file
+     */
+    public static void release(File file) {
+        if (file.isFile()) {
+            file.delete();
+        }
+    }
+
+    /**
+     * The read-only cached contents of blob BLOBSHA, written on first use.
+     * @param blobSHA string
+     * @return path
+     * @throws IOException on failure
+     */
+    private Path cached(String blobSHA) throws IOException {
+        File cached = new File(_repo.cachePath(), blobSHA);
+        if (!cached.isFile()) {
+            cached.getParentFile().mkdirs();
+            File temp = new File(cached.getPath() + ".tmp");
+            Utils.writeContents(temp,
+                    _repo.objects().readBlob(blobSHA).getContents());
+            temp.setReadOnly();
+            Files.move(temp.toPath(), cached.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE);
+        }
+        return cached.toPath();
+    }
+
+    /**
+     * Hard link TARGET to CACHED.
+     * @param target path
+     * @param cached path
+     * @return boolean, false if links are not supported here
+     */
+    private static boolean link(Path target, Path cached) {
+        try {
+            Files.createLink(target, cached);
+            return true;
+        } catch (IOException | UnsupportedOperationException excp) {
+            return false;
+        }
+    }
+
+    /**
+     * Copy CACHED to TARGET with Files.copy.
+     * @param target path
+     * @param cached path
+     * @return boolean, false if the copy failed
+     */
+    private static boolean cloneCopy(Path target, Path cached) {
+        try {
+            Files.copy(cached, target);
+            return true;
+        } catch (IOException | UnsupportedOperationException excp) {
+            return false;
+        }
+    }
+
+    /**
+     * Copy CACHED to TARGET by streaming between channels.
+     * @param target path
+     * @param cached path
+     * @throws IOException on failure
+     */
+    private static void transferCopy(Path target, Path cached)
+        throws IOException {
+        Files.deleteIfExists(target);
+        try (FileChannel in = FileChannel.open(cached,
+                StandardOpenOption.READ);
+             FileChannel out = FileChannel.open(target,
+                StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE)) {
+            long size = in.size();
+            long position = 0;
+            while (position < size) {
+                position += in.transferTo(position, size - position, out);
+            }
+        }
+    }
+
+    /** Mode that writes contents into each file. */
+    static final String COPY = "copy";
+    /** Mode that hard links files into the cache. */
+    static final String LINK = "link";
+    /** Mode that copies files from the cache with Files.copy. */
+    static final String CLONE = "clone";
+
+    /** the repo. */
+    private final Repo _repo;
+    /** checkout mode. */
+    private final String _mode;
+}
@@ -3,6 +3,8 @@ package gitlet;
 import java.io.File;
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Objects;
 
 /** Merge command.
  * @author Swadhin Nalubola
@@ -14,41 +16,25 @@ public class Merge extends Command {
         if (!super.valid(args, 1, true)) {
             System.exit(0);
         }
-        Stage stage = Utils.readObject(repo.stageFile(), Stage.class);
+        Stage stage = repo.readStage();
         String currentBranch = stage.getBranch();
         String givenBranch = args[0];
         if (!stage.getStaged().isEmpty() || !stage.getRemoved().isEmpty()) {
             System.out.println("You have uncommitted changes.");
             System.exit(0);
-        } else if (!stage.getBranches().containsKey(givenBranch)) {
+        } else if (!repo.refs().contains(givenBranch)) {
             System.out.println("A branch with that name does not exist.");
             System.exit(0);
         } else if (givenBranch.equals(currentBranch)) {
             System.out.println("Cannot merge a branch with itself.");
             System.exit(0);
         }
-        File[] workingDirectoryFiles =
-                new File(repo.getWorkingDirectory()).listFiles();
-        for (File file : workingDirectoryFiles) {
-            String fileName = file.getName();
-            if (file.isFile() && !stage.getStaged().containsKey(fileName)
-                    && !stage.getTracked().containsKey(fileName)) {
-                System.out.println("There is an untracked file in "
-                        + "the way; delete it or add it first.");
-                System.exit(0);
-            }
-        }
         String currBranchSHA = stage.getHead();
-        String giveBranchSHA = stage.getBranches().get(givenBranch);
-        CommitObject currBraCommit = Utils.readObject(new File(repo.commitPath()
-                        + currBranchSHA + ".ser"), CommitObject.class);
-        CommitObject giveBraCommit =
-                Utils.readObject(new File(repo.commitPath()
-                        + giveBranchSHA + ".ser"), CommitObject.class);
-        String latestAnce = findSplit(currBraCommit, giveBraCommit, stage);
-        CommitObject latestAncestor =
-                Utils.readObject(new File(repo.commitPath()
-                        + latestAnce + ".ser"), CommitObject.class);
+        String giveBranchSHA = repo.refs().get(givenBranch);
+        CommitObject currBraCommit = repo.objects().readCommit(currBranchSHA);
+        CommitObject giveBraCommit = repo.objects().readCommit(giveBranchSHA);
+        String latestAnce = findSplit(currBraCommit, giveBraCommit, repo);
+        CommitObject latestAncestor = repo.objects().readCommit(latestAnce);
         if (latestAncestor.equals(giveBraCommit)) {
             System.out.println("Given branch is an "
                     + "ancestor of the current branch.");
@@ -58,13 +44,14 @@ public class Merge extends Command {
             System.out.println("Current branch fast-forwarded.");
             System.exit(0);
         }
-        Utils.writeObject(repo.stageFile(), stage);
+        repo.workingTree().requireClean(stage, stage.getTracked(),
+                touched(latestAncestor, currBraCommit, giveBraCommit));
+        repo.workingTree().record(stage);
+        repo.writeStage(stage);
         merger(repo, latestAncestor, currBraCommit, giveBraCommit);
-        String[] message = new String[]{"Merged "
-                + givenBranch + " into " + currentBranch + "."};
-        new Commit().run(repo, message);
-        stage.getCommits().get(stage.getHead()).
-                setParent2SHA(giveBraCommit.getSHA());
+        String message = "Merged " + givenBranch + " into "
+                + currentBranch + ".";
+        new Commit().commit(repo, message, giveBraCommit.getSHA());
         if (_mergeConflict) {
             System.out.println("Encountered a merge conflict.");
         }
@@ -74,11 +61,11 @@ public class Merge extends Command {
      * Finds latest ancestor.
      * @param current commitobject
      * @param given commitobject
-     * @param stage stage
+     * @param repo repo
      * @return string
      */
     private String findSplit(CommitObject current,
-                                   CommitObject given, Stage stage) {
+                                   CommitObject given, Repo repo) {
         CommitObject currCopy = current;
         CommitObject giveCopy = given;
         ArrayList<String> parents = new ArrayList<>();
@@ -88,7 +75,7 @@ public class Merge extends Command {
             if (giveCopy.getParent2SHA() != null) {
                 parents.add(giveCopy.getParent2SHA());
             }
-            giveCopy = stage.getCommits().get(parentSHA);
+            giveCopy = repo.objects().readCommit(parentSHA);
         }
         while (currCopy != null) {
             if (parents.contains(currCopy.getSHA())) {
@@ -100,11 +87,41 @@ public class Merge extends Command {
                     return currCopy.getParent2SHA();
                 }
             }
-            currCopy = stage.getCommits().get(parentSHA);
+            currCopy = repo.objects().readCommit(parentSHA);
         }
         return null;
     }
 
+    /**
+     * The snapshot CURRENT with each path the given branch changed since
+     * SPLIT taken as it is in GIVEN: every path the merge may write or
+     * delete, with the contents that may safely be replaced.
+     * @param split commitobject
+     * @param current commitobject
+     * @param given commitobject
+     * @return snapshot of file name to blob sha
+     */
+    private static HashMap<String, String> touched(CommitObject split,
+            CommitObject current, CommitObject given) {
+        HashMap<String, String> splitBlobs = split.getTrackedBlobs();
+        HashMap<String, String> givenBlobs = given.getTrackedBlobs();
+        HashMap<String, String> touched =
+            new HashMap<>(current.getTrackedBlobs());
+        HashSet<String> names = new HashSet<>(splitBlobs.keySet());
+        names.addAll(givenBlobs.keySet());
+        for (String name : names) {
+            String sha = givenBlobs.get(name);
+            if (!Objects.equals(sha, splitBlobs.get(name))) {
+                if (sha == null) {
+                    touched.remove(name);
+                } else {
+                    touched.put(name, sha);
+                }
+            }
+        }
+        return touched;
+    }
+
     /**
      * Compare a file between two commitobjects.
      * @param older commitobject
@@ -150,19 +167,37 @@ public class Merge extends Command {
         byte[] give = null;
         String currSHA = currBraBlobs.get(fileName);
         if (currSHA != null) {
-            Blob currBlob = Utils.readObject(new File(
-                    repo.blobPath() + currSHA + ".ser"), Blob.class);
+            Blob currBlob = repo.objects().readBlob(currSHA);
             curr = currBlob.getContents();
         }
         String giveSHA = giveBraBlobs.get(fileName);
         if (giveSHA != null) {
-            Blob giveBlob = Utils.readObject(new File(
-                    repo.blobPath() + giveSHA + ".ser"), Blob.class);
+            Blob giveBlob = repo.objects().readBlob(giveSHA);
             give = giveBlob.getContents();
         }
+        Materializer.release(new File(fileName));
         Utils.writeContents(new File(fileName), head, curr, middle, give, tail);
     }
 
+    /**
+     * Take FILENAME as it is in commit GIVEN, writing it out only if it
+     * is in the sparse checkout.
+     * @param repo repo
+     * @param given commitobject
+     * @param fileName string
+     */
+    private void take(Repo repo, CommitObject given, String fileName) {
+        if (repo.sparseCheckout().includes(fileName)) {
+            String[] args = new String[]{given.getSHA(), "--", fileName};
+            new Checkout().run(repo, args);
+            new Add().run(repo, new String[]{fileName});
+        } else {
+            Stage stage = repo.readStage();
+            stage.stage(fileName, given.getTrackedBlobs().get(fileName));
+            repo.writeStage(stage);
+        }
+    }
+
     /**
      * Merges things.
      * @param repo repo
@@ -179,19 +214,13 @@ public class Merge extends Command {
         for (String fileName : giveBraBlobs.keySet()) {
             if (!currBraBlobs.containsKey(fileName)) {
                 if (!latestABlobs.containsKey(fileName)) {
-                    String[] args = new
-                            String[]{giveBraCommit.getSHA(), "--", fileName};
-                    new Checkout().run(repo, args);
-                    new Add().run(repo, new String[]{fileName});
+                    take(repo, giveBraCommit, fileName);
                 }
             } else if (compare(latestAncestor, giveBraCommit,
                     fileName).equals("modified")) {
                 if (compare(latestAncestor, currBraCommit,
                         fileName).equals("unmodified")) {
-                    String[] args = new
-                            String[]{giveBraCommit.getSHA(), "--", fileName};
-                    new Checkout().run(repo, args);
-                    new Add().run(repo, new String[]{fileName});
+                    take(repo, giveBraCommit, fileName);
                 } else if (compare(latestAncestor, currBraCommit,
                         fileName).equals("deleted")) {
                     updateContents(repo, fileName, currBraBlobs, giveBraBlobs);
@@ -208,7 +237,9 @@ public class Merge extends Command {
                 }
             } else if (giveBraBlobs.containsKey(fileName)) {
                 if (!currBraBlobs.get(fileName).equals(
-                        giveBraBlobs.get(fileName))) {
+                        giveBraBlobs.get(fileName))
+                        && !giveBraBlobs.get(fileName).equals(
+                        latestABlobs.get(fileName))) {
                     updateContents(repo, fileName, currBraBlobs, giveBraBlobs);
                 }
             } else if (!giveBraBlobs.containsKey(fileName)) {
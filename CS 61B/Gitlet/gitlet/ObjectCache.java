@@ -0,0 +1,118 @@
+package gitlet;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+
+/** Decoded objects kept in memory, least recently used first out once
+ *  their estimated size passes a limit in bytes.  Safe to share between
+ *  threads.
+ *  @author Swadhin Nalubola
+ */
+public class ObjectCache {
+
+    /**
+     * Initialize object cache.
+     * @param limit most bytes to hold; 0 disables the cache
+     */
+    public ObjectCache(long limit) {
+        _limit = limit;
+        _entries = new LinkedHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, true);
+    }
+
+    /**
+     * Get an object, counting a hit or a miss.
+     * @param key string
+     * @return object, or null if it is not cached
+     */
+    public synchronized Object get(String key) {
+        Entry entry = _entries.get(key);
+        if (entry == null) {
+            _misses += 1;
+            Trace.count(Trace.CACHE_MISSES, 1);
+            return null;
+        }
+        _hits += 1;
+        Trace.count(Trace.CACHE_HITS, 1);
+        return entry._value;
+    }
+
+    /**
+     * Is an object cached.  Counts neither a hit nor a miss.
+     * @param key string
+     * @return boolean
+     */
+    public synchronized boolean contains(String key) {
+        return _entries.containsKey(key);
+    }
+
+    /**
+     * Cache VALUE under KEY, then drop the least recently used objects
+     * until the cache fits its limit again.
+     * @param key string
+     * @param value object
+     * @param bytes estimated size of VALUE
+     */
+    public synchronized void put(String key, Object value, long bytes) {
+        if (bytes > _limit) {
+            return;
+        }
+        Entry old = _entries.put(key, new Entry(value, bytes));
+        if (old != null) {
+            _bytes -= old._bytes;
+        }
+        _bytes += bytes;
+        Iterator<Entry> oldest = _entries.values().iterator();
+        while (_bytes > _limit) {
+            _bytes -= oldest.next()._bytes;
+            oldest.remove();
+            _evictions += 1;
+        }
+    }
+
+    /**
+     * Counters for sizing the cache.
+     * @return string
+     */
+    public synchronized String stats() {
+        return String.format("object cache: %d hits, %d misses, "
+                + "%d evictions, %d objects, %d of %d bytes",
+                _hits, _misses, _evictions, _entries.size(), _bytes, _limit);
+    }
+
+    /** A cached object and its size. */
+    private static class Entry {
+
+        /**
+         * Initialize entry.
+         * @param value object
+         * @param bytes long
+         */
+        Entry(Object value, long bytes) {
+            _value = value;
+            _bytes = bytes;
+        }
+
+        /** the object. */
+        private final Object _value;
+        /** its estimated size. */
+        private final long _bytes;
+    }
+
+    /** Initial capacity of the table. */
+    private static final int INITIAL_CAPACITY = 256;
+    /** Load factor of the table. */
+    private static final float LOAD_FACTOR = 0.75f;
+
+    /** most bytes to hold. */
+    private final long _limit;
+    /** Follows the form of key, entry, least recently used first. */
+    private final LinkedHashMap<String, Entry> _entries;
+    /** estimated bytes held. */
+    private long _bytes;
+    /** lookups that found their object. */
+    private long _hits;
+    /** lookups that did not. */
+    private long _misses;
+    /** objects dropped to make room. */
+    private long _evictions;
+}
@@ -0,0 +1,464 @@
+package gitlet;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+
+/** The stored form of commits and blobs.  Every object starts with the
+ *  bytes 'G' 'L' 'O', a version byte and a type byte, then:
+ *  blob    hash[20] varint(length) contents
+ *  commit  flags hash[20] [parent[20]] [parent2[20]] string(timestamp)
+ *          [string(author)] string(message) [string(branch)]
+ *          varint(count) count * (string(name) hash[20])
+ *  Hashes are raw 20-byte SHA-1 values, strings are a varint byte count
+ *  followed by UTF-8, varints are 7 bits per byte, low bits first, and
+ *  FLAGS says which of the bracketed fields are present.  Snapshot
+ *  entries are sorted by name, so equal commits encode to equal bytes,
+ *  and a commit's id is the SHA-1 of its encoding without the id.
+ *  Objects written by earlier versions with Java serialization are still
+ *  decoded, through SerialInput, which accepts only the classes such
+ *  objects are made of.  Only a repository's own object files may be in
+ *  that form; objects from elsewhere (see Pack) must be in this one.
+ *  Every count and length is checked against the bytes left before
+ *  anything is allocated.
+ *  @author Swadhin Nalubola
+ */
+public class ObjectCodec {
+
+    /**
+     * Encode a blob.
+     * @param blob blob
+     * @return byte[]
+     */
+    public static byte[] encode(Blob blob) {
+        byte[] contents = blob.getContents();
+        Output out = new Output(HEADER + HASH + VARINT + contents.length);
+        out.header(BLOB);
+        out.hash(blob.getSHA1());
+        out.varint(contents.length);
+        out.write(contents, 0, contents.length);
+        return out.toByteArray();
+    }
+
+    /**
+     * Encode a commit.
+     * @param commit commitobject
+     * @return byte[]
+     */
+    public static byte[] encode(CommitObject commit) {
+        Output out = new Output(estimate(commit));
+        out.header(COMMIT);
+        out.write(flags(commit));
+        out.hash(commit.getSHA());
+        fields(out, commit);
+        return out.toByteArray();
+    }
+
+    /**
+     * The id of COMMIT: the SHA-1 of its type, flags and fields, which
+     * is its encoding without the header and the id itself.
+     * @param commit commitobject, whose sha is not looked at
+     * @return string
+     */
+    public static String commitId(CommitObject commit) {
+        Output out = new Output(estimate(commit));
+        out.write(COMMIT);
+        out.write(flags(commit));
+        fields(out, commit);
+        return Utils.sha1((Object) out.toByteArray());
+    }
+
+    /**
+     * The id COMMIT would have had before commits were content
+     * addressed: the SHA-1 of its timestamp and message.
+     * @param commit commitobject
+     * @return string
+     */
+    public static String legacyCommitId(CommitObject commit) {
+        return Utils.sha1(commit.getTimeStamp() + commit.getLogMessage());
+    }
+
+    /**
+     * Flags byte of COMMIT.
+     * @param commit commitobject
+     * @return int
+     */
+    private static int flags(CommitObject commit) {
+        int flags = 0;
+        if (commit.getParentSHA() != null) {
+            flags |= HAS_PARENT;
+        }
+        if (commit.getParent2SHA() != null) {
+            flags |= HAS_PARENT2;
+        }
+        if (commit.getBranch() != null) {
+            flags |= HAS_BRANCH;
+        }
+        if (commit.getAuthor() != null) {
+            flags |= HAS_AUTHOR;
+        }
+        return flags;
+    }
+
+    /**
+     * Initial buffer size for COMMIT.
+     * @param commit commitobject
+     * @return int
+     */
+    private static int estimate(CommitObject commit) {
+        return COMMIT_ESTIMATE
+            + commit.getTrackedBlobs().size() * ENTRY_ESTIMATE;
+    }
+
+    /**
+     * Write the fields of COMMIT that follow its id.
+     * @param out output
+     * @param commit commitobject
+     */
+    private static void fields(Output out, CommitObject commit) {
+        HashMap<String, String> blobs = commit.getTrackedBlobs();
+        if (commit.getParentSHA() != null) {
+            out.hash(commit.getParentSHA());
+        }
+        if (commit.getParent2SHA() != null) {
+            out.hash(commit.getParent2SHA());
+        }
+        out.string(commit.getTimeStamp());
+        if (commit.getAuthor() != null) {
+            out.string(commit.getAuthor());
+        }
+        out.string(commit.getLogMessage());
+        if (commit.getBranch() != null) {
+            out.string(commit.getBranch());
+        }
+        ArrayList<String> names = new ArrayList<>(blobs.keySet());
+        Collections.sort(names);
+        out.varint(names.size());
+        for (String name : names) {
+            out.string(name);
+            out.hash(blobs.get(name));
+        }
+    }
+
+    /**
+     * Decode a blob from the remaining bytes of BUF.
+     * @param buf bytebuffer
+     * @return blob
+     */
+    public static Blob decodeBlob(ByteBuffer buf) {
+        Trace.count(Trace.OBJECTS_DECODED, 1);
+        if (isLegacy(buf)) {
+            return legacy(buf, Blob.class);
+        }
+        try {
+            header(buf, BLOB);
+            String sha = hash(buf);
+            byte[] contents = new byte[length(buf, 1)];
+            buf.get(contents);
+            end(buf);
+            return new Blob(sha, contents);
+        } catch (BufferUnderflowException excp) {
+            throw Utils.error("Corrupt object.");
+        }
+    }
+
+    /**
+     * The contents of the blob in the remaining bytes of BUF, as a view of
+     * BUF rather than a copy.
+     * @param buf bytebuffer
+     * @return bytebuffer
+     */
+    public static ByteBuffer blobContents(ByteBuffer buf) {
+        if (isLegacy(buf)) {
+            return ByteBuffer.wrap(legacy(buf, Blob.class).getContents());
+        }
+        try {
+            header(buf, BLOB);
+            buf.position(buf.position() + HASH);
+            int length = length(buf, 1);
+            if (length != buf.remaining()) {
+                throw Utils.error("Corrupt object.");
+            }
+            return buf.slice();
+        } catch (BufferUnderflowException | IllegalArgumentException excp) {
+            throw Utils.error("Corrupt object.");
+        }
+    }
+
+    /**
+     * The id recorded in the blob in the remaining bytes of BUF, without
+     * reading its contents.
+     * @param buf bytebuffer
+     * @return string
+     */
+    public static String blobId(ByteBuffer buf) {
+        if (isLegacy(buf)) {
+            return legacy(buf, Blob.class).getSHA1();
+        }
+        try {
+            header(buf, BLOB);
+            return hash(buf);
+        } catch (BufferUnderflowException excp) {
+            throw Utils.error("Corrupt object.");
+        }
+    }
+
+    /**
+     * Decode a commit from the remaining bytes of BUF.
+     * @param buf bytebuffer
+     * @return commitobject
+     */
+    public static CommitObject decodeCommit(ByteBuffer buf) {
+        Trace.count(Trace.OBJECTS_DECODED, 1);
+        if (isLegacy(buf)) {
+            return legacy(buf, CommitObject.class);
+        }
+        try {
+            header(buf, COMMIT);
+            int flags = buf.get();
+            String sha = hash(buf);
+            String parent = (flags & HAS_PARENT) != 0 ? hash(buf) : null;
+            String parent2 = (flags & HAS_PARENT2) != 0 ? hash(buf) : null;
+            String timestamp = string(buf);
+            String author = (flags & HAS_AUTHOR) != 0 ? string(buf) : null;
+            String message = string(buf);
+            String branch = (flags & HAS_BRANCH) != 0 ? string(buf) : null;
+            int count = length(buf, 1 + HASH);
+            HashMap<String, String> blobs = new HashMap<>(
+                    Math.max(count * 4 / 3 + 1, MIN_CAPACITY));
+            for (int i = 0; i < count; i += 1) {
+                String name = string(buf);
+                blobs.put(name, hash(buf));
+            }
+            end(buf);
+            return new CommitObject(sha, message, author, timestamp,
+                    parent, parent2, branch, blobs);
+        } catch (BufferUnderflowException | IllegalArgumentException excp) {
+            throw Utils.error("Corrupt object.");
+        }
+    }
+
+    /**
+     * Was the object in BUF written with Java serialization.
+     * @param buf bytebuffer
+     * @return boolean
+     */
+    static boolean isLegacy(ByteBuffer buf) {
+        return buf.remaining() >= 2
+            && buf.get(buf.position()) == LEGACY[0]
+            && buf.get(buf.position() + 1) == LEGACY[1];
+    }
+
+    /**
+     * Decode a Java-serialized object of class EXPECTEDCLASS from BUF.
+     * @param buf bytebuffer
+     * @param expectedClass class
+     * @param <T> type
+     * @return object
+     */
+    private static <T> T legacy(ByteBuffer buf, Class<T> expectedClass) {
+        byte[] bytes = new byte[buf.remaining()];
+        buf.get(bytes);
+        try {
+            return SerialInput.read(bytes, expectedClass);
+        } catch (GitletException excp) {
+            throw Utils.error("Corrupt object.");
+        }
+    }
+
+    /**
+     * Check the header of BUF.
+     * @param buf bytebuffer
+     * @param type expected type byte
+     */
+    private static void header(ByteBuffer buf, byte type) {
+        for (byte b : MAGIC) {
+            if (buf.get() != b) {
+                throw Utils.error("Corrupt object.");
+            }
+        }
+        if (buf.get() != VERSION) {
+            throw Utils.error("Unknown object version.");
+        }
+        if (buf.get() != type) {
+            throw Utils.error("Corrupt object.");
+        }
+    }
+
+    /**
+     * Check that nothing follows an object in BUF.
+     * @param buf bytebuffer
+     */
+    private static void end(ByteBuffer buf) {
+        if (buf.hasRemaining()) {
+            throw Utils.error("Corrupt object.");
+        }
+    }
+
+    /**
+     * Read a varint.
+     * @param buf bytebuffer
+     * @return int
+     */
+    private static int varint(ByteBuffer buf) {
+        int value = 0;
+        for (int shift = 0; shift < Integer.SIZE; shift += 7) {
+            byte b = buf.get();
+            value |= (b & 0x7f) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw Utils.error("Corrupt object.");
+    }
+
+    /**
+     * Read a varint count of items at least UNIT bytes long each, and
+     * check that the rest of BUF could hold them, so that a corrupt
+     * count cannot make a huge allocation.
+     * @param buf bytebuffer
+     * @param unit int
+     * @return int
+     */
+    private static int length(ByteBuffer buf, int unit) {
+        int length = varint(buf);
+        if (length < 0 || length > buf.remaining() / unit) {
+            throw Utils.error("Corrupt object.");
+        }
+        return length;
+    }
+
+    /**
+     * Read a string, straight from the backing array when there is one.
+     * @param buf bytebuffer
+     * @return string
+     */
+    private static String string(ByteBuffer buf) {
+        int length = length(buf, 1);
+        String s;
+        if (buf.hasArray()) {
+            s = new String(buf.array(), buf.arrayOffset() + buf.position(),
+                    length, StandardCharsets.UTF_8);
+            buf.position(buf.position() + length);
+        } else {
+            byte[] bytes = new byte[length];
+            buf.get(bytes);
+            s = new String(bytes, StandardCharsets.UTF_8);
+        }
+        return s;
+    }
+
+    /**
+     * Read a raw hash as 40 hex digits.
+     * @param buf bytebuffer
+     * @return string
+     */
+    private static String hash(ByteBuffer buf) {
+        char[] hex = new char[2 * HASH];
+        for (int i = 0; i < HASH; i += 1) {
+            int b = buf.get() & 0xff;
+            hex[2 * i] = HEX[b >>> 4];
+            hex[2 * i + 1] = HEX[b & 0xf];
+        }
+        return new String(hex);
+    }
+
+    /** An encoding buffer. */
+    private static class Output extends ByteArrayOutputStream {
+
+        /**
+         * Initialize output.
+         * @param size initial capacity
+         */
+        Output(int size) {
+            super(size);
+        }
+
+        /**
+         * Write the header for TYPE.
+         * @param type byte
+         */
+        void header(byte type) {
+            write(MAGIC, 0, MAGIC.length);
+            write(VERSION);
+            write(type);
+        }
+
+        /**
+         * Write VALUE as a varint.
+         * @param value non-negative int
+         */
+        void varint(int value) {
+            while ((value & ~0x7f) != 0) {
+                write((value & 0x7f) | 0x80);
+                value >>>= 7;
+            }
+            write(value);
+        }
+
+        /**
+         * Write S as a length-prefixed UTF-8 string.
+         * @param s string
+         */
+        void string(String s) {
+            byte[] bytes = s.getBytes(StandardCharsets.UTF_8);
+            varint(bytes.length);
+            write(bytes, 0, bytes.length);
+        }
+
+        /**
+         * Write 40 hex digits SHA as a raw hash.
+         * @param sha string
+         */
+        void hash(String sha) {
+            if (sha.length() != 2 * HASH) {
+                throw Utils.error("Bad object id %s.", sha);
+            }
+            for (int i = 0; i < HASH; i += 1) {
+                int hi = Character.digit(sha.charAt(2 * i), 16);
+                int lo = Character.digit(sha.charAt(2 * i + 1), 16);
+                if (hi < 0 || lo < 0) {
+                    throw Utils.error("Bad object id %s.", sha);
+                }
+                write((hi << 4) | lo);
+            }
+        }
+    }
+
+    /** First bytes of every object. */
+    private static final byte[] MAGIC = {'G', 'L', 'O'};
+    /** First bytes of a Java-serialized object. */
+    private static final byte[] LEGACY = {(byte) 0xac, (byte) 0xed};
+    /** Encoding version. */
+    private static final byte VERSION = 1;
+    /** Type byte of blobs. */
+    private static final byte BLOB = 1;
+    /** Type byte of commits. */
+    private static final byte COMMIT = 2;
+    /** Flag for a first parent. */
+    private static final int HAS_PARENT = 1;
+    /** Flag for a second parent. */
+    private static final int HAS_PARENT2 = 2;
+    /** Flag for a branch name. */
+    private static final int HAS_BRANCH = 4;
+    /** Flag for an author. */
+    private static final int HAS_AUTHOR = 8;
+    /** Bytes in a hash. */
+    private static final int HASH = 20;
+    /** Bytes in the header. */
+    private static final int HEADER = 5;
+    /** Most bytes in an int varint. */
+    private static final int VARINT = 5;
+    /** Initial buffer size for a commit. */
+    private static final int COMMIT_ESTIMATE = 256;
+    /** Initial buffer bytes per snapshot entry. */
+    private static final int ENTRY_ESTIMATE = 48;
+    /** Smallest snapshot map capacity. */
+    private static final int MIN_CAPACITY = 16;
+    /** Hex digits. */
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+}
@@ -0,0 +1,72 @@
+package gitlet;
+
+import java.nio.ByteBuffer;
+import java.util.List;
+
+/** The commits and blobs of a repository.  Commands read and write
+ *  objects only through this interface.
+ *  @author Swadhin Nalubola
+ */
+public interface ObjectDatabase {
+
+    /**
+     * is a commit stored.
+     * @param sha string
+     * @return boolean
+     */
+    boolean hasCommit(String sha);
+
+    /**
+     * is a blob stored.
+     * @param sha string
+     * @return boolean
+     */
+    boolean hasBlob(String sha);
+
+    /**
+     * read a commit.
+     * @param sha string
+     * @return commitobject, or null if there is no such commit
+     */
+    CommitObject readCommit(String sha);
+
+    /**
+     * read a blob.
+     * @param sha string
+     * @return blob
+     */
+    Blob readBlob(String sha);
+
+    /**
+     * read the contents of a blob without keeping them, for callers that
+     * only pass them on.  Large blobs may come back mapped.
+     * @param sha string
+     * @return bytebuffer
+     */
+    ByteBuffer readBlobContents(String sha);
+
+    /**
+     * write a commit.
+     * @param commit commitobject
+     */
+    void writeCommit(CommitObject commit);
+
+    /**
+     * write a blob.
+     * @param blob blob
+     */
+    void writeBlob(Blob blob);
+
+    /**
+     * ids of every stored commit, without repeats.
+     * @return list
+     */
+    List<String> commitIds();
+
+    /**
+     * full id of the commit uniquely abbreviated by PREFIX.
+     * @param prefix string
+     * @return string, or null if no single commit matches
+     */
+    String resolveCommit(String prefix);
+}
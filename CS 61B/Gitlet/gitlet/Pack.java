@@ -0,0 +1,304 @@
+package gitlet;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.DigestInputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** A pack: a single stream of objects sent from one repository to
+ *  another.  The stream holds a header, each object as its type, id and
+ *  stored bytes, and a trailing SHA-1 of everything before it.  Blobs
+ *  are sent before commits, and commits parents first, and are stored
+ *  in that order, so no commit is ever stored without its history.  The
+ *  receiver trusts nothing it is sent: ids must be full ids, every
+ *  object must hash to its id, and nothing is stored until the trailer
+ *  matches.
+ *  @author Swadhin Nalubola
+ */
+public class Pack {
+
+    /**
+     * Write a pack of BLOBS and then COMMITS from SOURCE to OUT.
+     * @param out outputstream
+     * @param source repo
+     * @param blobs blob ids
+     * @param commits commit ids, parents first
+     * @throws IOException on failure
+     */
+    public static void write(OutputStream out, Repo source,
+                             List<String> blobs, List<String> commits)
+        throws IOException {
+        DigestOutputStream digest =
+            new DigestOutputStream(new BufferedOutputStream(out, BUFFER),
+                                   sha1Digest());
+        DataOutputStream data = new DataOutputStream(digest);
+        data.write(MAGIC);
+        data.writeInt(VERSION);
+        data.writeInt(blobs.size() + commits.size());
+        for (String blob : blobs) {
+            writeObject(data, BLOB, blob, source.findBlobFile(blob));
+        }
+        for (String commit : commits) {
+            writeObject(data, COMMIT, commit,
+                    source.findCommitFile(commit));
+        }
+        digest.on(false);
+        data.write(digest.getMessageDigest().digest());
+        data.flush();
+    }
+
+    /**
+     * Read a pack from IN into DEST.  Each object DEST does not have yet
+     * is checked against its id and kept in a temporary directory; only
+     * once the whole pack's SHA-1 matches are they moved into the
+     * object folders, blobs first, so a damaged or forged pack stores
+     * nothing.
+     * @param in inputstream
+     * @param dest repo
+     * @return number of objects stored
+     * @throws IOException on failure
+     */
+    public static int read(InputStream in, Repo dest) throws IOException {
+        DigestInputStream digest =
+            new DigestInputStream(new BufferedInputStream(in, BUFFER),
+                                  sha1Digest());
+        DataInputStream data = new DataInputStream(digest);
+        byte[] magic = new byte[MAGIC.length];
+        data.readFully(magic);
+        if (!Arrays.equals(magic, MAGIC) || data.readInt() != VERSION) {
+            throw Utils.error("Not a gitlet pack.");
+        }
+        int count = data.readInt();
+        if (count < 0) {
+            throw Utils.error("Corrupt pack.");
+        }
+        File incoming = Files.createTempDirectory(
+                Paths.get(dest.gitletPath()), INCOMING).toFile();
+        try {
+            ArrayList<File> staged = new ArrayList<>();
+            ArrayList<File> targets = new ArrayList<>();
+            for (int i = 0; i < count; i += 1) {
+                byte type = data.readByte();
+                String id = data.readUTF();
+                int length = data.readInt();
+                if ((type != BLOB && type != COMMIT) || !isId(id)
+                        || length < 0) {
+                    throw Utils.error("Corrupt pack.");
+                }
+                boolean had = type == BLOB ? dest.objects().hasBlob(id)
+                    : dest.objects().hasCommit(id);
+                if (had) {
+                    skip(data, length);
+                    continue;
+                }
+                File temp = new File(incoming, Integer.toString(i));
+                copy(data, temp, length);
+                check(type, id, temp);
+                staged.add(temp);
+                targets.add(type == BLOB ? dest.blobFile(id)
+                            : dest.commitFile(id));
+            }
+            digest.on(false);
+            byte[] expected = digest.getMessageDigest().digest();
+            byte[] trailer = new byte[expected.length];
+            data.readFully(trailer);
+            if (!Arrays.equals(expected, trailer)) {
+                throw Utils.error("Corrupt pack.");
+            }
+            for (int i = 0; i < staged.size(); i += 1) {
+                Files.move(staged.get(i).toPath(), targets.get(i).toPath(),
+                        StandardCopyOption.ATOMIC_MOVE,
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+            return staged.size();
+        } catch (EOFException excp) {
+            throw Utils.error("Corrupt pack: it ends early.");
+        } finally {
+            File[] left = incoming.listFiles();
+            for (File file : left == null ? new File[0] : left) {
+                file.delete();
+            }
+            incoming.delete();
+        }
+    }
+
+    /**
+     * Copy the next LENGTH bytes of IN to the new file OUT.
+     * @param in stream
+     * @param out file
+     * @param length int
+     * @throws IOException on failure, or if IN ends first
+     */
+    private static void copy(DataInputStream in, File out, int length)
+        throws IOException {
+        byte[] buffer = new byte[Math.min(length, BUFFER)];
+        try (OutputStream file = Files.newOutputStream(out.toPath())) {
+            for (int left = length; left > 0;) {
+                int n = in.read(buffer, 0, Math.min(left, buffer.length));
+                if (n < 0) {
+                    throw new EOFException();
+                }
+                file.write(buffer, 0, n);
+                left -= n;
+            }
+        }
+    }
+
+    /**
+     * Read past the next LENGTH bytes of IN.  They are read rather than
+     * skipped so that they still reach the pack's digest.
+     * @param in stream
+     * @param length int
+     * @throws IOException on failure, or if IN ends first
+     */
+    private static void skip(DataInputStream in, int length)
+        throws IOException {
+        byte[] buffer = new byte[Math.min(length, BUFFER)];
+        for (int left = length; left > 0;) {
+            int n = in.read(buffer, 0, Math.min(left, buffer.length));
+            if (n < 0) {
+                throw new EOFException();
+            }
+            left -= n;
+        }
+    }
+
+    /**
+     * Check that FILE holds an object of TYPE whose id is ID: a blob
+     * whose contents hash to ID, or a commit whose fields do and whose
+     * paths are valid snapshot entries (see CommitObject.validPath).
+     * Objects in Java serialization, which only local files may hold,
+     * are refused unread, and so are commits with old ids, which hash
+     * only the timestamp and message and so vouch for nothing else; a
+     * receiver can only take those it already has.
+     * @param type byte
+     * @param id string
+     * @param file file
+     */
+    private static void check(byte type, String id, File file) {
+        ByteBuffer buf = FileObjectDatabase.read(file);
+        if (ObjectCodec.isLegacy(buf)) {
+            throw Utils.error("Corrupt pack: %s is not encoded.", id);
+        }
+        String hashed;
+        if (type == BLOB) {
+            if (!id.equals(ObjectCodec.blobId(buf.duplicate()))) {
+                throw Utils.error("Corrupt pack: blob %s.", id);
+            }
+            MessageDigest sha1 = sha1Digest();
+            sha1.update(ObjectCodec.blobContents(buf));
+            StringBuilder hex = new StringBuilder();
+            for (byte b : sha1.digest()) {
+                hex.append(String.format("%02x", b));
+            }
+            hashed = hex.toString();
+        } else {
+            CommitObject commit = ObjectCodec.decodeCommit(buf);
+            for (String path : commit.getTrackedBlobs().keySet()) {
+                if (!CommitObject.validPath(path)) {
+                    throw Utils.error("Corrupt pack: bad path %s in %s.",
+                            path, id);
+                }
+            }
+            if (id.equals(commit.getSHA())
+                    && id.equals(ObjectCodec.legacyCommitId(commit))) {
+                throw Utils.error("Corrupt pack: %s has an id from before "
+                        + "commits were content addressed.", id);
+            }
+            hashed = !id.equals(commit.getSHA()) ? null
+                : ObjectCodec.commitId(commit);
+        }
+        if (!id.equals(hashed)) {
+            throw Utils.error("Corrupt pack: hash mismatch in %s.", id);
+        }
+    }
+
+    /**
+     * Is ID a full object id: 40 lower-case hex digits.
+     * @param id string
+     * @return boolean
+     */
+    static boolean isId(String id) {
+        if (id.length() != Utils.UID_LENGTH) {
+            return false;
+        }
+        for (int i = 0; i < id.length(); i += 1) {
+            char c = id.charAt(i);
+            if ((c < '0' || c > '9') && (c < 'a' || c > 'f')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Write one object record.  Objects stored by earlier versions with
+     * Java serialization are sent in the current encoding, which is all
+     * a receiver accepts.
+     * @param data stream
+     * @param type byte
+     * @param id string
+     * @param file the stored object
+     * @throws IOException on failure
+     */
+    private static void writeObject(DataOutputStream data, byte type,
+                                    String id, File file) throws IOException {
+        data.writeByte(type);
+        data.writeUTF(id);
+        ByteBuffer stored = FileObjectDatabase.read(file);
+        if (ObjectCodec.isLegacy(stored)) {
+            byte[] bytes = type == BLOB
+                ? ObjectCodec.encode(ObjectCodec.decodeBlob(stored))
+                : ObjectCodec.encode(ObjectCodec.decodeCommit(stored));
+            data.writeInt(bytes.length);
+            data.write(bytes);
+        } else {
+            data.writeInt(stored.remaining());
+            Channels.newChannel(data).write(stored);
+        }
+    }
+
+    /**
+     * A fresh SHA-1 digest.
+     * @return messagedigest
+     */
+    private static MessageDigest sha1Digest() {
+        try {
+            return MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException excp) {
+            throw new IllegalArgumentException(
+                    "System does not support SHA-1");
+        }
+    }
+
+    /** First bytes of every pack. */
+    private static final byte[] MAGIC = {'G', 'L', 'P', 'K'};
+    /** Pack format version. */
+    private static final int VERSION = 1;
+    /** Record type of blobs. */
+    private static final byte BLOB = 1;
+    /** Record type of commits. */
+    private static final byte COMMIT = 2;
+    /** Prefix of the directory objects are kept in until the pack is
+     *  checked. */
+    private static final String INCOMING = "incoming";
+    /** Stream buffer size. */
+    private static final int BUFFER = 1 << 16;
+}
@@ -0,0 +1,21 @@
+package gitlet;
+
+/** Command for pack-refs, which folds loose branch heads into the
+ *  sorted packed-refs file, under the shared lock.
+ *  @author Swadhin Nalubola
+ */
+public class PackRefs extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, 0, true)) {
+            System.exit(0);
+        }
+        repo.lockShared();
+        try {
+            repo.refs().pack();
+        } finally {
+            repo.unlockShared();
+        }
+    }
+}
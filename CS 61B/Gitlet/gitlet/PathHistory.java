@@ -0,0 +1,122 @@
+package gitlet;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/** Which commits touched a path.  History is followed by first parents,
+ *  as log does, and a commit touches a path when the path's blob differs
+ *  from its first parent's.  Commits in the commit graph whose Bloom
+ *  filter rules the path out are skipped without being loaded.
+ *  @author Swadhin Nalubola
+ */
+public class PathHistory {
+
+    /**
+     * Initialize path history.
+     * @param repo repo
+     */
+    public PathHistory(Repo repo) {
+        _repo = repo;
+        _graph = repo.commitGraph();
+    }
+
+    /**
+     * The commits from START back that touched PATH, newest first,
+     * found as the iterator advances.
+     * @param path string
+     * @param start commit sha
+     * @return iterator of commit shas
+     */
+    public Iterator<String> touching(String path, String start) {
+        return new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                if (_next == null) {
+                    _next = advance();
+                }
+                return _next != null;
+            }
+
+            @Override
+            public String next() {
+                if (!hasNext()) {
+                    throw new NoSuchElementException();
+                }
+                String next = _next;
+                _next = null;
+                return next;
+            }
+
+            /**
+             * Walk to the next commit that touched PATH.
+             * @return string, or null at the end of history
+             */
+            private String advance() {
+                while (_current != null) {
+                    String sha = _current;
+                    if (_graph.contains(sha) && !_graph.mayChange(sha, path)) {
+                        _current = _graph.parent(sha);
+                        _skipped += 1;
+                        continue;
+                    }
+                    CommitObject commit = _repo.objects().readCommit(sha);
+                    if (commit == null) {
+                        _current = null;
+                        return null;
+                    }
+                    _current = commit.getParentSHA();
+                    _loaded += 1;
+                    if (touches(commit, path)) {
+                        return sha;
+                    }
+                }
+                return null;
+            }
+
+            /** commit to look at next. */
+            private String _current = start;
+            /** next commit to return, once found. */
+            private String _next;
+        };
+    }
+
+    /**
+     * Did COMMIT change PATH from its first parent.
+     * @param commit commitobject
+     * @param path string
+     * @return boolean
+     */
+    public boolean touches(CommitObject commit, String path) {
+        CommitObject parent =
+            _repo.objects().readCommit(commit.getParentSHA());
+        String before = parent == null
+            ? null : parent.getTrackedBlobs().get(path);
+        return !Objects.equals(before, commit.getTrackedBlobs().get(path));
+    }
+
+    /**
+     * Number of commits skipped by their Bloom filters so far.
+     * @return long
+     */
+    public long skipped() {
+        return _skipped;
+    }
+
+    /**
+     * Number of commits loaded so far.
+     * @return long
+     */
+    public long loaded() {
+        return _loaded;
+    }
+
+    /** the repo. */
+    private final Repo _repo;
+    /** its commit graph. */
+    private final CommitGraph _graph;
+    /** commits skipped by their filters. */
+    private long _skipped;
+    /** commits loaded. */
+    private long _loaded;
+}
@@ -0,0 +1,18 @@
+package gitlet;
+
+/** Command for pull, which fetches a remote branch and merges it into
+ *  the current branch.
+ *  @author Swadhin Nalubola
+ */
+public class Pull extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, 2, true)) {
+            System.exit(0);
+        }
+
+        String fetched = new Fetch().fetch(repo, args[0], args[1]);
+        new Merge().run(repo, new String[]{fetched});
+    }
+}
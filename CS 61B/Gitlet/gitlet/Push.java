@@ -0,0 +1,49 @@
+package gitlet;
+
+/** Command for push, which appends the current branch's new commits to
+ *  a branch of a remote.  A branch checked out in one of the remote's
+ *  worktrees is refused, as moving it would leave that working
+ *  directory and stage behind.
+ *  @author Swadhin Nalubola
+ */
+public class Push extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, 2, true)) {
+            System.exit(0);
+        }
+
+        Stage stage = repo.readStage();
+        String remoteName = args[0];
+        String branch = args[1];
+        Repo remote = Transport.openRemote(repo, remoteName);
+        if (remote == null) {
+            System.out.println("Remote directory not found.");
+            System.exit(0);
+        }
+
+        String localHead = stage.getHead();
+        remote.lock();
+        if (branch.equals(remote.readStage().getBranch())
+                || remote.otherWorktree(branch) != null) {
+            System.out.println("The remote has that branch checked out.");
+            System.exit(0);
+        }
+        String remoteHead = remote.refs().get(branch);
+        Transport.Negotiation negotiation =
+            Transport.negotiate(repo, remote, localHead);
+        if (remoteHead != null && !negotiation.haves().contains(remoteHead)
+                && !Transport.isAncestor(repo, remoteHead, localHead)) {
+            System.out.println("Please pull down remote changes "
+                    + "before pushing.");
+            System.exit(0);
+        }
+        Transport.transfer(repo, remote, negotiation);
+        if (!remote.refs().compareAndSet(branch, remoteHead, localHead)) {
+            System.out.println("Please pull down remote changes "
+                    + "before pushing.");
+            System.exit(0);
+        }
+    }
+}
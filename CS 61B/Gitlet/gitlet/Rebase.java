@@ -0,0 +1,96 @@
+package gitlet;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+
+/** Command for rebase BRANCH, which replays the current branch's commits
+ *  that BRANCH lacks on top of BRANCH's head, as cherry-pick does, so the
+ *  working directory is changed once however many commits move.  Those
+ *  are all the commits reachable from the head, through either parent of
+ *  a merge, and not from BRANCH; each is replayed after its parents.
+ *  Merge commits are dropped, their changes being in the commits they
+ *  merged, so the result is a single line of commits.
+ *  @author Swadhin Nalubola
+ */
+public class Rebase extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, 1, true)) {
+            System.exit(0);
+        }
+        Stage stage = repo.readStage();
+        String upstream = repo.refs().get(args[0]);
+        if (!stage.getStaged().isEmpty() || !stage.getRemoved().isEmpty()) {
+            System.out.println("You have uncommitted changes.");
+            System.exit(0);
+        } else if (upstream == null) {
+            System.out.println("A branch with that name does not exist.");
+            System.exit(0);
+        } else if (args[0].equals(stage.getBranch())) {
+            System.out.println("Cannot rebase a branch onto itself.");
+            System.exit(0);
+        }
+        HashSet<String> behind = Transport.ancestors(repo, upstream);
+        if (behind.contains(stage.getHead())) {
+            new CherryPick().replay(repo, stage, upstream,
+                    new ArrayList<>());
+            System.out.println("Current branch fast-forwarded.");
+            return;
+        }
+        if (Transport.isAncestor(repo, upstream, stage.getHead())) {
+            System.out.println("Already up-to-date.");
+            System.exit(0);
+        }
+        new CherryPick().replay(repo, stage, upstream,
+                picks(repo, stage.getHead(), behind));
+    }
+
+    /**
+     * The commits reachable from HEAD and not in BEHIND, merges left
+     * out, each after its parents.  A depth-first walk lists a commit
+     * once everything under it is listed, taking first parents first so
+     * that each line of work stays together.  A commit reached twice is
+     * pushed twice, and listed from whichever copy is reached first.
+     * @param repo repo
+     * @param head commit sha
+     * @param behind commit shas
+     * @return list of commit shas
+     */
+    private static List<String> picks(Repo repo, String head,
+                                      HashSet<String> behind) {
+        List<String> picks = new ArrayList<>();
+        HashMap<String, CommitObject> open = new HashMap<>();
+        HashSet<String> done = new HashSet<>();
+        ArrayDeque<String> stack = new ArrayDeque<>();
+        stack.push(head);
+        while (!stack.isEmpty()) {
+            String sha = stack.peek();
+            CommitObject commit = open.get(sha);
+            if (done.contains(sha)) {
+                stack.pop();
+            } else if (commit == null) {
+                commit = repo.objects().readCommit(sha);
+                open.put(sha, commit);
+                for (String parent : new String[] {commit.getParent2SHA(),
+                                                   commit.getParentSHA()}) {
+                    if (parent != null && !behind.contains(parent)
+                            && !done.contains(parent)) {
+                        stack.push(parent);
+                    }
+                }
+            } else {
+                stack.pop();
+                open.remove(sha);
+                done.add(sha);
+                if (commit.getParent2SHA() == null) {
+                    picks.add(sha);
+                }
+            }
+        }
+        return picks;
+    }
+}
@@ -0,0 +1,637 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.stream.Stream;
+
+/** Store for branch heads.  Recently updated refs are kept as loose
+ *  files under the refs directory, one file per ref holding its commit
+ *  sha1.  Older refs are folded into a single packed-refs file sorted by
+ *  name, which is searched in place, so looking up or listing a few refs
+ *  does not read every ref in the repository.  A loose ref shadows a
+ *  packed one of the same name.  Every name is checked (see validName)
+ *  before it is looked up or changed, so a ref file is always inside
+ *  the refs directory.
+ *  @author Swadhin Nalubola
+ */
+public class RefStore {
+
+    /**
+     * Initialize ref store.
+     * @param refsDir directory of loose refs
+     * @param packedRefs packed-refs file
+     */
+    public RefStore(File refsDir, File packedRefs) {
+        _refsDir = refsDir;
+        _packedRefs = packedRefs;
+    }
+
+    /**
+     * Get the commit sha1 a ref points to.
+     * @param name string
+     * @return string, or null if there is no such ref
+     */
+    public String get(String name) {
+        checkName(name);
+        File loose = looseFile(name);
+        if (loose.isFile()) {
+            return Utils.readContentsAsString(loose).trim();
+        }
+        return packedGet(name);
+    }
+
+    /**
+     * Does a ref exist.
+     * @param name string
+     * @return boolean
+     */
+    public boolean contains(String name) {
+        return get(name) != null;
+    }
+
+    /**
+     * Atomically change a ref from EXPECTED to UPDATE.  A null EXPECTED
+     * means the ref must not exist yet; a null UPDATE deletes the ref.
+     * @param name string
+     * @param expected string
+     * @param update string
+     * @return boolean, false if the ref did not hold EXPECTED
+     */
+    public boolean compareAndSet(String name, String expected,
+                                 String update) {
+        checkName(name);
+        if (expected == null && update != null) {
+            String clash = clash(name);
+            if (clash != null) {
+                throw Utils.error("Ref %s conflicts with ref %s.", name,
+                        clash);
+            }
+        }
+        File loose = looseFile(name);
+        File lock = lock(new File(loose.getPath() + LOCK_SUFFIX));
+        boolean released = false;
+        boolean deleted = false;
+        try {
+            String current = get(name);
+            if (current == null ? expected != null
+                    : !current.equals(expected)) {
+                return false;
+            }
+            if (update == null) {
+                if (packedGet(name) != null) {
+                    rewritePacked(name);
+                }
+                loose.delete();
+                deleted = true;
+            } else {
+                commit(lock, loose, update + "\n");
+                released = true;
+            }
+            return true;
+        } catch (IOException excp) {
+            throw Utils.error("Could not update ref %s.", name);
+        } finally {
+            if (!released) {
+                lock.delete();
+            }
+            if (deleted) {
+                pruneDirs(loose.getParentFile());
+            }
+        }
+    }
+
+    /**
+     * Is NAME usable as a ref name: parts separated by slashes, none of
+     * them empty, "." or "..", ending in .lock (the suffix of lock files)
+     * or holding a backslash or control character.
+     * @param name string
+     * @return boolean
+     */
+    public static boolean validName(String name) {
+        for (String part : name.split("/", -1)) {
+            if (part.isEmpty() || part.equals(".") || part.equals("..")
+                    || part.endsWith(LOCK_SUFFIX)) {
+                return false;
+            }
+            for (int i = 0; i < part.length(); i += 1) {
+                if (part.charAt(i) < ' ' || part.charAt(i) == '\\') {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Check that NAME is usable as a ref name, so that it names a file
+     * inside the refs directory.
+     * @param name string
+     */
+    static void checkName(String name) {
+        if (!validName(name)) {
+            throw Utils.error("Invalid ref name %s.", name);
+        }
+    }
+
+    /**
+     * A ref that new ref NAME cannot live beside, because one would be a
+     * directory of the other's loose file.
+     * @param name string
+     * @return string, or null if there is none
+     */
+    private String clash(String name) {
+        for (int slash = name.indexOf('/'); slash >= 0;
+             slash = name.indexOf('/', slash + 1)) {
+            if (get(name.substring(0, slash)) != null) {
+                return name.substring(0, slash);
+            }
+        }
+        Iterator<String> below = names(name + "/");
+        return below.hasNext() ? below.next() : null;
+    }
+
+    /**
+     * Delete DIR and its parents below the refs directory while they are
+     * empty, so that a deleted ref's directories do not block a ref of
+     * their name.
+     * @param dir file
+     */
+    private void pruneDirs(File dir) {
+        while (!dir.equals(_refsDir) && dir.delete()) {
+            dir = dir.getParentFile();
+        }
+    }
+
+    /**
+     * Point a ref at SHA1, whatever it held before.
+     * @param name string
+     * @param sha1 string
+     */
+    public void set(String name, String sha1) {
+        String current;
+        do {
+            current = get(name);
+        } while (!compareAndSet(name, current, sha1));
+    }
+
+    /**
+     * Delete a ref.
+     * @param name string
+     * @return boolean, false if there was no such ref
+     */
+    public boolean delete(String name) {
+        String current = get(name);
+        return current != null && compareAndSet(name, current, null);
+    }
+
+    /**
+     * Names of all refs starting with PREFIX, in sorted order.  Packed
+     * refs are read lazily as the iterator advances.
+     * @param prefix string
+     * @return iterator
+     */
+    public Iterator<String> names(String prefix) {
+        Iterator<String> packed = packedLines(mapPacked(), prefix);
+        return new MergedNames(looseNames(prefix), new Iterator<String>() {
+            @Override
+            public boolean hasNext() {
+                return packed.hasNext();
+            }
+
+            @Override
+            public String next() {
+                return packed.next().substring(Utils.UID_LENGTH + 1);
+            }
+        });
+    }
+
+    /**
+     * Copy every ref of SOURCE into this empty store.  Packed refs are
+     * copied as one file rather than ref by ref.
+     * @param source refstore
+     */
+    public void copyFrom(RefStore source) {
+        try {
+            if (source._packedRefs.isFile()) {
+                Files.copy(source._packedRefs.toPath(), _packedRefs.toPath(),
+                        StandardCopyOption.REPLACE_EXISTING);
+            }
+        } catch (IOException excp) {
+            throw Utils.error("Could not copy packed refs.");
+        }
+        for (String name : source.looseNames("")) {
+            set(name, source.get(name));
+        }
+    }
+
+    /**
+     * Fold every loose ref into the packed-refs file.
+     * @return number of refs packed
+     */
+    public int pack() {
+        File packLock = lock(new File(_packedRefs.getPath() + LOCK_SUFFIX));
+        ArrayList<String> loose;
+        boolean released = false;
+        try {
+            loose = looseNames("");
+            StringBuilder out = new StringBuilder(PACKED_HEADER);
+            Iterator<String> packed = packedLines(mapPacked(), "");
+            String line = packed.hasNext() ? packed.next() : null;
+            for (String name : loose) {
+                while (line != null && nameOf(line).compareTo(name) < 0) {
+                    out.append(line).append('\n');
+                    line = packed.hasNext() ? packed.next() : null;
+                }
+                if (line != null && nameOf(line).equals(name)) {
+                    line = packed.hasNext() ? packed.next() : null;
+                }
+                String sha1 = Utils.readContentsAsString(looseFile(name));
+                out.append(sha1.trim()).append(' ').append(name)
+                    .append('\n');
+            }
+            while (line != null) {
+                out.append(line).append('\n');
+                line = packed.hasNext() ? packed.next() : null;
+            }
+            commit(packLock, _packedRefs, out.toString());
+            released = true;
+        } catch (IOException excp) {
+            throw Utils.error("Could not write packed refs.");
+        } finally {
+            if (!released) {
+                packLock.delete();
+            }
+        }
+        for (String name : loose) {
+            File looseFile = looseFile(name);
+            File lock = lock(new File(looseFile.getPath() + LOCK_SUFFIX));
+            try {
+                String sha1 = Utils.readContentsAsString(looseFile).trim();
+                if (sha1.equals(packedGet(name))) {
+                    looseFile.delete();
+                }
+            } finally {
+                lock.delete();
+            }
+        }
+        return loose.size();
+    }
+
+    /**
+     * Loose file for ref NAME.
+     * @param name string
+     * @return file
+     */
+    private File looseFile(String name) {
+        return new File(_refsDir, name);
+    }
+
+    /**
+     * Take the lock file LOCK, waiting briefly for another writer.
+     * @param lock file
+     * @return lock
+     */
+    private File lock(File lock) {
+        for (int tries = 0; tries < LOCK_TRIES; tries += 1) {
+            try {
+                lock.getParentFile().mkdirs();
+                Files.createFile(lock.toPath());
+                return lock;
+            } catch (FileAlreadyExistsException excp) {
+                try {
+                    Thread.sleep(LOCK_WAIT);
+                } catch (InterruptedException interrupt) {
+                    break;
+                }
+            } catch (IOException excp) {
+                break;
+            }
+        }
+        throw Utils.error("Unable to lock %s; another gitlet process "
+                + "may be running.", lock.getName());
+    }
+
+    /**
+     * Write CONTENTS to the held LOCK and rename it over TARGET, which
+     * publishes the new value and releases the lock in one step.
+     * @param lock file
+     * @param target file
+     * @param contents string
+     * @throws IOException on failure
+     */
+    private static void commit(File lock, File target, String contents)
+        throws IOException {
+        Utils.writeContents(lock, contents);
+        Files.move(lock.toPath(), target.toPath(),
+                StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Sorted names of loose refs starting with PREFIX.
+     * @param prefix string
+     * @return list
+     */
+    private ArrayList<String> looseNames(String prefix) {
+        ArrayList<String> names = new ArrayList<>();
+        if (!_refsDir.isDirectory()) {
+            return names;
+        }
+        Path root = _refsDir.toPath();
+        try (Stream<Path> paths = Files.walk(root)) {
+            paths.filter(Files::isRegularFile)
+                .map(p -> root.relativize(p).toString()
+                        .replace(File.separatorChar, '/'))
+                .filter(n -> n.startsWith(prefix) && !n.endsWith(LOCK_SUFFIX))
+                .forEach(names::add);
+        } catch (IOException excp) {
+            throw Utils.error("Could not list refs.");
+        }
+        Collections.sort(names);
+        return names;
+    }
+
+    /**
+     * Map the packed-refs file, or return null if there is none.
+     * @return buffer
+     */
+    private MappedByteBuffer mapPacked() {
+        if (!_packedRefs.isFile()) {
+            return null;
+        }
+        try (RandomAccessFile file = new RandomAccessFile(_packedRefs, "r");
+             FileChannel channel = file.getChannel()) {
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0,
+                    channel.size());
+        } catch (IOException excp) {
+            throw Utils.error("Could not read packed refs.");
+        }
+    }
+
+    /**
+     * Offset of the first record in BUF at or after POS.
+     * @param buf buffer
+     * @param pos int
+     * @return int
+     */
+    private static int lineStart(MappedByteBuffer buf, int pos) {
+        if (pos == 0) {
+            return 0;
+        }
+        while (pos < buf.limit() && buf.get(pos - 1) != '\n') {
+            pos += 1;
+        }
+        return pos;
+    }
+
+    /**
+     * Offset just past the end of the record starting at POS.
+     * @param buf buffer
+     * @param pos int
+     * @return int
+     */
+    private static int lineEnd(MappedByteBuffer buf, int pos) {
+        while (pos < buf.limit() && buf.get(pos) != '\n') {
+            pos += 1;
+        }
+        return Math.min(pos + 1, buf.limit());
+    }
+
+    /**
+     * Ref name of the record from START to END, or null for the header.
+     * @param buf buffer
+     * @param start int
+     * @param end int
+     * @return string
+     */
+    private static String recordName(MappedByteBuffer buf, int start,
+                                     int end) {
+        String line = record(buf, start, end);
+        return line == null ? null : nameOf(line);
+    }
+
+    /**
+     * The record from START to END without its newline, or null for the
+     * header.
+     * @param buf buffer
+     * @param start int
+     * @param end int
+     * @return string
+     */
+    private static String record(MappedByteBuffer buf, int start, int end) {
+        if (buf.get(start) == '#') {
+            return null;
+        }
+        int recordEnd = buf.get(end - 1) == '\n' ? end - 1 : end;
+        byte[] line = new byte[recordEnd - start];
+        ByteBuffer view = buf.duplicate();
+        view.position(start);
+        view.get(line);
+        return new String(line, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Ref name in packed record LINE.
+     * @param line string
+     * @return string
+     */
+    private static String nameOf(String line) {
+        return line.substring(Utils.UID_LENGTH + 1);
+    }
+
+    /**
+     * Offset of the first packed record whose name is at least KEY.
+     * @param buf buffer
+     * @param key string
+     * @return int
+     */
+    private static int lowerBound(MappedByteBuffer buf, String key) {
+        int lo = 0;
+        int hi = buf.limit();
+        while (lo < hi) {
+            int start = lineStart(buf, (lo + hi) >>> 1);
+            if (start >= hi) {
+                start = lo;
+            }
+            int end = lineEnd(buf, start);
+            String name = recordName(buf, start, end);
+            if (name == null || name.compareTo(key) < 0) {
+                lo = end;
+            } else {
+                hi = start;
+            }
+        }
+        return lo;
+    }
+
+    /**
+     * Binary search the packed-refs file for NAME.
+     * @param name string
+     * @return sha1, or null
+     */
+    private String packedGet(String name) {
+        MappedByteBuffer buf = mapPacked();
+        if (buf == null) {
+            return null;
+        }
+        int start = lowerBound(buf, name);
+        if (start >= buf.limit()) {
+            return null;
+        }
+        String line = record(buf, start, lineEnd(buf, start));
+        if (line == null || !nameOf(line).equals(name)) {
+            return null;
+        }
+        return line.substring(0, Utils.UID_LENGTH);
+    }
+
+    /**
+     * Lazily iterate the records of BUF whose ref names start with PREFIX.
+     * @param buf buffer, or null if there is no packed-refs file
+     * @param prefix string
+     * @return iterator
+     */
+    private static Iterator<String> packedLines(MappedByteBuffer buf,
+                                                String prefix) {
+        if (buf == null) {
+            return Collections.emptyIterator();
+        }
+        return new Iterator<String>() {
+            /** Offset of the record after _next. */
+            private int _pos = lowerBound(buf, prefix);
+            /** Next record to return, or null. */
+            private String _next = advance();
+
+            /** Read the record at _pos.
+             *  @return string, or null at the end of the range */
+            private String advance() {
+                if (_pos >= buf.limit()) {
+                    return null;
+                }
+                int end = lineEnd(buf, _pos);
+                String line = record(buf, _pos, end);
+                _pos = end;
+                if (line == null || !nameOf(line).startsWith(prefix)) {
+                    return null;
+                }
+                return line;
+            }
+
+            @Override
+            public boolean hasNext() {
+                return _next != null;
+            }
+
+            @Override
+            public String next() {
+                if (_next == null) {
+                    throw new NoSuchElementException();
+                }
+                String result = _next;
+                _next = advance();
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Rewrite the packed-refs file without ref NAME.
+     * @param name string
+     * @throws IOException on failure
+     */
+    private void rewritePacked(String name) throws IOException {
+        File packLock = lock(new File(_packedRefs.getPath() + LOCK_SUFFIX));
+        boolean released = false;
+        try {
+            StringBuilder out = new StringBuilder(PACKED_HEADER);
+            Iterator<String> lines = packedLines(mapPacked(), "");
+            while (lines.hasNext()) {
+                String line = lines.next();
+                if (!nameOf(line).equals(name)) {
+                    out.append(line).append('\n');
+                }
+            }
+            commit(packLock, _packedRefs, out.toString());
+            released = true;
+        } finally {
+            if (!released) {
+                packLock.delete();
+            }
+        }
+    }
+
+    /** Sorted union of loose and packed names; loose entries win ties. */
+    private static class MergedNames implements Iterator<String> {
+
+        /**
+         * Merge LOOSE and PACKED.
+         * @param loose sorted list
+         * @param packed sorted iterator
+         */
+        MergedNames(ArrayList<String> loose, Iterator<String> packed) {
+            _loose = loose.iterator();
+            _packed = packed;
+            _nextLoose = _loose.hasNext() ? _loose.next() : null;
+            _nextPacked = _packed.hasNext() ? _packed.next() : null;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return _nextLoose != null || _nextPacked != null;
+        }
+
+        @Override
+        public String next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            String result;
+            if (_nextPacked == null || (_nextLoose != null
+                    && _nextLoose.compareTo(_nextPacked) <= 0)) {
+                result = _nextLoose;
+                _nextLoose = _loose.hasNext() ? _loose.next() : null;
+            } else {
+                result = _nextPacked;
+            }
+            if (result.equals(_nextPacked)) {
+                _nextPacked = _packed.hasNext() ? _packed.next() : null;
+            }
+            return result;
+        }
+
+        /** loose names. */
+        private final Iterator<String> _loose;
+        /** packed names. */
+        private final Iterator<String> _packed;
+        /** next loose name. */
+        private String _nextLoose;
+        /** next packed name. */
+        private String _nextPacked;
+    }
+
+    /** Suffix of lock files. */
+    private static final String LOCK_SUFFIX = ".lock";
+    /** First line of the packed-refs file. */
+    private static final String PACKED_HEADER = "# gitlet packed-refs\n";
+    /** Times to retry a held lock. */
+    private static final int LOCK_TRIES = 50;
+    /** Milliseconds between lock retries. */
+    private static final long LOCK_WAIT = 20;
+
+    /** directory of loose refs. */
+    private final File _refsDir;
+    /** packed-refs file. */
+    private final File _packedRefs;
+}
@@ -13,7 +13,7 @@ public class Remove extends Command {
             System.exit(0);
         }
 
-        Stage stage = Utils.readObject(repo.stageFile(), Stage.class);
+        Stage stage = repo.readStage();
         String toRemove = args[0];
         if (!stage.isStaged(toRemove) && !stage.isTracked(toRemove)) {
             System.out.println("No reason to remove the file.");
@@ -30,6 +30,6 @@ public class Remove extends Command {
             stage.unStage(toRemove, sha);
         }
 
-        Utils.writeObject(repo.stageFile(), stage);
+        repo.writeStage(stage);
     }
 }
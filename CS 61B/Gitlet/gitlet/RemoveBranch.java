@@ -11,19 +11,20 @@ public class RemoveBranch extends Command {
             System.exit(0);
         }
 
-        Stage stage = Utils.readObject(repo.stageFile(), Stage.class);
+        Stage stage = repo.readStage();
         String removeBranch = args[0];
         String currentBranch = stage.getBranch();
 
-        if (!stage.getBranches().containsKey(removeBranch)) {
-            System.out.println("A branch with that name does not exist.");
-            System.exit(0);
-        } else if (removeBranch.equals(currentBranch)) {
+        if (removeBranch.equals(currentBranch)) {
             System.out.println("Cannot remove the current branch.");
             System.exit(0);
+        } else if (repo.otherWorktree(removeBranch) != null) {
+            System.out.println("Cannot remove a branch checked out in "
+                    + repo.otherWorktree(removeBranch) + ".");
+            System.exit(0);
+        } else if (!repo.refs().delete(removeBranch)) {
+            System.out.println("A branch with that name does not exist.");
+            System.exit(0);
         }
-        stage.getBranches().remove(removeBranch);
-
-        Utils.writeObject(repo.stageFile(), stage);
     }
 }
@@ -0,0 +1,22 @@
+package gitlet;
+
+import java.io.File;
+
+/** Command for rm-remote.
+ *  @author Swadhin Nalubola
+ */
+public class RemoveRemote extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, 1, true)) {
+            System.exit(0);
+        }
+
+        File remoteFile = Transport.remoteFile(repo, args[0]);
+        if (!remoteFile.delete()) {
+            System.out.println("A remote with that name does not exist.");
+            System.exit(0);
+        }
+    }
+}
@@ -1,8 +1,26 @@
 package gitlet;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
 
-/** Repository in gitlet.
+/** Repository in gitlet.  A working directory's .gitlet is either the
+ *  repository itself or, for a worktree added by "worktree add", a file
+ *  "gitdir: DIR" naming the worktree's own directory
+ *  .gitlet/worktrees/NAME of the main repository.  That directory holds
+ *  the worktree's stage (its index and head), writer lock, watcher files
+ *  and sparse checkout patterns; everything else, objects and refs
+ *  included, is the main repository's.
  * @author Swadhin Nalubola
  */
 public class Repo {
@@ -13,12 +31,49 @@ public class Repo {
      */
     public Repo(String workingDirectory) {
         _workingDirectory = workingDirectory;
+        File gitlet = Utils.join(workingDirectory, ".gitlet");
+        File worktree = gitlet.isFile() ? linkedWorktree(gitlet) : null;
+        _gitletPath = dir(worktree == null ? gitlet
+                          : worktree.getParentFile().getParentFile());
+        _worktreePath = worktree == null ? _gitletPath : dir(worktree);
+        _worktreesPath = dir(Utils.join(_gitletPath, WORKTREES));
+        _commitPath = dir(Utils.join(_gitletPath, "commit"));
+        _blobPath = dir(Utils.join(_gitletPath, "blobs"));
+        _stagePath = dir(Utils.join(_worktreePath, "stage"));
+        _stageFile = Utils.join(_stagePath, "staging.ser");
+        _refsPath = dir(Utils.join(_gitletPath, "refs"));
+        _packedRefsFile = Utils.join(_gitletPath, "packed-refs");
+        _remotesPath = dir(Utils.join(_gitletPath, "remotes"));
+        _alternatesFile = Utils.join(_gitletPath, "alternates");
+        _cachePath = dir(Utils.join(_gitletPath, "cache"));
+        _watchPath = dir(Utils.join(_worktreePath, "watch"));
+        _blamePath = dir(Utils.join(_gitletPath, "blame"));
+        _configFile = Utils.join(_gitletPath, "config");
+        _commitGraphFile = Utils.join(_gitletPath, "commit-graph");
+        _sparseCheckoutFile = Utils.join(_worktreePath, "sparse-checkout");
+        _stashFile = Utils.join(_gitletPath, "stash");
     }
 
     /**
      * INITIALIZE repo.
      */
     public void init() {
+        create();
+        lock();
+
+        Stage stage = new Stage();
+        stage.setHead(null);
+        stage.setBranch("master");
+        writeStage(stage);
+
+        Commit commit = new Commit();
+        commit.run(this, new String[]{"initial commit"});
+    }
+
+    /**
+     * Create the directories of an empty repo.
+     */
+    public void create() {
         if (new File(_gitletPath).exists()) {
             System.out.println("A Gitlet version-control "
                     + "system already exists in the current directory.");
@@ -29,15 +84,115 @@ public class Repo {
         new File(_commitPath).mkdirs();
         new File(_blobPath).mkdirs();
         new File(_stagePath).mkdirs();
+        new File(_refsPath).mkdirs();
+    }
 
-        _stage = new Stage();
-        _stage.setHead(null);
-        _stage.setBranch("master");
-        _stage.addBranch("master", null);
-        Utils.writeObject(_stageFile, _stage);
+    /**
+     * Take the writer lock, index.lock in the worktree's directory, until
+     * unlock or the end of this process.  Only one process at a time may
+     * change a worktree's stage; readers never take the lock.  Worktrees
+     * share refs, which are moved with compare-and-set, and objects,
+     * which never change once written.  Taking it again is a no-op.
+     */
+    public void lock() {
+        if (_locked) {
+            return;
+        }
+        create(Utils.join(_worktreePath, "index.lock"));
+        _locked = true;
+        unlockAtExit();
+    }
 
-        Commit commit = new Commit();
-        commit.run(this, new String[]{"initial commit"});
+    /**
+     * Release the writer lock, if this process holds it.  Commands keep
+     * it until the process exits; library callers release it when done.
+     */
+    public void unlock() {
+        if (_locked) {
+            _locked = false;
+            Utils.join(_worktreePath, "index.lock").delete();
+        }
+    }
+
+    /**
+     * Take the shared lock, shared.lock in the gitlet path, for a change
+     * to a file that every worktree shares and rewrites whole: the stash
+     * list, packed-refs and the commit graph.  The writer lock covers one
+     * worktree only, so without this two worktrees could each read such
+     * a file and the later write lose the earlier one's change.  Take it
+     * after the writer lock, never before, and release it with
+     * unlockShared; nested takes are counted.
+     */
+    public void lockShared() {
+        if (_sharedDepth == 0) {
+            create(Utils.join(_gitletPath, SHARED_LOCK));
+            unlockAtExit();
+        }
+        _sharedDepth += 1;
+    }
+
+    /**
+     * Release the shared lock once every lockShared has been matched.
+     */
+    public void unlockShared() {
+        if (_sharedDepth > 0) {
+            _sharedDepth -= 1;
+            if (_sharedDepth == 0) {
+                Utils.join(_gitletPath, SHARED_LOCK).delete();
+            }
+        }
+    }
+
+    /**
+     * Create the lock file LOCK, waiting for a while if another process
+     * holds it.
+     * @param lock file
+     */
+    private static void create(File lock) {
+        for (int tries = 0;; tries += 1) {
+            try {
+                Files.createFile(lock.toPath());
+                return;
+            } catch (FileAlreadyExistsException excp) {
+                if (tries >= LOCK_TRIES) {
+                    throw Utils.error("Unable to lock %s; another gitlet "
+                            + "process is running, or remove the file if "
+                            + "it crashed.", lock.getPath());
+                }
+                try {
+                    Thread.sleep(LOCK_WAIT);
+                } catch (InterruptedException interrupt) {
+                    throw Utils.error("Unable to lock %s.", lock.getPath());
+                }
+            } catch (IOException excp) {
+                throw Utils.error("Unable to lock %s.", lock.getPath());
+            }
+        }
+    }
+
+    /**
+     * Release the locks this process holds when it exits, since commands
+     * exit from anywhere.
+     */
+    private void unlockAtExit() {
+        if (!_unlockAtExit) {
+            _unlockAtExit = true;
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                if (_sharedDepth > 0) {
+                    _sharedDepth = 0;
+                    Utils.join(_gitletPath, SHARED_LOCK).delete();
+                }
+                unlock();
+            }));
+        }
+    }
+
+    /**
+     * does this repo exist on disk.
+     * @return boolean
+     */
+    public boolean exists() {
+        return new File(_gitletPath).isDirectory();
     }
 
     /**
@@ -56,6 +211,81 @@ public class Repo {
         return _gitletPath;
     }
 
+    /**
+     * path of this worktree's own files: the gitlet path, or for an
+     * added worktree its directory under worktrees.
+     * @return string
+     */
+    public String worktreePath() {
+        return _worktreePath;
+    }
+
+    /**
+     * path of the added worktrees' directories.
+     * @return string
+     */
+    public String worktreesPath() {
+        return _worktreesPath;
+    }
+
+    /**
+     * The working directory of every worktree of this repository, the
+     * main one first.  Added worktrees whose directories are gone are
+     * left out.
+     * @return list of absolute paths
+     */
+    public List<String> worktrees() {
+        List<String> trees = new ArrayList<>();
+        trees.add(new File(_gitletPath).getAbsoluteFile().getParent());
+        File[] dirs = new File(_worktreesPath).listFiles(File::isDirectory);
+        if (dirs == null) {
+            return trees;
+        }
+        Arrays.sort(dirs);
+        for (File dir : dirs) {
+            File path = new File(dir, WORKTREE_PATH);
+            if (path.isFile()) {
+                String tree = Utils.readContentsAsString(path).trim();
+                if (new File(tree, ".gitlet").isFile()) {
+                    trees.add(tree);
+                }
+            }
+        }
+        return trees;
+    }
+
+    /**
+     * The working directory of any worktree, this one included, that has
+     * BRANCH checked out.
+     * @param branch string
+     * @return path, or null if there is none
+     */
+    public String checkedOut(String branch) {
+        return branch.equals(readStage().getBranch()) ? _workingDirectory
+            : otherWorktree(branch);
+    }
+
+    /**
+     * The working directory of another worktree that has BRANCH checked
+     * out.
+     * @param branch string
+     * @return absolute path, or null if there is none
+     */
+    public String otherWorktree(String branch) {
+        String self = new File(_workingDirectory).getAbsolutePath();
+        for (String tree : worktrees()) {
+            if (new File(tree).getAbsolutePath().equals(self)) {
+                continue;
+            }
+            Repo other = new Repo(tree);
+            if (other._stageFile.isFile()
+                    && branch.equals(other.readStage().getBranch())) {
+                return tree;
+            }
+        }
+        return null;
+    }
+
     /**
      * commit path.
      * @return string
@@ -87,18 +317,456 @@ public class Repo {
     public File stageFile() {
         return _stageFile;
     }
+
+    /**
+     * remotes path.
+     * @return string
+     */
+    public String remotesPath() {
+        return _remotesPath;
+    }
+
+    /**
+     * path of uncompressed blobs kept for linked checkouts.
+     * @return string
+     */
+    public String cachePath() {
+        return _cachePath;
+    }
+
+    /**
+     * path of the files shared with a filesystem watcher.
+     * @return string
+     */
+    public String watchPath() {
+        return _watchPath;
+    }
+
+    /**
+     * path of saved blame results.
+     * @return string
+     */
+    public String blamePath() {
+        return _blamePath;
+    }
+
+    /**
+     * settings of this repo.
+     * @return config
+     */
+    public Config config() {
+        if (_config == null) {
+            _config = new Config(_configFile);
+        }
+        return _config;
+    }
+
+    /**
+     * writer of blobs into the working directory.
+     * @return materializer
+     */
+    public Materializer materializer() {
+        if (_materializer == null) {
+            _materializer = new Materializer(this);
+        }
+        return _materializer;
+    }
+
+    /**
+     * finder of working directory entries.
+     * @return workingtree
+     */
+    public WorkingTree workingTree() {
+        if (_workingTree == null) {
+            _workingTree = new WorkingTree(this);
+        }
+        return _workingTree;
+    }
+
+    /**
+     * the rules of the working directory's .gitletignore.
+     * @return ignorerules
+     */
+    public IgnoreRules ignoreRules() {
+        if (_ignoreRules == null) {
+            _ignoreRules = IgnoreRules.load(new File(_workingDirectory));
+        }
+        return _ignoreRules;
+    }
+
+    /**
+     * file of the sparse checkout patterns.
+     * @return file
+     */
+    public File sparseCheckoutFile() {
+        return _sparseCheckoutFile;
+    }
+
+    /**
+     * the paths checked out into the working directory.
+     * @return sparsecheckout
+     */
+    public SparseCheckout sparseCheckout() {
+        if (_sparseCheckout == null) {
+            _sparseCheckout = SparseCheckout.load(this);
+        }
+        return _sparseCheckout;
+    }
+
+    /**
+     * file listing the stash entries, newest first.
+     * @return file
+     */
+    public File stashFile() {
+        return _stashFile;
+    }
+
+    /**
+     * the objects of this repo and its alternates.
+     * @return objectdatabase
+     */
+    public ObjectDatabase objects() {
+        if (_objects == null) {
+            _objects = new FileObjectDatabase(this);
+        }
+        return _objects;
+    }
+
+    /**
+     * file of the commit graph.
+     * @return file
+     */
+    public File commitGraphFile() {
+        return _commitGraphFile;
+    }
+
+    /**
+     * the commit graph, as last written.
+     * @return commitgraph
+     */
+    public CommitGraph commitGraph() {
+        if (_commitGraph == null) {
+            _commitGraph = new CommitGraph(this);
+        }
+        return _commitGraph;
+    }
+
+    /**
+     * file a new commit is written to in this repo.
+     * @param sha string
+     * @return file
+     */
+    public File commitFile(String sha) {
+        return new File(_commitPath + sha + ".ser");
+    }
+
+    /**
+     * file a new blob is written to in this repo.
+     * @param sha string
+     * @return file
+     */
+    public File blobFile(String sha) {
+        return new File(_blobPath + sha + ".ser");
+    }
+
+    /**
+     * stored file of a commit, here or in an alternate.
+     * @param sha string
+     * @return file, or null if there is no such commit
+     */
+    public File findCommitFile(String sha) {
+        if (sha == null) {
+            return null;
+        }
+        for (Repo store : objectStores()) {
+            File file = store.commitFile(sha);
+            if (file.isFile()) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * stored file of a blob, here or in an alternate.
+     * @param sha string
+     * @return file, or null if there is no such blob
+     */
+    public File findBlobFile(String sha) {
+        if (sha == null) {
+            return null;
+        }
+        for (Repo store : objectStores()) {
+            File file = store.blobFile(sha);
+            if (file.isFile()) {
+                return file;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * read the stage.
+     * @return stage
+     */
+    public Stage readStage() {
+        Trace.Span span = Trace.span("read stage");
+        try {
+            Stage stage = readStageFile();
+            return stage.takeBranches() == null ? stage : upgradeStage();
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * Move the branch heads of a stage written before RefStore into the
+     * ref store, and rewrite the stage without them, under the writer
+     * lock so that this is done once.  Heads already in the store are
+     * left alone.
+     * @return stage
+     */
+    private Stage upgradeStage() {
+        boolean held = _locked;
+        lock();
+        try {
+            Stage stage = readStageFile();
+            HashMap<String, String> branches = stage.takeBranches();
+            if (branches != null) {
+                for (Map.Entry<String, String> branch
+                         : branches.entrySet()) {
+                    refs().compareAndSet(branch.getKey(), null,
+                            branch.getValue());
+                }
+                writeStage(stage);
+            }
+            return stage;
+        } finally {
+            if (!held) {
+                unlock();
+            }
+        }
+    }
+
+    /**
+     * read the stage file as it is.
+     * @return stage
+     */
+    private Stage readStageFile() {
+        return SerialInput.read(Utils.readContents(_stageFile),
+                Stage.class);
+    }
+
+    /**
+     * write the stage, replacing the old one in a single step so that
+     * readers see either the old or the new stage.
+     * @param stage stage
+     */
+    public void writeStage(Stage stage) {
+        Trace.Span span = Trace.span("write stage");
+        try {
+            store(_stageFile, stage);
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * Write OBJ to a temporary file beside TARGET and rename it over
+     * TARGET.
+     * @param target file
+     * @param obj serializable
+     */
+    static void store(File target, Serializable obj) {
+        store(target, Utils.serialize(obj));
+    }
+
+    /**
+     * Write CONTENTS to a temporary file beside TARGET and rename it over
+     * TARGET, so that readers never see a partial file.
+     * @param target file
+     * @param contents byte[]
+     */
+    static void store(File target, byte[] contents) {
+        File temp = null;
+        try {
+            temp = File.createTempFile(target.getName(), ".tmp",
+                    target.getParentFile());
+            Utils.writeContents(temp, contents);
+            Files.move(temp.toPath(), target.toPath(),
+                    StandardCopyOption.ATOMIC_MOVE,
+                    StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException excp) {
+            if (temp != null) {
+                temp.delete();
+            }
+            throw Utils.error("Could not write %s.", target.getName());
+        }
+    }
+
+    /**
+     * Add the .gitlet directory GITLETDIR as a read-only alternate object
+     * store of this repo.
+     * @param gitletDir file
+     */
+    public void addAlternate(File gitletDir) {
+        String path;
+        try {
+            path = gitletDir.getCanonicalPath();
+        } catch (IOException excp) {
+            throw Utils.error("Bad alternate %s.", gitletDir);
+        }
+        String existing = _alternatesFile.isFile()
+            ? Utils.readContentsAsString(_alternatesFile) : "";
+        Utils.writeContents(_alternatesFile, existing, path, "\n");
+        _objectStores = null;
+    }
+
+    /**
+     * This repo followed by every alternate object store it reaches,
+     * directly or through the alternates of its alternates.
+     * @return list
+     */
+    public List<Repo> objectStores() {
+        if (_objectStores != null) {
+            return _objectStores;
+        }
+        ArrayList<Repo> stores = new ArrayList<>();
+        HashSet<String> seen = new HashSet<>();
+        ArrayDeque<Repo> queue = new ArrayDeque<>();
+        queue.add(this);
+        seen.add(new File(_gitletPath).getAbsolutePath());
+        while (!queue.isEmpty()) {
+            Repo store = queue.poll();
+            stores.add(store);
+            if (!store._alternatesFile.isFile()) {
+                continue;
+            }
+            String paths = Utils.readContentsAsString(store._alternatesFile);
+            for (String path : paths.split("\n")) {
+                File gitletDir = new File(path.trim());
+                if (path.trim().isEmpty() || !gitletDir.isDirectory()
+                        || !seen.add(gitletDir.getAbsolutePath())) {
+                    continue;
+                }
+                queue.add(new Repo(gitletDir.getAbsoluteFile().getParent()));
+            }
+        }
+        _objectStores = stores;
+        return stores;
+    }
+
+    /**
+     * branch heads.  A repository without a refs directory was written
+     * before refs, so its stage is read first to move its branches in.
+     * @return refstore
+     */
+    public RefStore refs() {
+        if (_refs == null) {
+            _refs = new RefStore(new File(_refsPath), _packedRefsFile);
+            if (!new File(_refsPath).isDirectory() && _stageFile.isFile()) {
+                readStage();
+            }
+        }
+        return _refs;
+    }
+
+    /**
+     * The worktree directory a worktree's .gitlet file GITLET names.
+     * @param gitlet file
+     * @return file
+     */
+    private static File linkedWorktree(File gitlet) {
+        String contents = Utils.readContentsAsString(gitlet).trim();
+        if (!contents.startsWith(GITDIR)) {
+            throw Utils.error("Bad .gitlet file in %s.", gitlet.getParent());
+        }
+        return new File(contents.substring(GITDIR.length()).trim());
+    }
+
+    /**
+     * Path name of directory DIR, ending in a separator.
+     * @param dir file
+     * @return string
+     */
+    private static String dir(File dir) {
+        return dir.getPath() + File.separator;
+    }
+
+    /** Times to retry a held writer lock. */
+    private static final int LOCK_TRIES = 250;
+    /** Milliseconds between writer lock retries. */
+    private static final long LOCK_WAIT = 20;
+    /** Shared lock file, in the gitlet path. */
+    private static final String SHARED_LOCK = "shared.lock";
+    /** Directory of the added worktrees, in the gitlet path. */
+    static final String WORKTREES = "worktrees";
+    /** File in an added worktree's directory naming its working
+     *  directory. */
+    static final String WORKTREE_PATH = "path";
+    /** Start of a worktree's .gitlet file, before its directory. */
+    static final String GITDIR = "gitdir: ";
+
     /** working directory. */
     private String _workingDirectory;
     /** path for gitlet. */
-    private final String _gitletPath = ".gitlet/";
+    private final String _gitletPath;
+    /** path for this worktree's own files. */
+    private final String _worktreePath;
+    /** path for added worktrees. */
+    private final String _worktreesPath;
     /** path for commits. */
-    private final String _commitPath = ".gitlet/commit/";
+    private final String _commitPath;
     /** path for blobs. */
-    private final String _blobPath = ".gitlet/blobs/";
+    private final String _blobPath;
     /** path for stages. */
-    private final String _stagePath = ".gitlet/stage/";
+    private final String _stagePath;
     /** path for stage file. */
-    private final File _stageFile = new File(".gitlet/stage/staging.ser");
-    /** the stage. */
-    private Stage _stage;
+    private final File _stageFile;
+    /** path for loose branch heads. */
+    private final String _refsPath;
+    /** path for packed branch heads. */
+    private final File _packedRefsFile;
+    /** path for remotes. */
+    private final String _remotesPath;
+    /** file listing alternate object stores. */
+    private final File _alternatesFile;
+    /** this repo and its alternates, once loaded. */
+    private List<Repo> _objectStores;
+    /** path for cached blob contents. */
+    private final String _cachePath;
+    /** path for watcher files. */
+    private final String _watchPath;
+    /** path for saved blame results. */
+    private final String _blamePath;
+    /** config file. */
+    private final File _configFile;
+    /** commit graph file. */
+    private final File _commitGraphFile;
+    /** sparse checkout patterns file. */
+    private final File _sparseCheckoutFile;
+    /** stash entries file. */
+    private final File _stashFile;
+    /** sparse checkout patterns, once loaded. */
+    private SparseCheckout _sparseCheckout;
+    /** commit graph, once opened. */
+    private CommitGraph _commitGraph;
+    /** settings, once loaded. */
+    private Config _config;
+    /** blob writer, once made. */
+    private Materializer _materializer;
+    /** working tree, once made. */
+    private WorkingTree _workingTree;
+    /** ignore rules, once loaded. */
+    private IgnoreRules _ignoreRules;
+    /** object database, once made. */
+    private ObjectDatabase _objects;
+    /** the branch heads. */
+    private RefStore _refs;
+    /** does this process hold the writer lock. */
+    private volatile boolean _locked;
+    /** is a shutdown hook releasing the locks registered. */
+    private boolean _unlockAtExit;
+    /** times the shared lock has been taken and not released. */
+    private volatile int _sharedDepth;
 }
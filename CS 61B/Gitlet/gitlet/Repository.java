@@ -0,0 +1,309 @@
+package gitlet;
+
+import java.io.File;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+
+/** A gitlet repository for use from other Java programs.  Failures are
+ *  thrown as GitletException rather than printed, and nothing calls
+ *  System.exit.  Any number of threads may read through one Repository
+ *  at once, sharing its object cache; commit takes the repo's writer
+ *  lock for as long as it runs.  Commits returned here are shared with
+ *  the cache and must not be changed.
+ *  @author Swadhin Nalubola
+ */
+public class Repository {
+
+    /**
+     * Open the repository whose working directory is PATH.
+     * @param path string
+     * @return repository
+     */
+    public static Repository open(String path) {
+        Repo repo = new Repo(path);
+        if (!repo.exists()) {
+            throw Utils.error("Not a gitlet repository: %s", path);
+        }
+        return new Repository(repo);
+    }
+
+    /**
+     * Initialize a repository reading REPO, whose lazily made parts are
+     * made here so that threads never race to make them.
+     * @param repo repo
+     */
+    private Repository(Repo repo) {
+        _repo = repo;
+        _objects = repo.objects();
+        _refs = repo.refs();
+        repo.objectStores();
+        repo.commitGraph();
+    }
+
+    /**
+     * The commit named by REV: HEAD, a branch, or a commit id or unique
+     * prefix of one, followed by any number of ~N (N first parents back)
+     * or ^ (one first parent back).
+     * @param rev string
+     * @return commit sha
+     */
+    public String resolve(String rev) {
+        int end = 0;
+        while (end < rev.length() && rev.charAt(end) != '~'
+               && rev.charAt(end) != '^') {
+            end += 1;
+        }
+        String base = rev.substring(0, end);
+        String sha;
+        if (base.equals(HEAD)) {
+            sha = _repo.readStage().getHead();
+        } else {
+            sha = _refs.get(base);
+            if (sha == null) {
+                sha = _objects.resolveCommit(base);
+            }
+        }
+        if (sha == null) {
+            throw Utils.error("Unknown revision %s.", rev);
+        }
+        int i = end;
+        while (i < rev.length()) {
+            char op = rev.charAt(i);
+            if (op != '~' && op != '^') {
+                throw Utils.error("Unknown revision %s.", rev);
+            }
+            int start = i + 1;
+            i = start;
+            while (i < rev.length() && Character.isDigit(rev.charAt(i))) {
+                i += 1;
+            }
+            if (op == '^' && i > start) {
+                throw Utils.error("Unknown revision %s.", rev);
+            }
+            int back = i == start ? 1 : Integer.parseInt(
+                    rev.substring(start, i));
+            for (int n = 0; n < back; n += 1) {
+                sha = commit(sha).getParentSHA();
+                if (sha == null) {
+                    throw Utils.error("Unknown revision %s.", rev);
+                }
+            }
+        }
+        return sha;
+    }
+
+    /**
+     * The commit SHA.
+     * @param sha full commit id
+     * @return commitobject
+     */
+    public CommitObject commit(String sha) {
+        CommitObject commit = _objects.readCommit(sha);
+        if (commit == null) {
+            throw Utils.error("No commit with that id exists.");
+        }
+        return commit;
+    }
+
+    /**
+     * The contents of PATH at revision REV, streamed from the object
+     * store.  Small files come through the shared cache; large ones are
+     * mapped and never copied onto the heap.
+     * @param rev string
+     * @param path string
+     * @return inputstream
+     */
+    public InputStream readFile(String rev, String path) {
+        String blob = commit(resolve(rev)).getTrackedBlobs().get(path);
+        if (blob == null) {
+            throw Utils.error("File does not exist in that commit.");
+        }
+        File file = _repo.findBlobFile(blob);
+        ByteBuffer contents;
+        if (file != null && file.length() > STREAM_THRESHOLD) {
+            contents = _objects.readBlobContents(blob);
+        } else {
+            contents = ByteBuffer.wrap(_objects.readBlob(blob).getContents());
+        }
+        return new BufferInputStream(contents.asReadOnlyBuffer());
+    }
+
+    /**
+     * The commits from REV back along first parents, newest first, read
+     * as the iterator advances.
+     * @param rev string
+     * @return iterator
+     */
+    public Iterator<CommitObject> walkLog(String rev) {
+        String start = resolve(rev);
+        return new Iterator<CommitObject>() {
+            @Override
+            public boolean hasNext() {
+                return _next != null;
+            }
+
+            @Override
+            public CommitObject next() {
+                if (_next == null) {
+                    throw new NoSuchElementException();
+                }
+                CommitObject current = commit(_next);
+                _next = current.getParentSHA();
+                return current;
+            }
+
+            /** sha of the next commit. */
+            private String _next = start;
+        };
+    }
+
+    /**
+     * The commits from REV back along first parents that changed PATH,
+     * newest first, found as the iterator advances as log -- PATH finds
+     * them.
+     * @param rev string
+     * @param path string
+     * @return iterator
+     */
+    public Iterator<CommitObject> walkLog(String rev, String path) {
+        Iterator<String> shas =
+            new PathHistory(_repo).touching(path, resolve(rev));
+        return new Iterator<CommitObject>() {
+            @Override
+            public boolean hasNext() {
+                return shas.hasNext();
+            }
+
+            @Override
+            public CommitObject next() {
+                return commit(shas.next());
+            }
+        };
+    }
+
+    /**
+     * Commit CHANGES on top of branch BRANCH with message MESSAGE,
+     * without touching any working directory.  Each change maps a path
+     * to its new contents, or to null to remove the path.  Paths must
+     * pass CommitObject.validPath, and are checked before anything is
+     * written.  The checked out branch cannot be committed to here,
+     * since the stage and working directory would no longer match it.
+     * @param branch string
+     * @param message string
+     * @param changes map of path, contents
+     * @return the new commit's sha
+     */
+    public synchronized String commit(String branch, String message,
+                                      Map<String, byte[]> changes) {
+        if (message == null || message.isEmpty()) {
+            throw Utils.error("Please enter a commit message.");
+        }
+        if (changes.isEmpty()) {
+            throw Utils.error("No changes added to the commit.");
+        }
+        for (String path : changes.keySet()) {
+            if (path == null || !CommitObject.validPath(path)) {
+                throw Utils.error("Bad path %s.", path);
+            }
+        }
+        _repo.lock();
+        try {
+            String parent = _refs.get(branch);
+            if (parent == null) {
+                throw Utils.error("A branch with that name does not exist.");
+            }
+            if (branch.equals(_repo.readStage().getBranch())
+                    || _repo.otherWorktree(branch) != null) {
+                throw Utils.error("Cannot commit to the checked out "
+                        + "branch %s.", branch);
+            }
+            HashMap<String, String> blobs =
+                new HashMap<>(commit(parent).getTrackedBlobs());
+            for (Map.Entry<String, byte[]> change : changes.entrySet()) {
+                byte[] contents = change.getValue();
+                if (contents == null) {
+                    blobs.remove(change.getKey());
+                    continue;
+                }
+                String sha = Utils.sha1((Object) contents);
+                if (!_objects.hasBlob(sha)) {
+                    _objects.writeBlob(new Blob(sha, contents));
+                }
+                blobs.put(change.getKey(), sha);
+            }
+            String timestamp = CommitObject.now();
+            String author = CommitObject.author(_repo);
+            CommitObject commit = new CommitObject(message, author,
+                    timestamp, parent, null, branch, blobs);
+            _objects.writeCommit(commit);
+            if (!_refs.compareAndSet(branch, parent, commit.getSHA())) {
+                throw Utils.error("Branch %s was moved by another process.",
+                        branch);
+            }
+            return commit.getSHA();
+        } finally {
+            _repo.unlock();
+        }
+    }
+
+    /** An input stream over the remaining bytes of a buffer. */
+    private static class BufferInputStream extends InputStream {
+
+        /**
+         * Initialize a stream reading BUF, which it then owns.
+         * @param buf bytebuffer
+         */
+        BufferInputStream(ByteBuffer buf) {
+            _buf = buf;
+        }
+
+        @Override
+        public int read() {
+            return _buf.hasRemaining() ? _buf.get() & 0xff : -1;
+        }
+
+        @Override
+        public int read(byte[] b, int off, int len) {
+            if (len == 0) {
+                return 0;
+            }
+            if (!_buf.hasRemaining()) {
+                return -1;
+            }
+            int n = Math.min(len, _buf.remaining());
+            _buf.get(b, off, n);
+            return n;
+        }
+
+        @Override
+        public long skip(long n) {
+            int skipped = (int) Math.max(0, Math.min(n, _buf.remaining()));
+            _buf.position(_buf.position() + skipped);
+            return skipped;
+        }
+
+        @Override
+        public int available() {
+            return _buf.remaining();
+        }
+
+        /** the bytes left to read. */
+        private final ByteBuffer _buf;
+    }
+
+    /** Name of the head commit in revisions. */
+    private static final String HEAD = "HEAD";
+    /** Stored blobs larger than this many bytes are streamed uncached. */
+    private static final long STREAM_THRESHOLD = 1L << 20;
+
+    /** the repo. */
+    private final Repo _repo;
+    /** its objects, shared by every reader. */
+    private final ObjectDatabase _objects;
+    /** its branch heads. */
+    private final RefStore _refs;
+}
@@ -0,0 +1,119 @@
+package gitlet;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.ObjectInputFilter;
+import java.io.ObjectInputStream;
+import java.io.ObjectStreamClass;
+import java.nio.charset.StandardCharsets;
+
+/** Reader of the Java-serialized stage and objects of this and earlier
+ *  versions.  Earlier versions let the compiler choose the
+ *  serialVersionUIDs of Stage, CommitObject and Blob, so each has been
+ *  written under several.  Before reading, the id in each of their class
+ *  descriptors is replaced by the current one; fields are then matched
+ *  by name, those no longer kept being skipped, and the classes
+ *  themselves carry forward what older fields held (see
+ *  Stage.takeBranches and CommitObject.readResolve).  Only the classes
+ *  the stage and objects are made of may be read, so that no other
+ *  class's deserialization code can be run by a crafted file.
+ *  @author Swadhin Nalubola
+ */
+class SerialInput extends ObjectInputStream {
+
+    /**
+     * Initialize a reader of the serialized BYTES.
+     * @param bytes byte[]
+     * @throws IOException if BYTES are not a serialization stream
+     */
+    SerialInput(byte[] bytes) throws IOException {
+        super(new ByteArrayInputStream(current(bytes)));
+        setObjectInputFilter(FILTER);
+    }
+
+    /**
+     * Read one object of class EXPECTEDCLASS from BYTES.
+     * @param bytes byte[]
+     * @param expectedClass class
+     * @param <T> type
+     * @return object
+     */
+    static <T> T read(byte[] bytes, Class<T> expectedClass) {
+        try (SerialInput in = new SerialInput(bytes)) {
+            return expectedClass.cast(in.readObject());
+        } catch (IOException | ClassCastException
+                 | ClassNotFoundException excp) {
+            throw Utils.error("Corrupt %s.",
+                    expectedClass.getSimpleName().toLowerCase());
+        }
+    }
+
+    /**
+     * BYTES, with the serialVersionUIDs of the VERSIONED classes made
+     * current.  A class's descriptor is written in full only the first
+     * time it appears, as TC_CLASSDESC, its name and then its id.  Names
+     * cannot be mistaken for string data, whose modified UTF-8 has no
+     * zero bytes, and byte arrays appear only inside blobs, after the
+     * Blob descriptor, so the first match is the descriptor.
+     * @param bytes byte[], changed in place
+     * @return bytes
+     */
+    private static byte[] current(byte[] bytes) {
+        for (Class<?> versioned : VERSIONED) {
+            byte[] name = versioned.getName()
+                .getBytes(StandardCharsets.UTF_8);
+            int at = find(bytes, name);
+            if (at < 0) {
+                continue;
+            }
+            long uid = ObjectStreamClass.lookup(versioned)
+                .getSerialVersionUID();
+            for (int i = Long.BYTES - 1; i >= 0; i -= 1) {
+                bytes[at + i] = (byte) uid;
+                uid >>>= Byte.SIZE;
+            }
+        }
+        return bytes;
+    }
+
+    /**
+     * Offset of the serialVersionUID in the first class descriptor in
+     * BYTES whose class is named NAME.
+     * @param bytes byte[]
+     * @param name UTF-8 bytes
+     * @return int, or -1 if there is none
+     */
+    private static int find(byte[] bytes, byte[] name) {
+        int last = bytes.length - name.length - 3 - Long.BYTES;
+        search:
+        for (int i = 0; i <= last; i += 1) {
+            if (bytes[i] != TC_CLASSDESC || bytes[i + 1] != 0
+                    || bytes[i + 2] != name.length) {
+                continue;
+            }
+            for (int j = 0; j < name.length; j += 1) {
+                if (bytes[i + 3 + j] != name[j]) {
+                    continue search;
+                }
+            }
+            return i + 3 + name.length;
+        }
+        return -1;
+    }
+
+    /** Deepest nesting of objects read: a first-version commit holds a
+     *  stage, whose maps hold commits, and so on. */
+    private static final int MAX_DEPTH = 64;
+    /** Classes whose serialVersionUIDs have changed between versions. */
+    private static final Class<?>[] VERSIONED = {
+        Stage.class, CommitObject.class, Blob.class,
+    };
+    /** The classes that may be read.  Arrays of primitives are allowed
+     *  as well, and HashMap checks the size of its table as an array of
+     *  Map.Entry. */
+    private static final ObjectInputFilter FILTER =
+        ObjectInputFilter.Config.createFilter("maxdepth=" + MAX_DEPTH
+            + ";gitlet.Stage;gitlet.Stage$Stat;gitlet.CommitObject"
+            + ";gitlet.Blob;java.util.HashMap;java.util.HashSet"
+            + ";java.util.Map$Entry;java.lang.String;!*");
+}
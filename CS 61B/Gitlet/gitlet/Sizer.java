@@ -0,0 +1,337 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.IntConsumer;
+
+/** Where a repository's disk goes.  files() lists the object folders of
+ *  the repository and its alternates and totals the files in each by
+ *  kind: commits and blobs stored here, objects found only in
+ *  alternates, and garbage (temporary files left by interrupted writes).
+ *  history() then decodes every commit to find the paths that name the
+ *  biggest blobs and the blobs each commit brought (those neither of
+ *  its parents tracks), and totals the distinct blobs each branch
+ *  reaches, in all and counting only those no other branch reaches.
+ *  Both spread their files over sizer.threads threads, by default one
+ *  per processor.
+ *  @author Swadhin Nalubola
+ */
+public class Sizer {
+
+    /** Kind of commits stored here. */
+    static final int COMMITS = 0;
+    /** Kind of blobs stored here. */
+    static final int BLOBS = 1;
+    /** Kind of objects stored only in alternates. */
+    static final int ALTERNATES = 2;
+    /** Kind of files in the object folders that are not objects. */
+    static final int GARBAGE = 3;
+
+    /**
+     * Initialize a sizer of REPO.
+     * @param repo repo
+     */
+    public Sizer(Repo repo) {
+        _repo = repo;
+        String threads = repo.config().get("sizer.threads", Integer.toString(
+                Runtime.getRuntime().availableProcessors()));
+        try {
+            _threads = Math.max(1, Integer.parseInt(threads));
+        } catch (NumberFormatException excp) {
+            throw Utils.error("Bad sizer.threads %s.", threads);
+        }
+    }
+
+    /**
+     * Total the object files.
+     */
+    public void files() {
+        _counts = new AtomicLongArray(GARBAGE + 1);
+        _bytes = new AtomicLongArray(GARBAGE + 1);
+        _commitFiles = new ConcurrentHashMap<>();
+        _blobBytes = new ConcurrentHashMap<>();
+        List<Repo> stores = _repo.objectStores();
+        for (int s = 0; s < stores.size(); s += 1) {
+            files(stores.get(s).commitPath(), true, s > 0);
+            files(stores.get(s).blobPath(), false, s > 0);
+        }
+    }
+
+    /**
+     * Total the files in object folder DIR, which holds commits if
+     * COMMITS and blobs otherwise, and belongs to an alternate if
+     * ALTERNATE.  Objects already counted are skipped.
+     * @param dir string
+     * @param commits boolean
+     * @param alternate boolean
+     */
+    private void files(String dir, boolean commits, boolean alternate) {
+        File[] files = new File(dir).listFiles();
+        if (files == null) {
+            return;
+        }
+        parallel(files.length, i -> {
+            File file = files[i];
+            String name = file.getName();
+            long length = file.length();
+            int kind;
+            if (!name.endsWith(SUFFIX) || !file.isFile()) {
+                kind = GARBAGE;
+            } else {
+                String id = name.substring(0, name.length() - SUFFIX.length());
+                if (commits ? _commitFiles.putIfAbsent(id, file) != null
+                    : _blobBytes.putIfAbsent(id, length) != null) {
+                    return;
+                }
+                kind = alternate ? ALTERNATES : commits ? COMMITS : BLOBS;
+            }
+            _counts.incrementAndGet(kind);
+            _bytes.addAndGet(kind, length);
+        });
+    }
+
+    /**
+     * Decode every commit, after files(), finding the paths of the
+     * BIGGEST biggest blobs and what each branch adds up to.
+     * @param biggest int
+     */
+    public void history(int biggest) {
+        List<Map.Entry<String, Long>> blobs =
+            new ArrayList<>(_blobBytes.entrySet());
+        blobs.sort(Map.Entry.<String, Long>comparingByValue().reversed()
+                   .thenComparing(Map.Entry.comparingByKey()));
+        _biggest = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> blob
+                 : blobs.subList(0, Math.min(biggest, blobs.size()))) {
+            _biggest.put(blob.getKey(), Collections.synchronizedSet(
+                    new TreeSet<>()));
+        }
+
+        List<File> files = new ArrayList<>(_commitFiles.values());
+        ConcurrentHashMap<String, String[]> parents =
+            new ConcurrentHashMap<>();
+        ConcurrentHashMap<String, HashSet<String>> added =
+            new ConcurrentHashMap<>();
+        parallel(files.size(), i -> {
+            CommitObject commit = decode(files.get(i));
+            if (commit == null) {
+                return;
+            }
+            parents.put(commit.getSHA(), new String[] {
+                commit.getParentSHA(), commit.getParent2SHA()});
+            HashSet<String> had = new HashSet<>();
+            for (String sha : new String[] {commit.getParentSHA(),
+                                            commit.getParent2SHA()}) {
+                CommitObject parent = sha == null ? null
+                    : decode(_commitFiles.get(sha));
+                if (parent != null) {
+                    had.addAll(parent.getTrackedBlobs().values());
+                }
+            }
+            HashSet<String> brought = new HashSet<>();
+            for (Map.Entry<String, String> entry
+                     : commit.getTrackedBlobs().entrySet()) {
+                String blob = entry.getValue();
+                Set<String> paths = _biggest.get(blob);
+                if (paths != null) {
+                    paths.add(entry.getKey());
+                }
+                if (!had.contains(blob)) {
+                    brought.add(blob);
+                }
+            }
+            added.put(commit.getSHA(), brought);
+        });
+
+        LinkedHashMap<String, HashSet<String>> reached =
+            new LinkedHashMap<>();
+        LinkedHashMap<String, HashSet<String>> reachedBlobs =
+            new LinkedHashMap<>();
+        HashMap<String, Integer> reachers = new HashMap<>();
+        HashMap<String, Integer> blobReachers = new HashMap<>();
+        for (Iterator<String> names = _repo.refs().names("");
+             names.hasNext();) {
+            String branch = names.next();
+            HashSet<String> commits = reachable(_repo.refs().get(branch),
+                    parents);
+            HashSet<String> brought = new HashSet<>();
+            for (String sha : commits) {
+                reachers.merge(sha, 1, Integer::sum);
+                brought.addAll(added.getOrDefault(sha, new HashSet<>()));
+            }
+            for (String blob : brought) {
+                blobReachers.merge(blob, 1, Integer::sum);
+            }
+            reached.put(branch, commits);
+            reachedBlobs.put(branch, brought);
+        }
+        _branches = new LinkedHashMap<>();
+        for (Map.Entry<String, HashSet<String>> branch
+                 : reached.entrySet()) {
+            long[] growth = new long[4];
+            for (String sha : branch.getValue()) {
+                growth[0] += 1;
+                if (reachers.get(sha) == 1) {
+                    growth[2] += 1;
+                }
+            }
+            for (String blob : reachedBlobs.get(branch.getKey())) {
+                long bytes = _blobBytes.getOrDefault(blob, 0L);
+                growth[1] += bytes;
+                if (blobReachers.get(blob) == 1) {
+                    growth[3] += bytes;
+                }
+            }
+            _branches.put(branch.getKey(), growth);
+        }
+    }
+
+    /**
+     * Number of files of KIND, after files().
+     * @param kind int
+     * @return long
+     */
+    public long count(int kind) {
+        return _counts.get(kind);
+    }
+
+    /**
+     * Bytes in files of KIND, after files().
+     * @param kind int
+     * @return long
+     */
+    public long bytes(int kind) {
+        return _bytes.get(kind);
+    }
+
+    /**
+     * Stored size of blob SHA, after files().
+     * @param sha string
+     * @return bytes, or 0 if it is not stored
+     */
+    public long blobBytes(String sha) {
+        return _blobBytes.getOrDefault(sha, 0L);
+    }
+
+    /**
+     * The biggest blobs, biggest first, each with the paths naming it in
+     * any commit, after history().
+     * @return map of blob sha, sorted paths
+     */
+    public Map<String, Set<String>> biggest() {
+        return _biggest;
+    }
+
+    /**
+     * Each branch in name order, after history(): commits it reaches,
+     * bytes of the distinct blobs they brought, commits only it reaches
+     * and bytes of blobs only it reaches.
+     * @return map of branch, long[4]
+     */
+    public Map<String, long[]> branches() {
+        return _branches;
+    }
+
+    /**
+     * The commit stored in FILE.
+     * @param file file, or null
+     * @return commitobject, or null if there is none or it is corrupt
+     */
+    private static CommitObject decode(File file) {
+        if (file == null) {
+            return null;
+        }
+        try {
+            return ObjectCodec.decodeCommit(FileObjectDatabase.read(file));
+        } catch (GitletException excp) {
+            return null;
+        }
+    }
+
+    /**
+     * Commit START and every commit it descends from, by PARENTS.
+     * @param start commit sha, or null
+     * @param parents map of commit sha, its parents
+     * @return hashset of shas
+     */
+    private static HashSet<String> reachable(String start,
+                                             Map<String, String[]> parents) {
+        HashSet<String> seen = new HashSet<>();
+        ArrayDeque<String> todo = new ArrayDeque<>();
+        if (start != null) {
+            todo.push(start);
+        }
+        while (!todo.isEmpty()) {
+            String sha = todo.pop();
+            if (!seen.add(sha) || !parents.containsKey(sha)) {
+                continue;
+            }
+            for (String parent : parents.get(sha)) {
+                if (parent != null && !seen.contains(parent)) {
+                    todo.push(parent);
+                }
+            }
+        }
+        return seen;
+    }
+
+    /**
+     * Run TASK on 0 to TOTAL - 1, spread over the sizer's threads.
+     * @param total int
+     * @param task intconsumer
+     */
+    private void parallel(int total, IntConsumer task) {
+        AtomicInteger next = new AtomicInteger();
+        ArrayList<Thread> workers = new ArrayList<>();
+        for (int t = 0; t < _threads; t += 1) {
+            Thread worker = new Thread(() -> {
+                for (int i = next.getAndIncrement(); i < total;
+                     i = next.getAndIncrement()) {
+                    task.accept(i);
+                }
+            });
+            workers.add(worker);
+            worker.start();
+        }
+        for (Thread worker : workers) {
+            try {
+                worker.join();
+            } catch (InterruptedException excp) {
+                throw Utils.error("sizer was interrupted.");
+            }
+        }
+    }
+
+    /** Suffix of stored object files. */
+    private static final String SUFFIX = ".ser";
+
+    /** the repo. */
+    private final Repo _repo;
+    /** threads to use. */
+    private final int _threads;
+    /** files of each kind. */
+    private AtomicLongArray _counts;
+    /** bytes of each kind. */
+    private AtomicLongArray _bytes;
+    /** stored commit files by id, here first. */
+    private ConcurrentHashMap<String, File> _commitFiles;
+    /** stored blob sizes by id, here first. */
+    private ConcurrentHashMap<String, Long> _blobBytes;
+    /** biggest blobs and their paths. */
+    private LinkedHashMap<String, Set<String>> _biggest;
+    /** growth of each branch. */
+    private LinkedHashMap<String, long[]> _branches;
+}
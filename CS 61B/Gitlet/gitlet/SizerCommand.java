@@ -0,0 +1,181 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/** Command for sizer [-n N] [--json], which reports where the
+ *  repository's disk goes: the objects by kind, the N (default 10)
+ *  biggest blobs with the paths naming them, each branch's commits and
+ *  the bytes of the distinct blobs they brought, in all and counting
+ *  only those no other branch reaches, and each worktree's stage.  --json
+ *  writes the same report as one JSON object.  See Sizer.
+ *  @author Swadhin Nalubola
+ */
+public class SizerCommand extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, args.length, true)) {
+            System.exit(0);
+        }
+        int biggest = BIGGEST;
+        boolean json = false;
+        for (int i = 0; i < args.length; i += 1) {
+            if (args[i].equals("--json")) {
+                json = true;
+            } else if (args[i].equals("-n") && i + 1 < args.length
+                       && args[i + 1].matches("\\d{1,9}")) {
+                biggest = Integer.parseInt(args[i + 1]);
+                i += 1;
+            } else {
+                System.out.println("Incorrect operands.");
+                System.exit(0);
+            }
+        }
+        Sizer sizer = new Sizer(repo);
+        sizer.files();
+        sizer.history(biggest);
+        List<long[]> stages = new ArrayList<>();
+        List<String> trees = repo.worktrees();
+        for (String tree : trees) {
+            stages.add(stage(new Repo(tree), sizer));
+        }
+        System.out.print(json ? json(sizer, trees, stages)
+                         : text(sizer, trees, stages));
+    }
+
+    @Override
+    public boolean writes() {
+        return false;
+    }
+
+    /**
+     * Size up REPO's stage: its file's bytes, then the paths tracked,
+     * staged and removed, and the bytes of the staged blobs.
+     * @param repo repo
+     * @param sizer sizer, after files()
+     * @return long[5]
+     */
+    private static long[] stage(Repo repo, Sizer sizer) {
+        File file = repo.stageFile();
+        if (!file.isFile()) {
+            return new long[5];
+        }
+        Stage stage = repo.readStage();
+        long staged = 0;
+        for (String sha : stage.getStaged().values()) {
+            staged += sizer.blobBytes(sha);
+        }
+        return new long[] {file.length(), stage.getTracked().size(),
+                           stage.getStaged().size(),
+                           stage.getRemoved().size(), staged};
+    }
+
+    /**
+     * The report as text.
+     * @param sizer sizer, after history()
+     * @param trees worktree paths
+     * @param stages their stages, as stage() gives them
+     * @return string
+     */
+    private static String text(Sizer sizer, List<String> trees,
+                               List<long[]> stages) {
+        StringBuilder out = new StringBuilder("objects\n");
+        for (int kind = 0; kind < KINDS.length; kind += 1) {
+            out.append(String.format("  %-12s %10d %14d bytes%n",
+                    KINDS[kind], sizer.count(kind), sizer.bytes(kind)));
+        }
+        out.append("biggest blobs\n");
+        for (Map.Entry<String, Set<String>> blob
+                 : sizer.biggest().entrySet()) {
+            out.append(String.format("  %s %14d bytes  %s%n",
+                    blob.getKey(), sizer.blobBytes(blob.getKey()),
+                    String.join(", ", blob.getValue())));
+        }
+        out.append(String.format("branches %21s %14s %10s %14s%n",
+                "commits", "bytes", "unique", "unique bytes"));
+        for (Map.Entry<String, long[]> branch
+                 : sizer.branches().entrySet()) {
+            long[] growth = branch.getValue();
+            out.append(String.format("  %-26s %10d %14d %10d %14d%n",
+                    branch.getKey(), growth[0], growth[1], growth[2],
+                    growth[3]));
+        }
+        out.append("stage\n");
+        for (int i = 0; i < trees.size(); i += 1) {
+            long[] stage = stages.get(i);
+            out.append(String.format("  %s: %d bytes, %d tracked, %d "
+                    + "staged (%d bytes), %d removed%n", trees.get(i),
+                    stage[0], stage[1], stage[2], stage[4], stage[3]));
+        }
+        return out.toString();
+    }
+
+    /**
+     * The report as JSON.
+     * @param sizer sizer, after history()
+     * @param trees worktree paths
+     * @param stages their stages, as stage() gives them
+     * @return string
+     */
+    private static String json(Sizer sizer, List<String> trees,
+                               List<long[]> stages) {
+        StringBuilder out = new StringBuilder("{\"objects\":{");
+        for (int kind = 0; kind < KINDS.length; kind += 1) {
+            out.append(kind == 0 ? "" : ",").append(Trace.quote(KINDS[kind]))
+                .append(":{\"count\":").append(sizer.count(kind))
+                .append(",\"bytes\":").append(sizer.bytes(kind)).append('}');
+        }
+        out.append("},\"biggest\":[");
+        String separator = "";
+        for (Map.Entry<String, Set<String>> blob
+                 : sizer.biggest().entrySet()) {
+            out.append(separator).append("{\"blob\":")
+                .append(Trace.quote(blob.getKey())).append(",\"bytes\":")
+                .append(sizer.blobBytes(blob.getKey()))
+                .append(",\"paths\":[");
+            String pathSeparator = "";
+            for (String path : blob.getValue()) {
+                out.append(pathSeparator).append(Trace.quote(path));
+                pathSeparator = ",";
+            }
+            out.append("]}");
+            separator = ",";
+        }
+        out.append("],\"branches\":[");
+        separator = "";
+        for (Map.Entry<String, long[]> branch
+                 : sizer.branches().entrySet()) {
+            long[] growth = branch.getValue();
+            out.append(separator).append("{\"name\":")
+                .append(Trace.quote(branch.getKey()))
+                .append(",\"commits\":").append(growth[0])
+                .append(",\"bytes\":").append(growth[1])
+                .append(",\"unique_commits\":").append(growth[2])
+                .append(",\"unique_bytes\":").append(growth[3]).append('}');
+            separator = ",";
+        }
+        out.append("],\"stages\":[");
+        for (int i = 0; i < trees.size(); i += 1) {
+            long[] stage = stages.get(i);
+            out.append(i == 0 ? "" : ",").append("{\"worktree\":")
+                .append(Trace.quote(trees.get(i)))
+                .append(",\"bytes\":").append(stage[0])
+                .append(",\"tracked\":").append(stage[1])
+                .append(",\"staged\":").append(stage[2])
+                .append(",\"removed\":").append(stage[3])
+                .append(",\"staged_bytes\":").append(stage[4]).append('}');
+        }
+        return out.append("]}\n").toString();
+    }
+
+    /** Names of the kinds of object files, by Sizer kind. */
+    private static final String[] KINDS = {
+        "commits", "blobs", "alternates", "garbage",
+    };
+    /** Biggest blobs shown by default. */
+    private static final int BIGGEST = 10;
+}
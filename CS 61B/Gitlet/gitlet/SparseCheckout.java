@@ -0,0 +1,109 @@
+package gitlet;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/** The paths of the working directory that are checked out.  Patterns
+ *  in .gitlet/sparse-checkout, written as in .gitletignore, pick them:
+ *  a path is in the sparse set when a pattern matches it or a directory
+ *  it is in.  Paths outside the set stay tracked and are carried into
+ *  new commits, but are never written to or looked for in the working
+ *  directory.  Without the file every path is in the set.
+ *  @author Swadhin Nalubola
+ */
+public class SparseCheckout {
+
+    /**
+     * The sparse set saved in REPO.
+     * @param repo repo
+     * @return sparsecheckout
+     */
+    public static SparseCheckout load(Repo repo) {
+        File file = repo.sparseCheckoutFile();
+        if (!file.isFile()) {
+            return new SparseCheckout(null);
+        }
+        String text = new String(Utils.readContents(file),
+                StandardCharsets.UTF_8);
+        return new SparseCheckout(Arrays.asList(text.split("\r?\n")));
+    }
+
+    /**
+     * Initialize a sparse set from PATTERNS.
+     * @param patterns list, or null for every path
+     */
+    public SparseCheckout(List<String> patterns) {
+        if (patterns == null) {
+            _patterns = null;
+            _rules = null;
+        } else {
+            _patterns = new ArrayList<>();
+            for (String pattern : patterns) {
+                if (!pattern.trim().isEmpty()) {
+                    _patterns.add(pattern.trim());
+                }
+            }
+            _rules = new IgnoreRules(_patterns.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * Save this sparse set in REPO, or remove the saved one if this set
+     * holds every path.
+     * @param repo repo
+     */
+    public void save(Repo repo) {
+        File file = repo.sparseCheckoutFile();
+        if (_patterns == null) {
+            file.delete();
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        for (String pattern : _patterns) {
+            text.append(pattern).append('\n');
+        }
+        Repo.store(file, text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Is checkout limited to some paths.
+     * @return boolean
+     */
+    public boolean enabled() {
+        return _rules != null;
+    }
+
+    /**
+     * The patterns, in order.
+     * @return list, empty if every path is in the set
+     */
+    public List<String> patterns() {
+        return _patterns == null ? new ArrayList<>() : _patterns;
+    }
+
+    /**
+     * Is the file PATH in the sparse set.
+     * @param path string, / separated
+     * @return boolean
+     */
+    public boolean includes(String path) {
+        return _rules == null || _rules.ignored(path, false);
+    }
+
+    /**
+     * Could the directory DIR hold paths in the sparse set.
+     * @param dir string, / separated
+     * @return boolean
+     */
+    public boolean mayContain(String dir) {
+        return _rules == null || _rules.mayContain(dir);
+    }
+
+    /** the patterns, or null if every path is in the set. */
+    private final List<String> _patterns;
+    /** the compiled patterns, or null if every path is in the set. */
+    private final IgnoreRules _rules;
+}
@@ -0,0 +1,100 @@
+package gitlet;
+
+import java.io.File;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+/** Command for sparse-checkout, which picks the paths checked out:
+ *  sparse-checkout set PATTERN...   check out only paths PATTERNs match
+ *  sparse-checkout add PATTERN...   check out paths PATTERNs match too
+ *  sparse-checkout list             show the patterns
+ *  sparse-checkout disable          check out every path again
+ *  Changing the set writes the newly included tracked files and deletes
+ *  unmodified files that are no longer included.
+ *  @author Swadhin Nalubola
+ */
+public class SparseCheckoutCommand extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (args.length == 0) {
+            System.out.println("Incorrect operands.");
+            System.exit(0);
+        }
+        String[] rest = Arrays.copyOfRange(args, 1, args.length);
+        SparseCheckout old = repo.sparseCheckout();
+        switch (args[0]) {
+        case "list":
+            if (!super.valid(rest, 0, true)) {
+                System.exit(0);
+            }
+            for (String pattern : old.patterns()) {
+                System.out.println(pattern);
+            }
+            return;
+        case "set":
+        case "add":
+            if (!super.valid(rest, Math.max(1, rest.length), true)) {
+                System.exit(0);
+            }
+            List<String> patterns = new ArrayList<>();
+            if (args[0].equals("add")) {
+                patterns.addAll(old.patterns());
+            }
+            patterns.addAll(Arrays.asList(rest));
+            apply(repo, old, new SparseCheckout(patterns));
+            return;
+        case "disable":
+            if (!super.valid(rest, 0, true)) {
+                System.exit(0);
+            }
+            apply(repo, old, new SparseCheckout(null));
+            return;
+        default:
+            System.out.println("Incorrect operands.");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Change the working directory from sparse set OLD to NEW and save
+     * NEW.
+     * @param repo repo
+     * @param old sparsecheckout
+     * @param next sparsecheckout
+     */
+    private void apply(Repo repo, SparseCheckout old, SparseCheckout next) {
+        Stage stage = repo.readStage();
+        Map<String, String> tracked = stage.getTracked();
+        for (Map.Entry<String, String> entry : tracked.entrySet()) {
+            String fileName = entry.getKey();
+            File file = new File(fileName);
+            if (next.includes(fileName) && !old.includes(fileName)
+                    && file.isFile() && !Utils.sha1(Utils.readContents(file))
+                    .equals(entry.getValue())) {
+                System.out.println("There is an untracked file in the way; "
+                        + "delete it or add it first.");
+                System.exit(0);
+            }
+        }
+        for (Map.Entry<String, String> entry : tracked.entrySet()) {
+            String fileName = entry.getKey();
+            File file = new File(fileName);
+            if (next.includes(fileName) && !old.includes(fileName)) {
+                repo.materializer().write(entry.getValue(), file);
+            } else if (!next.includes(fileName) && old.includes(fileName)
+                    && file.isFile() && !stage.isStaged(fileName)) {
+                if (Utils.sha1(Utils.readContents(file))
+                        .equals(entry.getValue())) {
+                    repo.materializer().delete(file);
+                } else {
+                    System.out.println("Not removing modified file "
+                            + fileName + ".");
+                }
+            }
+        }
+        next.save(repo);
+    }
+}
@@ -0,0 +1,64 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.util.Arrays;
+
+/** Tests of SparseCheckout.
+ *  @author Swadhin Nalubola
+ */
+public class SparseCheckoutTest {
+
+    @Test
+    public void everyPathTest() {
+        SparseCheckout sparse = new SparseCheckout(null);
+        assertFalse(sparse.enabled());
+        assertTrue(sparse.patterns().isEmpty());
+        assertTrue(sparse.includes("a/b/c.txt"));
+        assertTrue(sparse.mayContain("a/b"));
+    }
+
+    @Test
+    public void includesTest() {
+        SparseCheckout sparse = sparse("/src/", "/README", "*.md");
+        assertTrue(sparse.enabled());
+        assertTrue(sparse.includes("src/Main.java"));
+        assertTrue(sparse.includes("src/deep/er/File.java"));
+        assertTrue(sparse.includes("README"));
+        assertTrue(sparse.includes("doc/guide.md"));
+        assertFalse(sparse.includes("lib/a.jar"));
+        assertFalse(sparse.includes("doc/README"));
+        assertFalse(sparse.includes("src"));
+    }
+
+    @Test
+    public void mayContainTest() {
+        SparseCheckout sparse = sparse("/src/main/", "/doc/index.txt");
+        assertTrue(sparse.mayContain("src"));
+        assertTrue(sparse.mayContain("src/main"));
+        assertTrue(sparse.mayContain("src/main/java"));
+        assertTrue(sparse.mayContain("doc"));
+        assertFalse(sparse.mayContain("src/test"));
+        assertFalse(sparse.mayContain("lib"));
+        assertTrue(sparse("*.txt").mayContain("lib"));
+    }
+
+    @Test
+    public void patternsTest() {
+        SparseCheckout sparse = sparse("  /src/ ", "", "   ", "*.md");
+        assertEquals(Arrays.asList("/src/", "*.md"), sparse.patterns());
+        assertTrue(sparse.includes("src/a"));
+        assertFalse(sparse("").includes("a"));
+        assertTrue(sparse("").enabled());
+    }
+
+    /**
+     * The sparse set of the patterns PATTERNS.
+     * @param patterns string[]
+     * @return sparsecheckout
+     */
+    private static SparseCheckout sparse(String... patterns) {
+        return new SparseCheckout(Arrays.asList(patterns));
+    }
+}
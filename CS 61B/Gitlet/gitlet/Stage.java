@@ -1,7 +1,9 @@
 package gitlet;
 
+import java.io.File;
 import java.io.Serializable;
 import java.util.HashMap;
+import java.util.HashSet;
 
 /** Stage object.
  * @author Swadhin Nalubola
@@ -12,11 +14,9 @@ public class Stage implements Serializable {
      * Initialize stage.
      */
     public Stage() {
-        _commits = new HashMap<>();
         _tracked = new HashMap<>();
         _staged = new HashMap<>();
         _removed = new HashMap<>();
-        _branches = new HashMap<>();
     }
 
     /**
@@ -81,31 +81,6 @@ public class Stage implements Serializable {
         }
     }
 
-    /**
-     * add a branch.
-     * @param branch string
-     * @param sha1 string
-     */
-    public void addBranch(String branch, String sha1) {
-        _branches.put(branch, sha1);
-    }
-
-    /**
-     * get commits.
-     * @return hashmap
-     */
-    public HashMap<String, CommitObject> getCommits() {
-        return _commits;
-    }
-
-    /**
-     * add commit.
-     * @param commitObject commitobject
-     */
-    public void addCommit(CommitObject commitObject) {
-        _commits.put(commitObject.getSHA(), commitObject);
-    }
-
     /**
      * get tracked files.
      * @return hashmap
@@ -164,14 +139,6 @@ public class Stage implements Serializable {
         _removed = new HashMap<>();
     }
 
-    /**
-     * get branches.
-     * @return hashmap
-     */
-    public HashMap<String, String> getBranches() {
-        return _branches;
-    }
-
     /**
      * get head.
      * @return string
@@ -204,8 +171,120 @@ public class Stage implements Serializable {
         _branch = branch;
     }
 
-    /** hashmap for commits. */
-    private HashMap<String, CommitObject> _commits;
+    /**
+     * take the branch heads kept in stages written before branches moved
+     * to the ref store, leaving this stage without them.
+     * @return hashmap of branch name, sha1, or null if there are none
+     */
+    public HashMap<String, String> takeBranches() {
+        HashMap<String, String> branches = _branches;
+        _branches = null;
+        return branches;
+    }
+
+    /**
+     * get the token of the watcher this stage was last checked against.
+     * @return string, or null
+     */
+    public String getWatchToken() {
+        return _watchToken;
+    }
+
+    /**
+     * get the watcher sequence number this stage was last checked at.
+     * @return long
+     */
+    public long getWatchSeq() {
+        return _watchSeq;
+    }
+
+    /**
+     * get the untracked files seen when last checked against a watcher.
+     * @return hashset
+     */
+    public HashSet<String> getUntracked() {
+        if (_untracked == null) {
+            return new HashSet<>();
+        }
+        return _untracked;
+    }
+
+    /**
+     * record a check of the working directory against a watcher.
+     * @param token string, or null if there was no watcher
+     * @param seq long
+     * @param untracked hashset
+     */
+    public void setWatch(String token, long seq, HashSet<String> untracked) {
+        _watchToken = token;
+        _watchSeq = seq;
+        _untracked = untracked;
+    }
+
+    /**
+     * Is FILE, working copy of FILENAME, as it was when last found to
+     * hold blob SHA1: the same length and modification time, with that
+     * time older than the check so a later write could not share it.
+     * @param fileName string
+     * @param file file
+     * @param sha1 string
+     * @return boolean, false if the file has to be hashed to tell
+     */
+    public boolean unchanged(String fileName, File file, String sha1) {
+        Stat stat = _stats == null ? null : _stats.get(fileName);
+        return stat != null && stat._sha1.equals(sha1)
+            && stat._length == file.length()
+            && stat._modified == file.lastModified()
+            && stat._modified < stat._checked - RACY_MILLIS;
+    }
+
+    /**
+     * Remember that FILE, working copy of FILENAME, was just found to
+     * hold blob SHA1.
+     * @param fileName string
+     * @param file file
+     * @param sha1 string
+     */
+    public void checked(String fileName, File file, String sha1) {
+        if (_stats == null) {
+            _stats = new HashMap<>();
+        }
+        Stat stat = new Stat();
+        stat._sha1 = sha1;
+        stat._length = file.length();
+        stat._modified = file.lastModified();
+        stat._checked = System.currentTimeMillis();
+        _stats.put(fileName, stat);
+    }
+
+    /**
+     * Forget what was remembered of files neither tracked nor staged.
+     */
+    public void pruneChecked() {
+        if (_stats != null) {
+            _stats.keySet().removeIf(name -> !isTracked(name)
+                                     && !isStaged(name));
+        }
+    }
+
+    /** What was seen of a working file when it was last hashed. */
+    private static class Stat implements Serializable {
+        /** blob it held. */
+        private String _sha1;
+        /** its length. */
+        private long _length;
+        /** its modification time. */
+        private long _modified;
+        /** when it was hashed. */
+        private long _checked;
+    }
+
+    /** Stays that of the first version, so that its stages can still be
+     *  read. */
+    private static final long serialVersionUID = -97977048802682609L;
+    /** Files modified this close to being hashed are hashed again, in
+     *  case a write in the same clock tick kept the modification time. */
+    private static final long RACY_MILLIS = 2000;
 
     /** Follows the form of filename, sha1. */
     private HashMap<String, String> _tracked;
@@ -213,11 +292,20 @@ public class Stage implements Serializable {
     private HashMap<String, String> _staged;
     /** Follows the form of filename, sha1. */
     private HashMap<String, String> _removed;
-    /** Follows the form of branchname, sha1 of latest commit. */
+    /** Follows the form of branchname, sha1 of latest commit, in stages
+     *  written before RefStore; null otherwise. */
     private HashMap<String, String> _branches;
     /** the head. */
     private String _head;
     /** the branch. */
     private String _branch;
+    /** token of the watcher last checked against. */
+    private String _watchToken;
+    /** watcher sequence number last checked at. */
+    private long _watchSeq;
+    /** untracked files seen when last checked. */
+    private HashSet<String> _untracked;
+    /** what was seen of working files when last hashed, by name. */
+    private HashMap<String, Stat> _stats;
 
 }
@@ -0,0 +1,377 @@
+package gitlet;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/** Command for stash, which sets local changes aside:
+ *  stash [push] [-u] [-m MESSAGE]  save the stage and modified files, and
+ *                                  put both back as the head commit has
+ *                                  them; -u saves and removes untracked
+ *                                  files too
+ *  stash list                      show the saved entries, newest first
+ *  stash pop [N]                   restore entry N (default 0), drop it
+ *  stash drop [N]                  drop entry N
+ *  An entry is two ordinary commits on the head commit: one of the stage,
+ *  and one of the working files whose second parent is the first.  They
+ *  share blobs with everything else, so only contents not already stored
+ *  are written.  Push and pop read and write only the paths that differ
+ *  from the head; tracked files are not rehashed when their length and
+ *  modification time are as the stage last saw them.  The entry list is
+ *  shared by every worktree, so push, pop and drop hold the shared lock
+ *  from reading it to rewriting it.
+ *  @author Swadhin Nalubola
+ */
+public class Stash extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, args.length, true)) {
+            System.exit(0);
+        }
+        String sub = args.length == 0 || args[0].startsWith("-")
+            ? "push" : args[0];
+        String[] rest = args.length == 0 || args[0].startsWith("-")
+            ? args : Arrays.copyOfRange(args, 1, args.length);
+        if (!sub.equals("list")) {
+            repo.lockShared();
+        }
+        switch (sub) {
+        case "push":
+            push(repo, rest);
+            return;
+        case "list":
+            if (!super.valid(rest, 0, true)) {
+                System.exit(0);
+            }
+            List<String> entries = entries(repo);
+            for (int i = 0; i < entries.size(); i += 1) {
+                CommitObject entry = repo.objects().readCommit(entries.get(i));
+                System.out.println("stash@{" + i + "}: "
+                        + entry.getLogMessage());
+            }
+            return;
+        case "pop":
+            pop(repo, index(repo, rest));
+            return;
+        case "drop":
+            int n = index(repo, rest);
+            String sha = drop(repo, n);
+            System.out.println("Dropped stash@{" + n + "} (" + sha + ")");
+            return;
+        default:
+            System.out.println("Incorrect operands.");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Save the local changes as a new entry and undo them, as ARGS say.
+     * @param repo repo
+     * @param args string[], of -u and -m MESSAGE
+     */
+    private void push(Repo repo, String[] args) {
+        boolean untracked = false;
+        String message = null;
+        for (int i = 0; i < args.length; i += 1) {
+            if (args[i].equals("-u")) {
+                untracked = true;
+            } else if (args[i].equals("-m") && i + 1 < args.length) {
+                i += 1;
+                message = args[i];
+            } else {
+                System.out.println("Incorrect operands.");
+                System.exit(0);
+            }
+        }
+        Stage stage = repo.readStage();
+        CommitObject head = repo.objects().readCommit(stage.getHead());
+        HashMap<String, String> base = head.getTrackedBlobs();
+        HashMap<String, String> index = new HashMap<>(stage.getTracked());
+        index.putAll(stage.getStaged());
+        HashMap<String, String> work = new HashMap<>(index);
+        TreeSet<String> dirty = new TreeSet<>(stage.getStaged().keySet());
+        dirty.addAll(stage.getRemoved().keySet());
+        SparseCheckout sparse = repo.sparseCheckout();
+        for (Map.Entry<String, String> entry : index.entrySet()) {
+            String fileName = entry.getKey();
+            String sha = entry.getValue();
+            File file = new File(fileName);
+            if (!sparse.includes(fileName)
+                    || stage.unchanged(fileName, file, sha)) {
+                continue;
+            }
+            if (!file.isFile()) {
+                work.remove(fileName);
+                dirty.add(fileName);
+                continue;
+            }
+            byte[] contents = Utils.readContents(file);
+            String now = Utils.sha1((Object) contents);
+            if (now.equals(sha)) {
+                stage.checked(fileName, file, sha);
+            } else {
+                store(repo, now, contents);
+                work.put(fileName, now);
+                dirty.add(fileName);
+            }
+        }
+        if (untracked) {
+            for (File file : repo.workingTree().files(stage)) {
+                addUntracked(repo, file.getName(), index, work, dirty);
+            }
+        }
+        if (index.equals(base) && work.equals(index)) {
+            System.out.println("No local changes to save.");
+            System.exit(0);
+        }
+
+        String branch = stage.getBranch();
+        String subject = head.getSHA().substring(0, 7) + " "
+            + head.getLogMessage();
+        String timestamp = CommitObject.now();
+        String author = CommitObject.author(repo);
+        CommitObject indexCommit = new CommitObject("index on " + branch
+                + ": " + subject, author, timestamp, head.getSHA(), null,
+                branch, index);
+        CommitObject workCommit = new CommitObject(message == null
+                ? "WIP on " + branch + ": " + subject
+                : "On " + branch + ": " + message, author, timestamp,
+                head.getSHA(), indexCommit.getSHA(), branch, work);
+        repo.objects().writeCommit(indexCommit);
+        repo.objects().writeCommit(workCommit);
+        List<String> entries = entries(repo);
+        entries.add(0, workCommit.getSHA());
+        save(repo, entries);
+
+        for (String fileName : dirty) {
+            String sha = base.get(fileName);
+            if (sparse.includes(fileName)) {
+                if (sha != null) {
+                    repo.materializer().write(sha, new File(fileName));
+                } else {
+                    repo.materializer().delete(new File(fileName));
+                }
+            }
+            if (sha != null) {
+                stage.track(fileName, sha);
+            } else {
+                stage.unTrack(fileName, null);
+            }
+        }
+        stage.emptyStage();
+        stage.pruneChecked();
+        repo.writeStage(stage);
+    }
+
+    /**
+     * Add the untracked files at or under NAME, skipping ignored ones, to
+     * WORK and DIRTY, storing their contents.
+     * @param repo repo
+     * @param name string, / separated path of a working entry
+     * @param index the stage's snapshot
+     * @param work the working files' snapshot
+     * @param dirty set of changed paths
+     */
+    private void addUntracked(Repo repo, String name,
+                              Map<String, String> index,
+                              Map<String, String> work, TreeSet<String> dirty) {
+        File file = new File(name);
+        if (name.equals(".gitlet") || index.containsKey(name)) {
+            return;
+        }
+        if (file.isDirectory()) {
+            String[] children = file.list();
+            if (children == null) {
+                return;
+            }
+            for (String child : children) {
+                String path = name + "/" + child;
+                boolean isDirectory = new File(path).isDirectory();
+                if ((isDirectory ? repo.sparseCheckout().mayContain(path)
+                        : repo.sparseCheckout().includes(path))
+                        && !repo.ignoreRules().matches(path, isDirectory)) {
+                    addUntracked(repo, path, index, work, dirty);
+                }
+            }
+        } else if (file.isFile()) {
+            byte[] contents = Utils.readContents(file);
+            String sha = Utils.sha1((Object) contents);
+            store(repo, sha, contents);
+            work.put(name, sha);
+            dirty.add(name);
+        }
+    }
+
+    /**
+     * Restore entry N and drop it.  Nothing is changed if a path the
+     * entry changes has local changes of its own.
+     * @param repo repo
+     * @param n int
+     */
+    private void pop(Repo repo, int n) {
+        List<String> entries = entries(repo);
+        CommitObject workCommit = repo.objects().readCommit(entries.get(n));
+        HashMap<String, String> work = workCommit.getTrackedBlobs();
+        HashMap<String, String> index = repo.objects()
+            .readCommit(workCommit.getParent2SHA()).getTrackedBlobs();
+        HashMap<String, String> base = repo.objects()
+            .readCommit(workCommit.getParentSHA()).getTrackedBlobs();
+        TreeSet<String> dirty = new TreeSet<>();
+        for (Map<String, String> snapshot : Arrays.asList(index, work)) {
+            for (Map.Entry<String, String> entry : snapshot.entrySet()) {
+                if (!entry.getValue().equals(base.get(entry.getKey()))) {
+                    dirty.add(entry.getKey());
+                }
+            }
+        }
+        for (String fileName : base.keySet()) {
+            if (!index.containsKey(fileName) || !work.containsKey(fileName)) {
+                dirty.add(fileName);
+            }
+        }
+
+        Stage stage = repo.readStage();
+        SparseCheckout sparse = repo.sparseCheckout();
+        for (String fileName : dirty) {
+            String current = stage.getTracked().get(fileName);
+            if (stage.isStaged(fileName)
+                    || stage.getRemoved().containsKey(fileName)
+                    || !Objects.equals(current, base.get(fileName))
+                    && !Objects.equals(current, work.get(fileName))) {
+                System.out.println("Your local changes to " + fileName
+                        + " would be overwritten; commit them first.");
+                System.exit(0);
+            }
+            repo.workingTree().requireClean(stage, fileName, current,
+                    work.get(fileName));
+        }
+
+        for (String fileName : dirty) {
+            String current = stage.getTracked().get(fileName);
+            String saved = work.get(fileName);
+            String staged = index.get(fileName);
+            if (sparse.includes(fileName)) {
+                if (saved != null) {
+                    repo.materializer().write(saved, new File(fileName));
+                } else {
+                    repo.materializer().delete(new File(fileName));
+                }
+            }
+            if (Objects.equals(staged, current)) {
+                continue;
+            } else if (staged != null) {
+                stage.stage(fileName, staged);
+            } else if (current != null) {
+                stage.remove(fileName, current);
+            }
+        }
+        repo.writeStage(stage);
+        drop(repo, n);
+    }
+
+    /**
+     * Remove entry N from the list.
+     * @param repo repo
+     * @param n int
+     * @return sha of the entry removed
+     */
+    private String drop(Repo repo, int n) {
+        List<String> entries = entries(repo);
+        String sha = entries.remove(n);
+        save(repo, entries);
+        return sha;
+    }
+
+    /**
+     * The entry number ARGS names, 0 if none.
+     * @param repo repo
+     * @param args string[], empty or one of N or stash@{N}
+     * @return int
+     */
+    private int index(Repo repo, String[] args) {
+        if (args.length > 1) {
+            System.out.println("Incorrect operands.");
+            System.exit(0);
+        }
+        int size = entries(repo).size();
+        if (size == 0) {
+            System.out.println("No stash entries found.");
+            System.exit(0);
+        }
+        if (args.length == 0) {
+            return 0;
+        }
+        String arg = args[0];
+        if (arg.startsWith("stash@{") && arg.endsWith("}")) {
+            arg = arg.substring("stash@{".length(), arg.length() - 1);
+        }
+        try {
+            int n = Integer.parseInt(arg);
+            if (n >= 0 && n < size) {
+                return n;
+            }
+        } catch (NumberFormatException excp) {
+            /* Reported below. */
+        }
+        System.out.println("No stash entry " + args[0] + " exists.");
+        System.exit(0);
+        return 0;
+    }
+
+    /**
+     * Store CONTENTS as blob SHA unless it is stored already.
+     * @param repo repo
+     * @param sha string
+     * @param contents byte[]
+     */
+    private static void store(Repo repo, String sha, byte[] contents) {
+        if (!repo.objects().hasBlob(sha)) {
+            repo.objects().writeBlob(new Blob(sha, contents));
+        }
+    }
+
+    /**
+     * The shas of REPO's stash entries, newest first.
+     * @param repo repo
+     * @return list
+     */
+    static List<String> entries(Repo repo) {
+        ArrayList<String> entries = new ArrayList<>();
+        File file = repo.stashFile();
+        if (file.isFile()) {
+            String text = new String(Utils.readContents(file),
+                    StandardCharsets.UTF_8);
+            for (String line : text.split("\n")) {
+                if (!line.isEmpty()) {
+                    entries.add(line);
+                }
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Save ENTRIES as REPO's stash entries.
+     * @param repo repo
+     * @param entries list of shas, newest first
+     */
+    private static void save(Repo repo, List<String> entries) {
+        if (entries.isEmpty()) {
+            repo.stashFile().delete();
+            return;
+        }
+        StringBuilder text = new StringBuilder();
+        for (String sha : entries) {
+            text.append(sha).append('\n');
+        }
+        Repo.store(repo.stashFile(),
+                text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -1,5 +1,7 @@
 package gitlet;
 
+import java.util.Iterator;
+
 /** Command for status.
  * @author Swadhin Nalubola
  */
@@ -11,11 +13,14 @@ public class Status extends Command {
             System.exit(0);
         }
 
-        Stage stage = Utils.readObject(repo.stageFile(), Stage.class);
+        Stage stage = repo.readStage();
         System.out.println("=== Branches ===");
-        System.out.println("*" + stage.getBranch());
-        for (String branch : stage.getBranches().keySet()) {
-            if (!branch.equals(stage.getBranch())) {
+        Iterator<String> branches = repo.refs().names("");
+        while (branches.hasNext()) {
+            String branch = branches.next();
+            if (branch.equals(stage.getBranch())) {
+                System.out.println("*" + branch);
+            } else {
                 System.out.println(branch);
             }
         }
@@ -33,5 +38,22 @@ public class Status extends Command {
         System.out.println("=== Modifications Not Staged For Commit ===");
         System.out.println();
         System.out.println("=== Untracked Files ===");
+        SparseCheckout sparse = repo.sparseCheckout();
+        if (sparse.enabled()) {
+            int present = 0;
+            for (String fileName : stage.getTracked().keySet()) {
+                if (sparse.includes(fileName)) {
+                    present += 1;
+                }
+            }
+            System.out.println();
+            System.out.println("Sparse checkout: " + present + " of "
+                    + stage.getTracked().size() + " tracked files present.");
+        }
+    }
+
+    @Override
+    public boolean writes() {
+        return false;
     }
 }
@@ -0,0 +1,186 @@
+package gitlet;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+/** An output stream that writes a POSIX ustar archive, used like a
+ *  ZipOutputStream: putNextEntry, the entry's bytes, closeEntry, and
+ *  close to finish the archive.  Entries are plain files with mode 644.
+ *  @author Swadhin Nalubola
+ */
+public class TarOutput extends FilterOutputStream {
+
+    /**
+     * Initialize a tar archive written to OUT.
+     * @param out outputstream
+     */
+    public TarOutput(OutputStream out) {
+        super(out);
+    }
+
+    /**
+     * Start an entry called NAME holding SIZE bytes, modified at MTIME.
+     * @param name string, / separated
+     * @param size long
+     * @param mtime milliseconds since the epoch
+     * @throws IOException on failure
+     */
+    public void putNextEntry(String name, long size, long mtime)
+        throws IOException {
+        if (_remaining >= 0) {
+            closeEntry();
+        }
+        byte[] header = new byte[BLOCK];
+        byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+        int split = 0;
+        if (bytes.length > NAME) {
+            split = bytes.length - NAME - 1;
+            while (split < bytes.length && bytes[split] != '/') {
+                split += 1;
+            }
+            if (split > PREFIX || split >= bytes.length) {
+                throw Utils.error("%s is too long for a tar archive.", name);
+            }
+            System.arraycopy(bytes, 0, header, PREFIX_OFFSET, split);
+            split += 1;
+        }
+        System.arraycopy(bytes, split, header, 0, bytes.length - split);
+        octal(header, MODE_OFFSET, FIELD, FILE_MODE);
+        octal(header, UID_OFFSET, FIELD, 0);
+        octal(header, GID_OFFSET, FIELD, 0);
+        octal(header, SIZE_OFFSET, NUMBER, size);
+        octal(header, MTIME_OFFSET, NUMBER, Math.max(0, mtime / 1000));
+        header[TYPE_OFFSET] = '0';
+        System.arraycopy(MAGIC, 0, header, MAGIC_OFFSET, MAGIC.length);
+        Arrays.fill(header, CHECKSUM_OFFSET, CHECKSUM_OFFSET + FIELD,
+                (byte) ' ');
+        long checksum = 0;
+        for (byte b : header) {
+            checksum += b & 0xff;
+        }
+        octal(header, CHECKSUM_OFFSET, FIELD - 1, checksum);
+        out.write(header);
+        _remaining = size;
+    }
+
+    /**
+     * Finish the current entry, which must have been written in full.
+     * @throws IOException on failure
+     */
+    public void closeEntry() throws IOException {
+        if (_remaining != 0) {
+            throw Utils.error("Tar entry has the wrong size.");
+        }
+        out.write(new byte[padding(_written)]);
+        _remaining = -1;
+        _written = 0;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        count(1);
+        out.write(b);
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        count(len);
+        out.write(b, off, len);
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (_remaining >= 0) {
+            closeEntry();
+        }
+        out.write(new byte[2 * BLOCK]);
+        super.close();
+    }
+
+    /**
+     * Account for LEN bytes of the current entry.
+     * @param len int
+     */
+    private void count(int len) {
+        if (len > _remaining) {
+            throw Utils.error("Tar entry has the wrong size.");
+        }
+        _remaining -= len;
+        _written += len;
+    }
+
+    /**
+     * Bytes needed after SIZE bytes to reach a whole block.
+     * @param size long
+     * @return int
+     */
+    private static int padding(long size) {
+        return (int) ((BLOCK - size % BLOCK) % BLOCK);
+    }
+
+    /**
+     * Write VALUE into HEADER at OFFSET as DIGITS zero-padded octal
+     * digits followed by a NUL.
+     * @param header byte[]
+     * @param offset int
+     * @param digits int, including the NUL
+     * @param value long
+     */
+    private static void octal(byte[] header, int offset, int digits,
+                              long value) {
+        String text = Long.toOctalString(value);
+        if (text.length() > digits - 1) {
+            throw Utils.error("Value too large for a tar archive.");
+        }
+        for (int i = 0; i < digits - 1 - text.length(); i += 1) {
+            header[offset + i] = '0';
+        }
+        for (int i = 0; i < text.length(); i += 1) {
+            header[offset + digits - 1 - text.length() + i] =
+                (byte) text.charAt(i);
+        }
+        header[offset + digits - 1] = 0;
+    }
+
+    /** Bytes in a tar block. */
+    private static final int BLOCK = 512;
+    /** Longest name field. */
+    private static final int NAME = 100;
+    /** Longest prefix field. */
+    private static final int PREFIX = 155;
+    /** Width of the mode, uid, gid and checksum fields. */
+    private static final int FIELD = 8;
+    /** Width of the size and mtime fields. */
+    private static final int NUMBER = 12;
+    /** Offset of the mode field. */
+    private static final int MODE_OFFSET = 100;
+    /** Offset of the uid field. */
+    private static final int UID_OFFSET = 108;
+    /** Offset of the gid field. */
+    private static final int GID_OFFSET = 116;
+    /** Offset of the size field. */
+    private static final int SIZE_OFFSET = 124;
+    /** Offset of the mtime field. */
+    private static final int MTIME_OFFSET = 136;
+    /** Offset of the checksum field. */
+    private static final int CHECKSUM_OFFSET = 148;
+    /** Offset of the type flag. */
+    private static final int TYPE_OFFSET = 156;
+    /** Offset of the magic and version fields. */
+    private static final int MAGIC_OFFSET = 257;
+    /** Offset of the prefix field. */
+    private static final int PREFIX_OFFSET = 345;
+    /** Mode of every entry. */
+    private static final long FILE_MODE = 0644;
+    /** ustar magic and version. */
+    private static final byte[] MAGIC = {'u', 's', 't', 'a', 'r', 0,
+                                         '0', '0'};
+
+    /** bytes still to come in the current entry, or -1 outside one. */
+    private long _remaining = -1;
+    /** bytes written in the current entry. */
+    private long _written;
+}
@@ -0,0 +1,312 @@
+package gitlet;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/** Where a command's time and I/O go.  Turned on by --trace or
+ *  --trace=FILE before the command, or by GITLET_TRACE=FILE (1 for
+ *  standard error).  Spans time the phases of a command; counters total
+ *  the files and bytes read and written, bytes hashed and the time spent
+ *  hashing, objects decoded, object cache hits and misses, and
+ *  directories listed.  Each span also carries what the counters did
+ *  while it was open.  Commands exit from anywhere, so everything is
+ *  written when the process exits, spans still open ending there: to a
+ *  Chrome trace (for chrome://tracing or Perfetto) if FILE ends in .json,
+ *  and otherwise as one JSON object per line, the last holding the
+ *  totals.  When tracing is off, counting costs one test of a static
+ *  field.
+ *  @author Swadhin Nalubola
+ */
+public final class Trace {
+
+    /** Counter of files read. */
+    static final int FILES_READ = 0;
+    /** Counter of bytes read. */
+    static final int BYTES_READ = 1;
+    /** Counter of files written. */
+    static final int FILES_WRITTEN = 2;
+    /** Counter of bytes written. */
+    static final int BYTES_WRITTEN = 3;
+    /** Counter of bytes hashed. */
+    static final int BYTES_HASHED = 4;
+    /** Counter of nanoseconds spent hashing. */
+    static final int HASH_NANOS = 5;
+    /** Counter of objects decoded from the store. */
+    static final int OBJECTS_DECODED = 6;
+    /** Counter of object cache hits. */
+    static final int CACHE_HITS = 7;
+    /** Counter of object cache misses. */
+    static final int CACHE_MISSES = 8;
+    /** Counter of directories listed. */
+    static final int DIRECTORIES_LISTED = 9;
+
+    /** Names of the counters in the output, by counter. */
+    private static final String[] COUNTER_NAMES = {
+        "files_read", "bytes_read", "files_written", "bytes_written",
+        "bytes_hashed", "hash_ns", "objects_decoded", "cache_hits",
+        "cache_misses", "directories_listed",
+    };
+
+    /** No instances. */
+    private Trace() {
+    }
+
+    /**
+     * Start tracing, writing to DESTINATION when the process exits.
+     * @param destination file name, or null for standard error
+     */
+    static synchronized void start(String destination) {
+        if (_enabled) {
+            return;
+        }
+        _destination = destination;
+        _origin = System.nanoTime();
+        _enabled = true;
+        Runtime.getRuntime().addShutdownHook(new Thread(Trace::finish));
+    }
+
+    /**
+     * Is tracing on.
+     * @return boolean
+     */
+    static boolean enabled() {
+        return _enabled;
+    }
+
+    /**
+     * Open a span named NAME, to be closed when its phase ends.
+     * @param name string
+     * @return span
+     */
+    static Span span(String name) {
+        return _enabled ? new Span(name) : NONE;
+    }
+
+    /**
+     * Open a span named NAME followed by DETAIL, joining them only when
+     * tracing is on, so that untraced commands build no names.
+     * @param name string
+     * @param detail string
+     * @return span
+     */
+    static Span span(String name, String detail) {
+        return _enabled ? new Span(name + " " + detail) : NONE;
+    }
+
+    /**
+     * Add N to counter COUNTER.
+     * @param counter int
+     * @param n long
+     */
+    static void count(int counter, long n) {
+        if (_enabled) {
+            COUNTS.addAndGet(counter, n);
+        }
+    }
+
+    /**
+     * The current value of every counter.
+     * @return long[]
+     */
+    private static long[] counts() {
+        long[] counts = new long[COUNTER_NAMES.length];
+        for (int i = 0; i < counts.length; i += 1) {
+            counts[i] = COUNTS.get(i);
+        }
+        return counts;
+    }
+
+    /**
+     * End the spans still open and write everything out.
+     */
+    private static void finish() {
+        long end = System.nanoTime();
+        for (Span span : new ArrayList<>(OPEN)) {
+            span.end(end);
+        }
+        List<Span> spans = new ArrayList<>(DONE);
+        long[] totals = counts();
+        StringBuilder out = new StringBuilder();
+        boolean chrome = _destination != null
+            && _destination.endsWith(".json");
+        if (chrome) {
+            out.append("{\"traceEvents\":[\n");
+            for (Span span : spans) {
+                out.append("{\"name\":").append(quote(span._name))
+                    .append(",\"cat\":\"gitlet\",\"ph\":\"X\",\"pid\":1")
+                    .append(",\"tid\":").append(span._thread)
+                    .append(",\"ts\":").append(micros(span._start))
+                    .append(",\"dur\":").append(micros(span._end)
+                                                - micros(span._start))
+                    .append(",\"args\":");
+                counters(out, span._counts, false);
+                out.append("},\n");
+            }
+            out.append("{\"name\":\"totals\",\"ph\":\"C\",\"pid\":1,")
+                .append("\"tid\":0,\"ts\":").append(micros(end))
+                .append(",\"args\":");
+            counters(out, totals, true);
+            out.append("}\n],\"displayTimeUnit\":\"ms\"}\n");
+        } else {
+            for (Span span : spans) {
+                out.append("{\"span\":").append(quote(span._name))
+                    .append(",\"thread\":").append(quote(span._threadName))
+                    .append(",\"start_us\":").append(micros(span._start))
+                    .append(",\"duration_us\":").append(micros(span._end)
+                                                        - micros(span._start))
+                    .append(",\"counters\":");
+                counters(out, span._counts, false);
+                out.append("}\n");
+            }
+            out.append("{\"totals\":");
+            counters(out, totals, true);
+            out.append(",\"duration_us\":").append(micros(end))
+                .append("}\n");
+        }
+        if (_destination == null) {
+            System.err.print(out);
+            System.err.flush();
+        } else {
+            Utils.writeContents(new File(_destination),
+                    out.toString().getBytes(StandardCharsets.UTF_8));
+        }
+    }
+
+    /**
+     * Append COUNTS to OUT as a JSON object, leaving out zeros unless ALL.
+     * @param out stringbuilder
+     * @param counts long[], by counter
+     * @param all boolean
+     */
+    private static void counters(StringBuilder out, long[] counts,
+                                 boolean all) {
+        out.append('{');
+        String separator = "";
+        for (int i = 0; i < counts.length; i += 1) {
+            if (all || counts[i] != 0) {
+                out.append(separator).append('"').append(COUNTER_NAMES[i])
+                    .append("\":").append(counts[i]);
+                separator = ",";
+            }
+        }
+        out.append('}');
+    }
+
+    /**
+     * Microseconds from the start of tracing to NANOS.
+     * @param nanos long, from System.nanoTime
+     * @return long
+     */
+    private static long micros(long nanos) {
+        return (nanos - _origin) / NANOS_PER_MICRO;
+    }
+
+    /**
+     * S as a JSON string.
+     * @param s string
+     * @return string
+     */
+    static String quote(String s) {
+        StringBuilder out = new StringBuilder("\"");
+        for (int i = 0; i < s.length(); i += 1) {
+            char c = s.charAt(i);
+            if (c == '"' || c == '\\') {
+                out.append('\\').append(c);
+            } else if (c < ' ') {
+                out.append(String.format("\\u%04x", (int) c));
+            } else {
+                out.append(c);
+            }
+        }
+        return out.append('"').toString();
+    }
+
+    /** A timed phase.  Closing it records it; closing it again, or
+     *  closing the span returned while tracing is off, does nothing. */
+    static class Span {
+
+        /**
+         * Open a span named NAME on the current thread.
+         * @param name string
+         */
+        Span(String name) {
+            _name = name;
+            if (name == null) {
+                return;
+            }
+            _thread = THREAD.get();
+            _threadName = Thread.currentThread().getName();
+            _counts = counts();
+            _start = System.nanoTime();
+            OPEN.add(this);
+        }
+
+        /**
+         * Close this span, in a finally block around its phase.
+         */
+        void close() {
+            end(System.nanoTime());
+        }
+
+        /**
+         * Record this span as ending at END, if it is still open.
+         * @param end long, from System.nanoTime
+         */
+        private void end(long end) {
+            if (_name == null || !OPEN.remove(this)) {
+                return;
+            }
+            _end = end;
+            long[] now = counts();
+            for (int i = 0; i < now.length; i += 1) {
+                _counts[i] = now[i] - _counts[i];
+            }
+            DONE.add(this);
+        }
+
+        /** name, or null for the span that does nothing. */
+        private final String _name;
+        /** number of the thread that opened it. */
+        private int _thread;
+        /** name of that thread. */
+        private String _threadName;
+        /** the counters when it opened, and then what they did. */
+        private long[] _counts;
+        /** when it opened. */
+        private long _start;
+        /** when it closed. */
+        private long _end;
+    }
+
+    /** The span handed out while tracing is off. */
+    private static final Span NONE = new Span(null);
+    /** Nanoseconds in a microsecond. */
+    private static final long NANOS_PER_MICRO = 1000;
+    /** The counters. */
+    private static final AtomicLongArray COUNTS =
+        new AtomicLongArray(COUNTER_NAMES.length);
+    /** Spans open now. */
+    private static final Set<Span> OPEN = ConcurrentHashMap.newKeySet();
+    /** Spans closed, in the order they closed. */
+    private static final ConcurrentLinkedQueue<Span> DONE =
+        new ConcurrentLinkedQueue<>();
+    /** Numbers handed to threads, in the order they first trace. */
+    private static final AtomicInteger THREADS = new AtomicInteger();
+    /** This thread's number. */
+    private static final ThreadLocal<Integer> THREAD =
+        ThreadLocal.withInitial(THREADS::incrementAndGet);
+
+    /** is tracing on. */
+    private static volatile boolean _enabled;
+    /** file to write to, or null for standard error. */
+    private static String _destination;
+    /** System.nanoTime when tracing started. */
+    private static long _origin;
+}
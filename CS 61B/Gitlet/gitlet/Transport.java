@@ -0,0 +1,268 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.PipedInputStream;
+import java.io.PipedOutputStream;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.function.Predicate;
+
+/** Moves history between two repositories on the local filesystem.
+ *  The sender walks back from the commit the receiver wants and stops
+ *  at every commit the receiver already has, so only missing commits
+ *  and the blobs they add are read and sent, as one streamed pack.
+ *  @author Swadhin Nalubola
+ */
+public class Transport {
+
+    /**
+     * Open the repository recorded for remote NAME of REPO.
+     * @param repo repo
+     * @param name string
+     * @return repo, or null if there is no such remote repository
+     */
+    public static Repo openRemote(Repo repo, String name) {
+        File remoteFile = remoteFile(repo, name);
+        if (!remoteFile.isFile()) {
+            return null;
+        }
+        File gitletDir = new File(Utils.readContentsAsString(remoteFile));
+        if (!gitletDir.isAbsolute()) {
+            gitletDir = new File(repo.getWorkingDirectory(),
+                    gitletDir.getPath());
+        }
+        Repo remote = new Repo(gitletDir.getAbsoluteFile().getParent());
+        return remote.exists() ? remote : null;
+    }
+
+    /**
+     * The file recording remote NAME of REPO.  NAME must be a single ref
+     * name part, so that the file is inside the remotes directory.
+     * @param repo repo
+     * @param name string
+     * @return file
+     */
+    public static File remoteFile(Repo repo, String name) {
+        if (name.contains("/") || !RefStore.validName(name)) {
+            throw Utils.error("Invalid remote name %s.", name);
+        }
+        return new File(repo.remotesPath(), name);
+    }
+
+    /**
+     * Work out what DEST needs from SOURCE to have commit WANT.
+     * @param source repo
+     * @param dest repo
+     * @param want string
+     * @return negotiation
+     */
+    public static Negotiation negotiate(Repo source, Repo dest,
+                                        String want) {
+        return negotiate(source, dest.objects()::hasCommit,
+                dest.objects()::hasBlob, want);
+    }
+
+    /**
+     * Work out what a receiver needs from SOURCE to have commit WANT,
+     * given which commits it HASCOMMIT and which blobs it HASBLOB.  The
+     * walk stops at every commit it has, taking its history as had too.
+     * @param source repo
+     * @param hasCommit predicate on commit ids
+     * @param hasBlob predicate on blob ids
+     * @param want string
+     * @return negotiation
+     */
+    public static Negotiation negotiate(Repo source,
+                                        Predicate<String> hasCommit,
+                                        Predicate<String> hasBlob,
+                                        String want) {
+        Negotiation result = new Negotiation();
+        HashSet<String> done = new HashSet<>();
+        HashSet<String> expanded = new HashSet<>();
+        HashSet<String> blobs = new HashSet<>();
+        ArrayDeque<String> stack = new ArrayDeque<>();
+        if (want != null) {
+            stack.push(want);
+        }
+        while (!stack.isEmpty()) {
+            String sha = stack.peek();
+            if (done.contains(sha)) {
+                stack.pop();
+            } else if (hasCommit.test(sha)) {
+                stack.pop();
+                done.add(sha);
+                result._haves.add(sha);
+            } else if (expanded.add(sha)) {
+                CommitObject commit = source.objects().readCommit(sha);
+                if (commit == null) {
+                    throw Utils.error("Missing commit %s.", sha);
+                }
+                for (String blob : commit.getTrackedBlobs().values()) {
+                    if (blobs.add(blob) && !hasBlob.test(blob)) {
+                        result._blobs.add(blob);
+                    }
+                }
+                for (String parent : new String[] {
+                        commit.getParentSHA(), commit.getParent2SHA() }) {
+                    if (parent != null && !done.contains(parent)) {
+                        stack.push(parent);
+                    }
+                }
+            } else {
+                stack.pop();
+                done.add(sha);
+                result._commits.add(sha);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Stream the objects found by NEGOTIATION from SOURCE into DEST.
+     * @param source repo
+     * @param dest repo
+     * @param negotiation negotiation
+     * @return number of objects stored
+     */
+    public static int transfer(Repo source, Repo dest,
+                               Negotiation negotiation) {
+        if (negotiation._commits.isEmpty()) {
+            return 0;
+        }
+        IOException[] failure = new IOException[1];
+        PipedInputStream in = new PipedInputStream(PIPE_SIZE);
+        try {
+            PipedOutputStream out = new PipedOutputStream(in);
+            Thread sender = new Thread(() -> {
+                try (PipedOutputStream pipe = out) {
+                    Pack.write(pipe, source, negotiation._blobs,
+                            negotiation._commits);
+                } catch (IOException excp) {
+                    failure[0] = excp;
+                }
+            });
+            sender.start();
+            int stored;
+            try {
+                stored = Pack.read(in, dest);
+            } finally {
+                in.close();
+                sender.join();
+            }
+            if (failure[0] != null) {
+                throw failure[0];
+            }
+            return stored;
+        } catch (IOException | InterruptedException excp) {
+            throw Utils.error("Could not transfer objects: %s",
+                    excp.getMessage());
+        }
+    }
+
+    /**
+     * Is ANCESTOR in the history of DESCENDANT in REPO.
+     * @param repo repo
+     * @param ancestor string
+     * @param descendant string
+     * @return boolean
+     */
+    public static boolean isAncestor(Repo repo, String ancestor,
+                                     String descendant) {
+        HashSet<String> seen = new HashSet<>();
+        ArrayDeque<String> queue = new ArrayDeque<>();
+        if (descendant != null) {
+            queue.add(descendant);
+        }
+        while (!queue.isEmpty()) {
+            String sha = queue.poll();
+            if (sha.equals(ancestor)) {
+                return true;
+            }
+            CommitObject commit = repo.objects().readCommit(sha);
+            if (commit == null) {
+                continue;
+            }
+            for (String parent : new String[] {
+                    commit.getParentSHA(), commit.getParent2SHA() }) {
+                if (parent != null && seen.add(parent)) {
+                    queue.add(parent);
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Commit START and every commit it descends from, reading parents
+     * from the commit graph where it has them.
+     * @param repo repo
+     * @param start commit sha
+     * @return hashset of shas
+     */
+    public static HashSet<String> ancestors(Repo repo, String start) {
+        CommitGraph graph = repo.commitGraph();
+        HashSet<String> seen = new HashSet<>();
+        ArrayDeque<String> todo = new ArrayDeque<>();
+        todo.push(start);
+        while (!todo.isEmpty()) {
+            String sha = todo.pop();
+            if (!seen.add(sha)) {
+                continue;
+            }
+            String[] parents;
+            if (graph.contains(sha)) {
+                parents = new String[]{graph.parent(sha), graph.parent2(sha)};
+            } else {
+                CommitObject commit = repo.objects().readCommit(sha);
+                parents = new String[]{commit.getParentSHA(),
+                                       commit.getParent2SHA()};
+            }
+            for (String parent : parents) {
+                if (parent != null && !seen.contains(parent)) {
+                    todo.push(parent);
+                }
+            }
+        }
+        return seen;
+    }
+
+    /** Outcome of negotiating a transfer. */
+    public static class Negotiation {
+
+        /**
+         * Commits the receiver lacks, parents first.
+         * @return list
+         */
+        public ArrayList<String> commits() {
+            return _commits;
+        }
+
+        /**
+         * Blobs of those commits the receiver lacks.
+         * @return list
+         */
+        public ArrayList<String> blobs() {
+            return _blobs;
+        }
+
+        /**
+         * Commits found on both sides where the walk stopped.
+         * @return set
+         */
+        public HashSet<String> haves() {
+            return _haves;
+        }
+
+        /** commits to send. */
+        private final ArrayList<String> _commits = new ArrayList<>();
+        /** blobs to send. */
+        private final ArrayList<String> _blobs = new ArrayList<>();
+        /** commits both sides have. */
+        private final HashSet<String> _haves = new HashSet<>();
+    }
+
+    /** Bytes buffered between the sending and receiving threads. */
+    private static final int PIPE_SIZE = 1 << 16;
+}
@@ -0,0 +1,121 @@
+package gitlet;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.TreeSet;
+
+/** A three-way merge of snapshots (file name to blob sha), done entirely
+ *  in memory: the changes from a base snapshot to theirs are applied to
+ *  ours.  A path theirs changed is taken from theirs when ours still has
+ *  it as the base did, kept when ours already has what theirs does, and
+ *  is a conflict otherwise.  Only paths theirs changed are looked at
+ *  after the one pass that finds them.
+ *  @author Swadhin Nalubola
+ */
+public class TreeMerge {
+
+    /**
+     * Merge the changes from BASE to THEIRS into OURS.
+     * @param base snapshot
+     * @param ours snapshot
+     * @param theirs snapshot
+     */
+    public TreeMerge(Map<String, String> base, Map<String, String> ours,
+                     Map<String, String> theirs) {
+        _ours = ours;
+        _theirs = theirs;
+        _result = new HashMap<>(ours);
+        _conflicts = new TreeSet<>();
+        for (Map.Entry<String, String> entry : base.entrySet()) {
+            if (!entry.getValue().equals(theirs.get(entry.getKey()))) {
+                take(entry.getKey(), entry.getValue());
+            }
+        }
+        for (Map.Entry<String, String> entry : theirs.entrySet()) {
+            if (!base.containsKey(entry.getKey())) {
+                take(entry.getKey(), null);
+            }
+        }
+    }
+
+    /**
+     * Apply theirs' change to NAME, which the base had as blob BASESHA.
+     * @param name string
+     * @param baseSHA string, or null if the base lacked NAME
+     */
+    private void take(String name, String baseSHA) {
+        String ourSHA = _ours.get(name);
+        String theirSHA = _theirs.get(name);
+        if (Objects.equals(ourSHA, theirSHA)) {
+            return;
+        } else if (Objects.equals(ourSHA, baseSHA)) {
+            if (theirSHA == null) {
+                _result.remove(name);
+            } else {
+                _result.put(name, theirSHA);
+            }
+        } else {
+            _conflicts.add(name);
+        }
+    }
+
+    /**
+     * The merged snapshot, with ours' version of each conflicted path.
+     * @return hashmap
+     */
+    public HashMap<String, String> result() {
+        return _result;
+    }
+
+    /**
+     * The paths both sides changed differently, in order.
+     * @return treeset
+     */
+    public TreeSet<String> conflicts() {
+        return _conflicts;
+    }
+
+    /**
+     * The contents merge writes for conflicted path NAME: ours, then
+     * theirs, between conflict markers.
+     * @param objects objectdatabase
+     * @param name string
+     * @return byte[]
+     */
+    public byte[] conflictContents(ObjectDatabase objects, String name) {
+        byte[] ours = contents(objects, _ours.get(name));
+        byte[] theirs = contents(objects, _theirs.get(name));
+        byte[] head = "<<<<<<< HEAD\n".getBytes(StandardCharsets.UTF_8);
+        byte[] middle = "=======\n".getBytes(StandardCharsets.UTF_8);
+        byte[] tail = ">>>>>>>\n".getBytes(StandardCharsets.UTF_8);
+        byte[] all = new byte[head.length + ours.length + middle.length
+                              + theirs.length + tail.length];
+        int at = 0;
+        for (byte[] part : new byte[][]{head, ours, middle, theirs, tail}) {
+            System.arraycopy(part, 0, all, at, part.length);
+            at += part.length;
+        }
+        return all;
+    }
+
+    /**
+     * The contents of blob SHA.
+     * @param objects objectdatabase
+     * @param sha string, or null for none
+     * @return byte[], empty for none
+     */
+    private static byte[] contents(ObjectDatabase objects, String sha) {
+        return sha == null ? new byte[0] : objects.readBlob(sha).getContents();
+    }
+
+    /** our snapshot. */
+    private final Map<String, String> _ours;
+    /** their snapshot. */
+    private final Map<String, String> _theirs;
+    /** the merged snapshot. */
+    private final HashMap<String, String> _result;
+    /** conflicted paths. */
+    private final TreeSet<String> _conflicts;
+}
@@ -0,0 +1,156 @@
+package gitlet;
+
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+
+/** Tests of TreeMerge.
+ *  @author Swadhin Nalubola
+ */
+public class TreeMergeTest {
+
+    @Test
+    public void oneSidedChangesTest() {
+        TreeMerge merge = new TreeMerge(tree("a", A, "b", A, "c", A),
+                tree("a", B, "b", A, "c", A), tree("a", A, "b", B));
+        assertTrue(merge.conflicts().isEmpty());
+        assertEquals(tree("a", B, "b", B), merge.result());
+    }
+
+    @Test
+    public void addedFilesTest() {
+        TreeMerge merge = new TreeMerge(tree(), tree("ours", A),
+                tree("theirs", B));
+        assertTrue(merge.conflicts().isEmpty());
+        assertEquals(tree("ours", A, "theirs", B), merge.result());
+    }
+
+    @Test
+    public void sameChangeTest() {
+        TreeMerge merge = new TreeMerge(tree("a", A, "b", A),
+                tree("a", B, "new", C), tree("a", B, "new", C));
+        assertTrue(merge.conflicts().isEmpty());
+        assertEquals(tree("a", B, "new", C), merge.result());
+    }
+
+    @Test
+    public void conflictsTest() {
+        TreeMerge merge = new TreeMerge(tree("a", A, "b", A, "c", A),
+                tree("a", B, "b", B, "c", A, "d", A),
+                tree("a", C, "c", A, "d", B));
+        assertEquals(Arrays.asList("a", "b", "d"),
+                new ArrayList<>(merge.conflicts()));
+        assertEquals(tree("a", B, "b", B, "c", A, "d", A), merge.result());
+    }
+
+    @Test
+    public void deletedOnOneSideTest() {
+        TreeMerge merge = new TreeMerge(tree("a", A, "b", A),
+                tree("a", A, "b", A), tree("b", A));
+        assertTrue(merge.conflicts().isEmpty());
+        assertEquals(tree("b", A), merge.result());
+        merge = new TreeMerge(tree("a", A), tree(), tree("a", B));
+        assertEquals(Arrays.asList("a"), new ArrayList<>(merge.conflicts()));
+        assertEquals(tree(), merge.result());
+    }
+
+    @Test
+    public void conflictContentsTest() {
+        Blobs objects = new Blobs();
+        objects.put(A, "ours\n");
+        objects.put(B, "theirs\n");
+        TreeMerge merge = new TreeMerge(tree("a", C, "b", C),
+                tree("a", A, "b", A), tree("a", B));
+        assertEquals("<<<<<<< HEAD\nours\n=======\ntheirs\n>>>>>>>\n",
+                new String(merge.conflictContents(objects, "a"),
+                        StandardCharsets.UTF_8));
+        assertEquals("<<<<<<< HEAD\nours\n=======\n>>>>>>>\n",
+                new String(merge.conflictContents(objects, "b"),
+                        StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The snapshot of the alternating names and blob shas in ENTRIES.
+     * @param entries string[]
+     * @return snapshot
+     */
+    private static HashMap<String, String> tree(String... entries) {
+        HashMap<String, String> tree = new HashMap<>();
+        for (int i = 0; i < entries.length; i += 2) {
+            tree.put(entries[i], entries[i + 1]);
+        }
+        return tree;
+    }
+
+    /** Blobs held in memory, for conflictContents. */
+    private static class Blobs implements ObjectDatabase {
+
+        /**
+         * Hold TEXT as blob SHA.
+         * @param sha string
+         * @param text string
+         */
+        void put(String sha, String text) {
+            _blobs.put(sha, text.getBytes(StandardCharsets.UTF_8));
+        }
+
+        @Override
+        public boolean hasCommit(String sha) {
+            return false;
+        }
+
+        @Override
+        public boolean hasBlob(String sha) {
+            return _blobs.containsKey(sha);
+        }
+
+        @Override
+        public CommitObject readCommit(String sha) {
+            return null;
+        }
+
+        @Override
+        public Blob readBlob(String sha) {
+            return new Blob(sha, _blobs.get(sha));
+        }
+
+        @Override
+        public ByteBuffer readBlobContents(String sha) {
+            return ByteBuffer.wrap(_blobs.get(sha));
+        }
+
+        @Override
+        public void writeCommit(CommitObject commit) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void writeBlob(Blob blob) {
+            _blobs.put(blob.getSHA1(), blob.getContents());
+        }
+
+        @Override
+        public List<String> commitIds() {
+            return new ArrayList<>();
+        }
+
+        @Override
+        public String resolveCommit(String prefix) {
+            return null;
+        }
+
+        /** contents of each blob. */
+        private final HashMap<String, byte[]> _blobs = new HashMap<>();
+    }
+
+    /** Blob shas. */
+    private static final String A = "aaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaaa",
+        B = "bbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbbb",
+        C = "cccccccccccccccccccccccccccccccccccccccc";
+}
@@ -2,6 +2,11 @@ package gitlet;
 
 import ucb.junit.textui;
 import org.junit.Test;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.HashMap;
 import static org.junit.Assert.*;
 
 /** The suite of all JUnit tests for the gitlet package.
@@ -12,7 +17,12 @@ public class UnitTest {
     /** Run the JUnit tests in the loa package. Add xxxTest.class entries to
      *  the arguments of runClasses to run other JUnit tests. */
     public static void main(String[] ignored) {
-        System.exit(textui.runClasses(UnitTest.class));
+        System.exit(textui.runClasses(UnitTest.class,
+                                      BlameTest.class,
+                                      DiffTest.class,
+                                      IgnoreRulesTest.class,
+                                      SparseCheckoutTest.class,
+                                      TreeMergeTest.class));
     }
 
     /** A dummy test to avoid complaint. */
@@ -85,6 +95,120 @@ public class UnitTest {
         assertEquals(5, 5);
     }
 
-}
+    @Test
+    public void blobRoundTripTest() {
+        byte[] contents = "wug\n".getBytes(StandardCharsets.UTF_8);
+        String sha = Utils.sha1((Object) contents);
+        Blob blob = ObjectCodec.decodeBlob(
+                ByteBuffer.wrap(ObjectCodec.encode(new Blob(sha, contents))));
+        assertEquals(sha, blob.getSHA1());
+        assertArrayEquals(contents, blob.getContents());
+        byte[] encoded = ObjectCodec.encode(new Blob(sha, contents));
+        assertEquals(sha, ObjectCodec.blobId(ByteBuffer.wrap(encoded)));
+        ByteBuffer view = ObjectCodec.blobContents(ByteBuffer.wrap(encoded));
+        byte[] viewed = new byte[view.remaining()];
+        view.get(viewed);
+        assertArrayEquals(contents, viewed);
+    }
 
+    @Test
+    public void commitRoundTripTest() {
+        CommitObject first = new CommitObject("initial commit", null,
+                TIME, null, null, null, new HashMap<>());
+        CommitObject second = new CommitObject("Merged dev into master.",
+                "wug", TIME, first.getSHA(), SHA, "master", snapshot());
+        for (CommitObject commit : new CommitObject[] {first, second}) {
+            CommitObject decoded = ObjectCodec.decodeCommit(
+                    ByteBuffer.wrap(ObjectCodec.encode(commit)));
+            assertEquals(commit.getSHA(), decoded.getSHA());
+            assertEquals(commit.getLogMessage(), decoded.getLogMessage());
+            assertEquals(commit.getAuthor(), decoded.getAuthor());
+            assertEquals(commit.getTimeStamp(), decoded.getTimeStamp());
+            assertEquals(commit.getParentSHA(), decoded.getParentSHA());
+            assertEquals(commit.getParent2SHA(), decoded.getParent2SHA());
+            assertEquals(commit.getBranch(), decoded.getBranch());
+            assertEquals(commit.getTrackedBlobs(),
+                    decoded.getTrackedBlobs());
+        }
+    }
 
+    @Test
+    public void commitIdTest() {
+        CommitObject commit = new CommitObject("Add wug", null, TIME,
+                SHA, null, null, snapshot());
+        assertEquals(ObjectCodec.commitId(commit), commit.getSHA());
+        HashMap<String, String> reversed = new HashMap<>();
+        ArrayList<String> names = new ArrayList<>(snapshot().keySet());
+        for (int i = names.size() - 1; i >= 0; i -= 1) {
+            reversed.put(names.get(i), SHA);
+        }
+        CommitObject same = new CommitObject("Add wug", null, TIME,
+                SHA, null, null, reversed);
+        assertEquals(commit.getSHA(), same.getSHA());
+        CommitObject other = new CommitObject("Add wug", "wug", TIME,
+                SHA, null, null, snapshot());
+        assertNotEquals(commit.getSHA(), other.getSHA());
+        assertEquals(Utils.sha1(TIME + "Add wug"),
+                ObjectCodec.legacyCommitId(commit));
+    }
+
+    @Test
+    public void legacyDecodeTest() {
+        byte[] contents = "notwug\n".getBytes(StandardCharsets.UTF_8);
+        Blob blob = ObjectCodec.decodeBlob(ByteBuffer.wrap(
+                Utils.serialize(new Blob(SHA, contents))));
+        assertEquals(SHA, blob.getSHA1());
+        assertArrayEquals(contents, blob.getContents());
+        CommitObject commit = new CommitObject(SHA, "Add wug", null, TIME,
+                null, null, null, snapshot());
+        CommitObject decoded = ObjectCodec.decodeCommit(
+                ByteBuffer.wrap(Utils.serialize(commit)));
+        assertEquals(SHA, decoded.getSHA());
+        assertEquals("Add wug", decoded.getLogMessage());
+        assertEquals(snapshot(), decoded.getTrackedBlobs());
+    }
+
+    @Test(expected = GitletException.class)
+    public void legacyFilterTest() {
+        ArrayList<String> list = new ArrayList<>();
+        list.add("wug");
+        SerialInput.read(Utils.serialize(list), Object.class);
+    }
+
+    @Test(expected = GitletException.class)
+    public void hugeLengthTest() {
+        ByteBuffer buf = ByteBuffer.allocate(5 + 20 + 5);
+        buf.put(new byte[] {'G', 'L', 'O', 1, 1});
+        buf.put(new byte[20]);
+        buf.put(new byte[] {(byte) 0xff, (byte) 0xff, (byte) 0xff,
+                            (byte) 0xff, 0x07});
+        buf.flip();
+        ObjectCodec.decodeBlob(buf);
+    }
+
+    @Test(expected = GitletException.class)
+    public void truncatedCommitTest() {
+        byte[] encoded = ObjectCodec.encode(new CommitObject("Add wug",
+                null, TIME, SHA, null, null, snapshot()));
+        ObjectCodec.decodeCommit(
+                ByteBuffer.wrap(encoded, 0, encoded.length - 1));
+    }
+
+    /**
+     * A snapshot of a few files.
+     * @return map of file name to blob sha
+     */
+    private static HashMap<String, String> snapshot() {
+        HashMap<String, String> blobs = new HashMap<>();
+        blobs.put("wug.txt", SHA);
+        blobs.put("notwug.txt", SHA);
+        blobs.put("a/b.txt", SHA);
+        return blobs;
+    }
+
+    /** A timestamp. */
+    private static final String TIME = "Thu Jan 01 00:00:00 1970 -0800";
+    /** An object id. */
+    private static final String SHA =
+        "8d2792dd9c16fcc6c3c62d40a0adccc14895bbcd";
+}
@@ -0,0 +1,47 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+
+/** Command for watch, which runs a filesystem watcher over the working
+ *  directory until "watch stop" is given.  While one runs, checkout,
+ *  reset and merge look only at the entries it reports changed instead
+ *  of listing the whole working directory.
+ *  @author Swadhin Nalubola
+ */
+public class Watch extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (args.length == 1 && args[0].equals("stop")) {
+            if (!super.valid(args, 1, true)) {
+                System.exit(0);
+            }
+            stop(repo);
+            return;
+        }
+        if (!super.valid(args, 0, true)) {
+            System.exit(0);
+        }
+        new Watcher(repo).run();
+    }
+
+    /**
+     * Ask the watcher of REPO to stop.
+     * @param repo repo
+     */
+    private void stop(Repo repo) {
+        File stop = new File(repo.watchPath(), Watcher.STOP);
+        try {
+            stop.getParentFile().mkdirs();
+            stop.createNewFile();
+        } catch (IOException excp) {
+            throw Utils.error("Could not stop the watcher.");
+        }
+    }
+
+    @Override
+    public boolean writes() {
+        return false;
+    }
+}
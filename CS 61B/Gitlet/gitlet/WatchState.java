@@ -0,0 +1,88 @@
+package gitlet;
+
+import java.io.Serializable;
+import java.util.HashMap;
+
+/** What a running watcher has seen, as saved in .gitlet/watch/state.
+ *  Every change gets the next sequence number, so a reader that last
+ *  looked at sequence number N needs only the paths changed after N.
+ *  @author Swadhin Nalubola
+ */
+public class WatchState implements Serializable {
+
+    /**
+     * Initialize watch state.
+     * @param token string naming this run of the watcher
+     */
+    public WatchState(String token) {
+        _token = token;
+        _changed = new HashMap<>();
+    }
+
+    /**
+     * get token.
+     * @return string
+     */
+    public String getToken() {
+        return _token;
+    }
+
+    /**
+     * get latest sequence number.
+     * @return long
+     */
+    public long getSeq() {
+        return _seq;
+    }
+
+    /**
+     * get the sequence number of the last lost event.
+     * @return long
+     */
+    public long getOverflowSeq() {
+        return _overflowSeq;
+    }
+
+    /**
+     * get changed paths.
+     * @return hashmap of path, sequence number of its last change
+     */
+    public HashMap<String, Long> getChanged() {
+        return _changed;
+    }
+
+    /**
+     * record a change to PATH.
+     * @param path string
+     */
+    public void change(String path) {
+        _seq += 1;
+        _changed.put(path, _seq);
+    }
+
+    /**
+     * record that events were lost.
+     */
+    public void overflow() {
+        _seq += 1;
+        _overflowSeq = _seq;
+    }
+
+    /**
+     * forget changes at or before SEQ.
+     * @param seq long
+     * @return boolean, true if anything was forgotten
+     */
+    public boolean prune(long seq) {
+        return _changed.values().removeIf(changed -> changed <= seq);
+    }
+
+    /** name of this run of the watcher. */
+    private final String _token;
+    /** latest sequence number. */
+    private long _seq;
+    /** sequence number of the last lost event. */
+    private long _overflowSeq;
+    /** Follows the form of path, sequence number of its last change. */
+    private final HashMap<String, Long> _changed;
+}
@@ -0,0 +1,279 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.channels.FileLock;
+import java.nio.file.FileSystems;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/** Watches a working directory and keeps .gitlet/watch/state up to date
+ *  with the paths changed in it.  While it runs it holds a lock on
+ *  .gitlet/watch/lock, which is how commands tell it is alive.  A
+ *  command that needs every change made so far drops a cookie file in
+ *  .gitlet/watch and waits for the watcher to delete it; the state has
+ *  been saved by then.  Directories ignored by .gitletignore are not
+ *  watched and changes to ignored paths are not recorded; a change to
+ *  .gitletignore itself reloads it and makes commands rescan.
+ *  @author Swadhin Nalubola
+ */
+public class Watcher {
+
+    /**
+     * Initialize watcher.
+     * @param repo repo
+     */
+    public Watcher(Repo repo) {
+        _repo = repo;
+        _root = new File(repo.getWorkingDirectory()).toPath()
+            .toAbsolutePath().normalize();
+        _gitlet = new File(repo.gitletPath()).toPath()
+            .toAbsolutePath().normalize();
+        _watchDir = new File(repo.watchPath()).toPath()
+            .toAbsolutePath().normalize();
+        _keys = new HashMap<>();
+        _state = new WatchState(UUID.randomUUID().toString());
+        _ignore = repo.ignoreRules();
+    }
+
+    /**
+     * Watch until asked to stop.
+     */
+    public void run() {
+        _watchDir.toFile().mkdirs();
+        File lockFile = _watchDir.resolve(LOCK).toFile();
+        try (RandomAccessFile lockStream =
+                 new RandomAccessFile(lockFile, "rw");
+             FileLock lock = lockStream.getChannel().tryLock();
+             WatchService service =
+                 FileSystems.getDefault().newWatchService()) {
+            if (lock == null) {
+                System.out.println("A watcher is already running.");
+                return;
+            }
+            Files.deleteIfExists(_watchDir.resolve(STOP));
+            _service = service;
+            _state.overflow();
+            registerAll(_root);
+            register(_watchDir);
+            save();
+            loop();
+        } catch (IOException excp) {
+            throw Utils.error("Could not watch %s.", _root);
+        } catch (InterruptedException excp) {
+            return;
+        }
+    }
+
+    /**
+     * Take events until a stop file appears.
+     * @throws IOException on failure
+     * @throws InterruptedException if interrupted
+     */
+    private void loop() throws IOException, InterruptedException {
+        while (true) {
+            WatchKey key = _service.poll(POLL_SECONDS, TimeUnit.SECONDS);
+            ArrayList<Path> cookies = new ArrayList<>();
+            boolean stop = false;
+            boolean dirty = false;
+            while (key != null) {
+                Path dir = _keys.get(key);
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        _state.overflow();
+                        dirty = true;
+                        continue;
+                    }
+                    if (dir == null) {
+                        continue;
+                    }
+                    Path path = dir.resolve((Path) event.context());
+                    if (dir.equals(_watchDir)) {
+                        String name = path.getFileName().toString();
+                        if (name.startsWith(COOKIE)) {
+                            cookies.add(path);
+                        } else if (name.equals(STOP)) {
+                            stop = true;
+                        }
+                    } else if (!path.startsWith(_gitlet)) {
+                        dirty |= changed(path, event.kind());
+                    }
+                }
+                if (!key.reset()) {
+                    _keys.remove(key);
+                }
+                key = _service.poll();
+            }
+            dirty |= prune();
+            if (dirty || !cookies.isEmpty()) {
+                save();
+            }
+            for (Path cookie : cookies) {
+                Files.deleteIfExists(cookie);
+            }
+            if (stop) {
+                Files.deleteIfExists(_watchDir.resolve(STOP));
+                return;
+            }
+        }
+    }
+
+    /**
+     * Record an event of type KIND on PATH.
+     * @param path path
+     * @param kind kind
+     * @return boolean, true if the state changed
+     * @throws IOException on failure
+     */
+    private boolean changed(Path path, WatchEvent.Kind<?> kind)
+        throws IOException {
+        String name = relative(path);
+        if (name.equals(IgnoreRules.FILE_NAME)) {
+            _ignore = IgnoreRules.load(_root.toFile());
+            _state.overflow();
+            registerAll(_root);
+        } else if (_ignore.ignored(name, Files.isDirectory(path))) {
+            return false;
+        }
+        _state.change(name);
+        if (kind == StandardWatchEventKinds.ENTRY_CREATE
+                && Files.isDirectory(path)) {
+            registerAll(path);
+        }
+        return true;
+    }
+
+    /**
+     * Watch DIR and every directory below it that is not ignored,
+     * counting what is already in them as changed.
+     * @param dir path
+     * @throws IOException on failure
+     */
+    private void registerAll(Path dir) throws IOException {
+        Files.walkFileTree(dir, new SimpleFileVisitor<Path>() {
+            @Override
+            public FileVisitResult preVisitDirectory(Path subdir,
+                    BasicFileAttributes attrs) throws IOException {
+                if (subdir.startsWith(_gitlet) || (!subdir.equals(_root)
+                        && _ignore.matches(relative(subdir), true))) {
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+                register(subdir);
+                if (!subdir.equals(_root)) {
+                    _state.change(relative(subdir));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+
+            @Override
+            public FileVisitResult visitFile(Path file,
+                    BasicFileAttributes attrs) {
+                if (!dir.equals(_root)
+                        && !_ignore.matches(relative(file), false)) {
+                    _state.change(relative(file));
+                }
+                return FileVisitResult.CONTINUE;
+            }
+        });
+    }
+
+    /**
+     * Watch the single directory DIR.
+     * @param dir path
+     * @throws IOException on failure
+     */
+    private void register(Path dir) throws IOException {
+        WatchKey key = dir.register(_service,
+                StandardWatchEventKinds.ENTRY_CREATE,
+                StandardWatchEventKinds.ENTRY_DELETE,
+                StandardWatchEventKinds.ENTRY_MODIFY);
+        _keys.put(key, dir);
+    }
+
+    /**
+     * Forget changes the saved index has already caught up with.
+     * @return boolean, true if anything was forgotten
+     */
+    private boolean prune() {
+        File stageFile = _repo.stageFile();
+        long modified = stageFile.lastModified();
+        if (modified == _stageModified) {
+            return false;
+        }
+        try {
+            Stage stage = _repo.readStage();
+            _stageModified = modified;
+            if (_state.getToken().equals(stage.getWatchToken())) {
+                return _state.prune(stage.getWatchSeq());
+            }
+        } catch (IllegalArgumentException excp) {
+            return false;
+        }
+        return false;
+    }
+
+    /**
+     * Save the state where commands can read it.
+     * @throws IOException on failure
+     */
+    private void save() throws IOException {
+        File temp = _watchDir.resolve(STATE + ".tmp").toFile();
+        Utils.writeObject(temp, _state);
+        Files.move(temp.toPath(), _watchDir.resolve(STATE),
+                StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * PATH relative to the working directory, with / separators.
+     * @param path path
+     * @return string
+     */
+    private String relative(Path path) {
+        return _root.relativize(path).toString()
+            .replace(File.separatorChar, '/');
+    }
+
+    /** Name of the file the watcher keeps locked while it runs. */
+    static final String LOCK = "lock";
+    /** Name of the saved watch state. */
+    static final String STATE = "state";
+    /** Prefix of cookie files. */
+    static final String COOKIE = "cookie-";
+    /** Name of the file that asks the watcher to stop. */
+    static final String STOP = "stop";
+    /** Seconds to wait for events before checking the index again. */
+    private static final long POLL_SECONDS = 1;
+
+    /** the repo. */
+    private final Repo _repo;
+    /** working directory. */
+    private final Path _root;
+    /** .gitlet directory. */
+    private final Path _gitlet;
+    /** directory of watcher files. */
+    private final Path _watchDir;
+    /** directory of each watch key. */
+    private final HashMap<WatchKey, Path> _keys;
+    /** changes seen. */
+    private final WatchState _state;
+    /** the working directory's ignore rules. */
+    private IgnoreRules _ignore;
+    /** the watch service. */
+    private WatchService _service;
+    /** modification time of the index when last pruned against. */
+    private long _stageModified;
+}
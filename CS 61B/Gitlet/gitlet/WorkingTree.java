@@ -0,0 +1,298 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+
+/** Finds the entries of the working directory a command has to look at.
+ *  Without a watcher that is every entry.  With one, it is the tracked
+ *  and staged files, the untracked files the index saw last time, and
+ *  whatever the watcher reports changed since then.  Entries outside
+ *  the sparse checkout, and untracked entries matched by .gitletignore,
+ *  are left out either way.
+ *  @author Swadhin Nalubola
+ */
+public class WorkingTree {
+
+    /**
+     * Initialize working tree.
+     * @param repo repo
+     */
+    public WorkingTree(Repo repo) {
+        _repo = repo;
+        _dir = new File(repo.getWorkingDirectory());
+    }
+
+    /**
+     * Entries of the working directory that may matter to STAGE.
+     * @param stage stage
+     * @return list
+     */
+    public List<File> files(Stage stage) {
+        Trace.Span span = Trace.span("scan working tree");
+        try {
+            return scan(stage);
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * Entries of the working directory that may matter to STAGE.
+     * @param stage stage
+     * @return list
+     */
+    private List<File> scan(Stage stage) {
+        _state = watchState();
+        _names = new HashSet<>();
+        if (_state == null || !_state.getToken().equals(stage.getWatchToken())
+                || _state.getOverflowSeq() > stage.getWatchSeq()) {
+            String[] names = _dir.list();
+            Trace.count(Trace.DIRECTORIES_LISTED, 1);
+            if (names != null) {
+                for (String name : names) {
+                    _names.add(name);
+                }
+            }
+        } else {
+            _names.addAll(stage.getTracked().keySet());
+            _names.addAll(stage.getStaged().keySet());
+            _names.addAll(stage.getUntracked());
+            for (Map.Entry<String, Long> entry
+                     : _state.getChanged().entrySet()) {
+                if (entry.getValue() > stage.getWatchSeq()) {
+                    _names.add(entry.getKey().split("/", 2)[0]);
+                }
+            }
+        }
+        IgnoreRules ignore = _repo.ignoreRules();
+        SparseCheckout sparse = _repo.sparseCheckout();
+        ArrayList<File> files = new ArrayList<>();
+        for (Iterator<String> names = _names.iterator(); names.hasNext();) {
+            String name = names.next();
+            File file = new File(_dir, name);
+            boolean isDirectory = file.isDirectory();
+            if (isDirectory ? !sparse.mayContain(name)
+                    : !sparse.includes(name)) {
+                names.remove();
+            } else if (!stage.isTracked(name) && !stage.isStaged(name)
+                    && ignore.matches(name, isDirectory)) {
+                names.remove();
+            } else if (!name.equals(".gitlet") && file.exists()) {
+                files.add(file);
+            }
+        }
+        return files;
+    }
+
+    /**
+     * Record in STAGE how far the watcher had got when files() ran, and
+     * the untracked files among those entries.  Call before writing
+     * STAGE.
+     * @param stage stage
+     */
+    public void record(Stage stage) {
+        if (_state == null) {
+            stage.setWatch(null, 0, null);
+            return;
+        }
+        HashSet<String> untracked = new HashSet<>();
+        for (String name : _names) {
+            if (!name.equals(".gitlet") && new File(_dir, name).isFile()
+                    && !stage.isTracked(name) && !stage.isStaged(name)) {
+                untracked.add(name);
+            }
+        }
+        stage.setWatch(_state.getToken(), _state.getSeq(), untracked);
+    }
+
+    /**
+     * Change the working directory and STAGE's tracked files from
+     * snapshot FROM to snapshot TO, touching only the paths that differ.
+     * Exits, changing nothing, if that would lose a local change.
+     * @param stage stage
+     * @param from snapshot of file name to blob sha
+     * @param to snapshot of file name to blob sha
+     */
+    public void update(Stage stage, Map<String, String> from,
+                       Map<String, String> to) {
+        Trace.Span span = Trace.span("update working tree");
+        try {
+            move(stage, from, to);
+        } finally {
+            span.close();
+        }
+    }
+
+    /**
+     * Change the working directory and STAGE's tracked files from
+     * snapshot FROM to snapshot TO, as update does.
+     * @param stage stage
+     * @param from snapshot of file name to blob sha
+     * @param to snapshot of file name to blob sha
+     */
+    private void move(Stage stage, Map<String, String> from,
+                      Map<String, String> to) {
+        TreeSet<String> changed = changed(from, to);
+        for (String name : changed) {
+            requireClean(stage, name, from.get(name), to.get(name));
+        }
+        SparseCheckout sparse = _repo.sparseCheckout();
+        for (String name : changed) {
+            String sha = to.get(name);
+            if (sparse.includes(name)) {
+                if (sha != null) {
+                    _repo.materializer().write(sha, new File(_dir, name));
+                } else {
+                    _repo.materializer().delete(new File(_dir, name));
+                }
+            }
+            if (sha != null) {
+                stage.track(name, sha);
+            } else {
+                stage.unTrack(name, null);
+            }
+        }
+    }
+
+    /**
+     * Exit unless every path that differs between snapshot FROM, which
+     * STAGE tracks, and snapshot TO can be replaced without losing
+     * anything (see below).
+     * @param stage stage
+     * @param from snapshot of file name to blob sha
+     * @param to snapshot of file name to blob sha
+     */
+    public void requireClean(Stage stage, Map<String, String> from,
+                             Map<String, String> to) {
+        for (String name : changed(from, to)) {
+            requireClean(stage, name, from.get(name), to.get(name));
+        }
+    }
+
+    /**
+     * Exit unless the working copy of NAME holds blob FROM, which STAGE
+     * tracks, or blob TO, so that replacing it loses nothing.  Ignored
+     * untracked files may always be replaced.
+     * @param stage stage
+     * @param name string
+     * @param from string, or null if NAME is untracked
+     * @param to string, or null for no file
+     */
+    public void requireClean(Stage stage, String name, String from,
+                             String to) {
+        File file = new File(_dir, name);
+        if (!_repo.sparseCheckout().includes(name) || !file.isFile()
+                || from != null && stage.unchanged(name, file, from)
+                || from == null && _repo.ignoreRules().ignored(name, false)) {
+            return;
+        }
+        String sha = Utils.sha1(Utils.readContents(file));
+        if (sha.equals(from) || sha.equals(to)) {
+            return;
+        } else if (from == null) {
+            System.out.println("There is an untracked file in the way; "
+                    + "delete it or add it first.");
+        } else {
+            System.out.println("Your local changes to " + name
+                    + " would be overwritten; commit them first.");
+        }
+        System.exit(0);
+    }
+
+    /**
+     * The paths whose blobs differ between snapshots FROM and TO, in
+     * order.
+     * @param from snapshot of file name to blob sha
+     * @param to snapshot of file name to blob sha
+     * @return treeset
+     */
+    private static TreeSet<String> changed(Map<String, String> from,
+                                           Map<String, String> to) {
+        TreeSet<String> changed = new TreeSet<>();
+        for (Map.Entry<String, String> entry : from.entrySet()) {
+            if (!entry.getValue().equals(to.get(entry.getKey()))) {
+                changed.add(entry.getKey());
+            }
+        }
+        for (String name : to.keySet()) {
+            if (!from.containsKey(name)) {
+                changed.add(name);
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * The state of a running watcher, once it has caught up with every
+     * change made so far.
+     * @return watchstate, or null if there is no usable watcher
+     */
+    private WatchState watchState() {
+        File watchDir = new File(_repo.watchPath());
+        File lock = new File(watchDir, Watcher.LOCK);
+        if (!lock.isFile() || !watcherRunning(lock)) {
+            return null;
+        }
+        File cookie = new File(watchDir, Watcher.COOKIE + UUID.randomUUID());
+        try {
+            if (!cookie.createNewFile()) {
+                return null;
+            }
+            long deadline = System.currentTimeMillis() + SYNC_TIMEOUT;
+            while (cookie.exists()) {
+                if (System.currentTimeMillis() > deadline) {
+                    cookie.delete();
+                    return null;
+                }
+                Thread.sleep(1);
+            }
+            return Utils.readObject(new File(watchDir, Watcher.STATE),
+                    WatchState.class);
+        } catch (IOException | InterruptedException
+                 | IllegalArgumentException excp) {
+            cookie.delete();
+            return null;
+        }
+    }
+
+    /**
+     * Does a watcher hold LOCK.
+     * @param lock file
+     * @return boolean
+     */
+    private static boolean watcherRunning(File lock) {
+        try (FileChannel channel = FileChannel.open(lock.toPath(),
+                StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            FileLock held = channel.tryLock();
+            if (held == null) {
+                return true;
+            }
+            held.release();
+            return false;
+        } catch (IOException excp) {
+            return false;
+        }
+    }
+
+    /** Milliseconds to wait for the watcher to catch up. */
+    private static final long SYNC_TIMEOUT = 2000;
+
+    /** the repo. */
+    private final Repo _repo;
+    /** working directory. */
+    private final File _dir;
+    /** watcher state used by the last call to files(), or null. */
+    private WatchState _state;
+    /** entry names looked at by the last call to files(). */
+    private HashSet<String> _names;
+}
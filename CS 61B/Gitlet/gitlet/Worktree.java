@@ -0,0 +1,156 @@
+package gitlet;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/** Command for worktree, which gives one repository more working
+ *  directories:
+ *  worktree add DIR BRANCH  check BRANCH out into the new directory DIR
+ *  worktree list            show every working directory, its head and
+ *                           branch, the main one first
+ *  worktree prune           forget worktrees whose directories are gone
+ *  An added worktree has its own stage and head, kept in
+ *  .gitlet/worktrees/NAME, and shares the objects, refs, remotes and
+ *  settings of the repository it was added from (see Repo), so adding
+ *  one writes only its files.  A branch can be checked out in only one
+ *  worktree at a time.
+ *  @author Swadhin Nalubola
+ */
+public class Worktree extends Command {
+
+    @Override
+    public void run(Repo repo, String[] args) {
+        if (!super.valid(args, Math.max(1, args.length), true)) {
+            System.exit(0);
+        }
+        String[] rest = Arrays.copyOfRange(args, 1, args.length);
+        switch (args[0]) {
+        case "add":
+            if (!super.valid(rest, 2, true)) {
+                System.exit(0);
+            }
+            add(repo, rest[0], rest[1]);
+            return;
+        case "list":
+            if (!super.valid(rest, 0, true)) {
+                System.exit(0);
+            }
+            for (String tree : repo.worktrees()) {
+                Stage stage = new Repo(tree).readStage();
+                System.out.println(tree + " "
+                        + stage.getHead().substring(0, 7) + " ["
+                        + stage.getBranch() + "]");
+            }
+            return;
+        case "prune":
+            if (!super.valid(rest, 0, true)) {
+                System.exit(0);
+            }
+            prune(repo);
+            return;
+        default:
+            System.out.println("Incorrect operands.");
+            System.exit(0);
+        }
+    }
+
+    /**
+     * Add a worktree of REPO in directory DIR with BRANCH checked out.
+     * @param repo repo
+     * @param dir string
+     * @param branch string
+     */
+    private void add(Repo repo, String dir, String branch) {
+        File tree = new File(dir);
+        if (!tree.isAbsolute()) {
+            tree = new File(repo.getWorkingDirectory(), dir);
+        }
+        tree = tree.toPath().toAbsolutePath().normalize().toFile();
+        String head = repo.refs().get(branch);
+        String[] inside = tree.list();
+        if (head == null) {
+            System.out.println("No such branch exists.");
+            System.exit(0);
+        } else if (tree.isFile() || (inside != null && inside.length > 0)) {
+            System.out.println(dir + " already exists.");
+            System.exit(0);
+        }
+        String other = branch.equals(repo.readStage().getBranch())
+            ? repo.getWorkingDirectory() : repo.otherWorktree(branch);
+        if (other != null) {
+            System.out.println("Branch " + branch
+                    + " is already checked out in " + other + ".");
+            System.exit(0);
+        }
+
+        File own = new File(repo.worktreesPath(), tree.getName());
+        for (int n = 1; own.exists(); n += 1) {
+            own = new File(repo.worktreesPath(), tree.getName() + n);
+        }
+        new File(own, "stage").mkdirs();
+        tree.mkdirs();
+        Utils.writeContents(new File(own, Repo.WORKTREE_PATH),
+                tree.getPath(), "\n");
+        Utils.writeContents(new File(tree, ".gitlet"), Repo.GITDIR,
+                own.getAbsolutePath(), "\n");
+
+        Repo added = new Repo(tree.getPath());
+        added.lock();
+        Stage stage = new Stage();
+        stage.setBranch(branch);
+        stage.setHead(head);
+        HashMap<String, String> blobs =
+            added.objects().readCommit(head).getTrackedBlobs();
+        for (Map.Entry<String, String> entry : blobs.entrySet()) {
+            added.materializer().write(entry.getValue(),
+                    new File(tree, entry.getKey()));
+            stage.track(entry.getKey(), entry.getValue());
+        }
+        added.writeStage(stage);
+    }
+
+    /**
+     * Delete the directories of REPO's added worktrees whose working
+     * directories no longer point back at them.
+     * @param repo repo
+     */
+    private void prune(Repo repo) {
+        File[] owns = new File(repo.worktreesPath())
+            .listFiles(File::isDirectory);
+        if (owns == null) {
+            return;
+        }
+        for (File own : owns) {
+            File path = new File(own, Repo.WORKTREE_PATH);
+            File gitlet = path.isFile() ? new File(Utils
+                    .readContentsAsString(path).trim(), ".gitlet") : null;
+            if (gitlet == null || !gitlet.isFile()
+                    || !Utils.readContentsAsString(gitlet).trim()
+                    .equals(Repo.GITDIR + own.getAbsolutePath())) {
+                delete(own.toPath());
+            }
+        }
+    }
+
+    /**
+     * Delete DIR and everything in it.
+     * @param dir path
+     */
+    private static void delete(Path dir) {
+        try (Stream<Path> walk = Files.walk(dir)) {
+            for (Path p : (Iterable<Path>) walk
+                     .sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(p);
+            }
+        } catch (IOException excp) {
+            throw Utils.error("Could not delete %s.", dir);
+        }
+    }
+}